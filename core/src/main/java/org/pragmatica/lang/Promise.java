@@ -25,6 +25,7 @@ import org.pragmatica.lang.io.Timeout;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.VarHandle;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.function.Consumer;
@@ -47,6 +48,17 @@ public interface Promise<T> {
      */
     Promise<T> resolve(Result<T> value);
 
+    /**
+     * Same as {@link #resolve(Result)}, but actions attached to the Promise are executed by provided executor instead of the new virtual thread.
+     * For example, {@code Runnable::run} executes actions in the calling thread.
+     *
+     * @param value    The value to resolve the Promise instance.
+     * @param executor The executor for the attached actions
+     *
+     * @return Current instance
+     */
+    Promise<T> resolveWith(Result<T> value, Executor executor);
+
     /**
      * Resolve current instance with {@link CoreError#CANCELLED} error.
      *
@@ -835,8 +847,13 @@ public interface Promise<T> {
 
         @Override
         public Promise<T> resolve(Result<T> value) {
+            return resolveWith(value, Promise::runAsync);
+        }
+
+        @Override
+        public Promise<T> resolveWith(Result<T> value, Executor executor) {
             if (VALUE.compareAndSet(this, null, value)) {
-                runAsync(() -> runActions(value));
+                executor.execute(() -> runActions(value));
             }
 
             return this;
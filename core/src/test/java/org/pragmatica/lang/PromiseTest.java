@@ -45,6 +45,17 @@ class PromiseTest {
         assertEquals(1, ref.get());
     }
 
+    @Test
+    void actionsAreExecutedByProvidedExecutor() {
+        var thread = new AtomicReference<Thread>();
+        var promise = Promise.<Integer>promise()
+                             .onSuccessDo(() -> thread.set(Thread.currentThread()));
+
+        promise.resolveWith(Result.success(1), Runnable::run);
+
+        assertSame(Thread.currentThread(), thread.get());
+    }
+
     @Test
     void resolvedPromiseCanBeCreated() {
         var promise = Promise.resolved(Result.success(1));
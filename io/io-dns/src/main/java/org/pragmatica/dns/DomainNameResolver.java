@@ -21,6 +21,7 @@ import org.pragmatica.dns.codec.MessageType;
 import org.pragmatica.dns.codec.QuestionRecord;
 import org.pragmatica.io.AsyncCloseable;
 import org.pragmatica.io.PromiseIO;
+import org.pragmatica.io.async.Proactor;
 import org.pragmatica.io.async.file.FileDescriptor;
 import org.pragmatica.io.async.net.InetAddress.Inet4Address;
 import org.pragmatica.io.async.net.InetPort;
@@ -31,6 +32,7 @@ import org.pragmatica.lang.Promise;
 import org.pragmatica.lang.Result;
 import org.pragmatica.lang.Unit;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -38,6 +40,7 @@ import java.util.concurrent.PriorityBlockingQueue;
 
 import static java.util.Comparator.comparingLong;
 import static org.pragmatica.dns.codec.DnsIoErrors.NO_RESULTS_FOUND;
+import static org.pragmatica.io.async.Proactor.proactor;
 import static org.pragmatica.io.async.Timeout.timeout;
 import static org.pragmatica.io.async.net.SocketAddress.socketAddress;
 import static org.pragmatica.lang.Functions.FN1.id;
@@ -118,11 +121,12 @@ public class DomainNameResolver implements AsyncCloseable {
 
     private void startResolve(Promise<DomainAddress> promise, DomainName domainName) {
         var requestBuffer = encodeQuery(domainName);
+        var queries = new ArrayList<Promise<DomainAddress>>(sockets.size());
 
-        anySuccess(NO_RESULTS_FOUND.result(),
-                   sockets.stream()
-                          .map(socket -> querySingleServer(socket, requestBuffer, domainName))
-                          .toList())
+        // Queries to all servers are passed to the kernel in one submission
+        proactor().batch(batch -> sockets.forEach(socket -> queries.add(querySingleServer(batch, socket, requestBuffer, domainName))));
+
+        anySuccess(NO_RESULTS_FOUND.result(), queries)
             .onResult(promise::resolve)
             .onResultDo(requestBuffer::close);
 
@@ -142,20 +146,26 @@ public class DomainNameResolver implements AsyncCloseable {
         return requestBuffer;
     }
 
-    private Promise<DomainAddress> querySingleServer(FileDescriptor socket, OffHeapSlice requestBuffer, DomainName domainName) {
+    private Promise<DomainAddress> querySingleServer(Proactor batch, FileDescriptor socket, OffHeapSlice requestBuffer, DomainName domainName) {
         var promise = Promise.<DomainAddress>promise();
         var responseBuffer = OffHeapSlice.fixedSize(4096);
 
-        PromiseIO.write(socket, requestBuffer)
-                 .flatMap(() -> PromiseIO.read(socket, responseBuffer))
-                 .onResultDo(() -> decodeResponse(responseBuffer, promise, domainName))
-                 .onResultDo(responseBuffer::close);
+        // Response is read only if request is sent successfully. Query is cancelled once any other server responds.
+        batch.chain(result -> {
+                        decodeResponse(result, responseBuffer, promise, domainName);
+                        responseBuffer.close();
+                    },
+                    steps -> {
+                        steps.write(__ -> {}, socket, requestBuffer);
+                        steps.read(__ -> {}, socket, responseBuffer);
+                    })
+             .cancelWith(promise);
 
         return promise;
     }
 
-    private void decodeResponse(OffHeapSlice buffer, Promise<DomainAddress> promise, DomainName domainName) {
-        promise.resolve(decodeDomainAddress(buffer, domainName));
+    private void decodeResponse(Result<Unit> result, OffHeapSlice buffer, Promise<DomainAddress> promise, DomainName domainName) {
+        promise.resolve(result.flatMap(__ -> decodeDomainAddress(buffer, domainName)));
     }
 
     private Result<DomainAddress> decodeDomainAddress(OffHeapSlice buffer, DomainName domainName) {
@@ -72,7 +72,7 @@ final class BlockReaderProtocolImpl implements BlockReaderProtocol, BiConsumer<R
 
     @Override
     public void run() {
-        proactor().read(this, context.fd(), context.buffer(), OffsetT.offsetT(offset), context.timeout());
+        proactor(context.fd()).read(this, context.fd(), context.buffer(), OffsetT.offsetT(offset), context.timeout());
     }
 
     @Override
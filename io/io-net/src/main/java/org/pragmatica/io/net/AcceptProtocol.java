@@ -28,6 +28,8 @@ public interface AcceptProtocol<T extends InetAddress> {
      * Process successful connection accept.
      * <p>
      * WARNING: Provided {@link Proactor} instance is transient, it should not be stored nor used outside the method body.
+     * <p>
+     * Method is invoked by the {@link Proactor} worker thread which accepted connection, so it must not block.
      *
      * @param context  connection context
      */
@@ -63,7 +63,7 @@ public sealed interface EchoProtocol<T extends InetAddress> extends ConnectionPr
 
         @Override
         public void process() {
-            readHandler.proactor = proactor();
+            readHandler.proactor = proactor(readHandler.socket);
             readHandler.apply(SizeT.ZERO);
         }
 
@@ -61,23 +61,24 @@ public sealed interface FixedBuffersEchoProtocol<T extends InetAddress> extends
 
         @Override
         public void process() {
-            proactor().allocateFixedBuffer(config.bufferSize())
+            proactor(socket).allocateFixedBuffer(config.bufferSize())
                       .onFailure(this::handleFailure)
-                      .onSuccess(buf -> buffer = buf);
-
-            proactor().readFixed(this::readHandler, socket, buffer, config.timeout());
+                      .onSuccess(buf -> {
+                          buffer = buf;
+                          proactor(socket).readFixed(this::readHandler, socket, buffer, config.timeout());
+                      });
         }
 
         private void readHandler(Result<SizeT> result) {
             result.fold(this::handleFailure, size -> {
-                proactor().writeFixed(this::writeHandler, socket, buffer, config.timeout());
+                proactor(socket).writeFixed(this::writeHandler, socket, buffer, config.timeout());
                 return Unit.unit();
             });
         }
 
         private void writeHandler(Result<SizeT> result) {
             result.fold(this::handleFailure, size -> {
-                proactor().readFixed(this::readHandler, socket, buffer, config.timeout());
+                proactor(socket).readFixed(this::readHandler, socket, buffer, config.timeout());
                 return Unit.unit();
             });
         }
@@ -88,7 +89,7 @@ public sealed interface FixedBuffersEchoProtocol<T extends InetAddress> extends
             }
 
             option(buffer).onPresent(FixedBuffer::dispose);
-            proactor().close(this::logClosing, socket);
+            proactor(socket).close(this::logClosing, socket);
 
             return Unit.unit();
         }
@@ -0,0 +1,177 @@
+/*
+ *  Copyright (c) 2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.pragmatica.io.net.protocols;
+
+import org.pragmatica.io.async.Proactor;
+import org.pragmatica.io.async.SystemError;
+import org.pragmatica.io.async.Timeout;
+import org.pragmatica.io.async.common.SizeT;
+import org.pragmatica.io.async.file.FileDescriptor;
+import org.pragmatica.io.async.net.InetAddress;
+import org.pragmatica.io.async.net.MessageFlags;
+import org.pragmatica.io.async.util.allocator.ProvidedBuffer;
+import org.pragmatica.io.net.AcceptProtocol;
+import org.pragmatica.io.net.ConnectionProtocol;
+import org.pragmatica.io.net.ConnectionProtocolContext;
+import org.pragmatica.lang.Option;
+import org.pragmatica.lang.Result;
+import org.pragmatica.lang.Result.Cause;
+import org.pragmatica.lang.Unit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.EnumSet;
+import java.util.Queue;
+import java.util.Set;
+
+import static org.pragmatica.io.async.Proactor.proactor;
+
+/**
+ * Simple TCP Echo protocol implementation. All it does is sending back received data.
+ * <p>
+ * This version receives stream of data into buffers provided by the kernel using single multishot receive operation, so connection holds buffers
+ * only while received data is being sent back. If multishot receive is not supported by the kernel, data are received with regular receive
+ * operations.
+ */
+public sealed interface ProvidedBuffersEchoProtocol<T extends InetAddress> extends ConnectionProtocol<T> {
+    static <T extends InetAddress> AcceptProtocol<T> acceptEchoProtocol(Option<Timeout> timeout) {
+        return context -> new EchoProtocolImpl<>(new EchoProtocolConfig<>(timeout), context).process();
+    }
+
+    record EchoProtocolConfig<T extends InetAddress>(Option<Timeout> timeout) {}
+
+    /**
+     * All callbacks are invoked by the worker thread of the {@link Proactor} instance which received data, so state does not need
+     * synchronization.
+     */
+    final class EchoProtocolImpl<T extends InetAddress> implements ProvidedBuffersEchoProtocol<T> {
+        private static final Logger LOG = LoggerFactory.getLogger(ProvidedBuffersEchoProtocol.class);
+        private static final Set<MessageFlags> NO_FLAGS = EnumSet.noneOf(MessageFlags.class);
+
+        private final EchoProtocolConfig<T> config;
+        private final FileDescriptor socket;
+        private final Queue<ProvidedBuffer> pending = new ArrayDeque<>();
+        private boolean multishot = true;
+        private boolean armed;
+        private boolean sending;
+        private boolean closing;
+
+        public EchoProtocolImpl(EchoProtocolConfig<T> config, ConnectionProtocolContext<T> context) {
+            this.config = config;
+            this.socket = context.connectionContext().socket();
+        }
+
+        @Override
+        public void process() {
+            receive(proactor(socket));
+        }
+
+        private void receive(Proactor proactor) {
+            armed = true;
+
+            if (multishot) {
+                proactor.recvMultishot(this::readHandler, socket, NO_FLAGS);
+            } else {
+                proactor.recv(this::readHandler, socket, NO_FLAGS, config.timeout());
+            }
+        }
+
+        private void readHandler(Result<ProvidedBuffer> result, Proactor proactor) {
+            // Multishot operation remains armed until failure
+            armed = multishot && result.isSuccess();
+
+            result.onSuccess(pending::add)
+                  .onFailure(this::handleReadFailure);
+
+            if (sending) {
+                return;
+            }
+
+            if (pending.isEmpty()) {
+                resume(proactor);
+            } else {
+                sendNext(proactor);
+            }
+        }
+
+        private void handleReadFailure(Cause failure) {
+            if (failure == SystemError.EINVAL && multishot) {
+                multishot = false;
+                return;
+            }
+
+            if (failure != SystemError.ENOBUFS && failure != SystemError.ECANCELED) {
+                logFailure(failure);
+                closing = true;
+            }
+        }
+
+        private void sendNext(Proactor proactor) {
+            sending = true;
+            proactor.send(this::writeHandler, socket, pending.peek(), NO_FLAGS, config.timeout());
+        }
+
+        private void writeHandler(Result<SizeT> result, Proactor proactor) {
+            pending.remove().release();
+            sending = false;
+
+            result.onFailure(failure -> {
+                logFailure(failure);
+                closing = true;
+            });
+
+            if (pending.isEmpty() || closing) {
+                resume(proactor);
+            } else {
+                sendNext(proactor);
+            }
+        }
+
+        private void resume(Proactor proactor) {
+            if (closing) {
+                close(proactor);
+            } else if (!armed) {
+                receive(proactor);
+            }
+        }
+
+        private void close(Proactor proactor) {
+            // Wait for the final invocation of the multishot operation, so no more buffers will be delivered
+            if (armed) {
+                return;
+            }
+
+            pending.forEach(ProvidedBuffer::release);
+            pending.clear();
+            proactor.close(this::logClosing, socket, Option.empty());
+        }
+
+        private void logFailure(Cause failure) {
+            if (LOG.isInfoEnabled()) {
+                LOG.info("I/O error: {}", failure);
+            }
+        }
+
+        private void logClosing(Result<Unit> unused) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Socket {} closed", socket);
+            }
+        }
+    }
+}
@@ -70,12 +70,12 @@ public class TcpClient<T extends InetAddress> implements Client {
     }
 
     private <R> void closeSocket(Promise<R> promise, FileDescriptor socket) {
-        promise.onResultDo(() -> proactor().close(Unit::unit, socket));
+        promise.onResultDo(() -> proactor(socket).close(Unit::unit, socket));
     }
 
     private <R> void doConnect(FileDescriptor socket, Promise<R> promise, ClientProtocol<R> protocol) {
-        proactor().connect(result -> handleConnection(result, protocol, socket, promise),
-                           socket, config.address(), config.connectTimeout());
+        proactor(socket).connect(result -> handleConnection(result, protocol, socket, promise),
+                                 socket, config.address(), config.connectTimeout());
     }
 
     private <R> void handleConnection(Result<FileDescriptor> result,
@@ -17,6 +17,7 @@
 
 package org.pragmatica.io.net.tcp;
 
+import org.pragmatica.io.async.Cancellable;
 import org.pragmatica.io.async.SystemError;
 import org.pragmatica.io.async.net.ConnectionContext;
 import org.pragmatica.io.async.net.InetAddress;
@@ -26,11 +27,14 @@ import org.pragmatica.io.net.Listener;
 import org.pragmatica.lang.Option;
 import org.pragmatica.lang.Promise;
 import org.pragmatica.lang.Result;
+import org.pragmatica.lang.Result.Cause;
 import org.pragmatica.lang.Unit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 
 import static org.pragmatica.io.async.Proactor.proactor;
 import static org.pragmatica.io.async.util.DaemonThreadFactory.shutdownThreadFactory;
@@ -42,11 +46,14 @@ import static org.pragmatica.lang.Promise.runAsync;
  */
 public class TcpListener<T extends InetAddress> implements Listener<T> {
     private static final Logger LOG = LoggerFactory.getLogger(TcpListener.class);
+    private static final long THROTTLE_PAUSE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
 
     private final ListenConfig<T> config;
     private final Promise<Unit> shutdown = Promise.promise();
     private final Promise<Unit> serve = Promise.promise();
     private final AtomicReference<ListenContext<T>> serverContext = new AtomicReference<>();
+    private final AtomicReference<Cancellable> pendingAccept = new AtomicReference<>(Cancellable.none());
+    private volatile boolean stopping = false;
 
     private TcpListener(ListenConfig<T> config) {
         this.config = config;
@@ -87,7 +94,10 @@ public class TcpListener<T extends InetAddress> implements Listener<T> {
     @Override
     public Promise<Unit> shutdown() {
         if (serverContext.get() != null) {
-            proactor().close(shutdown::resolve, serverContext.get().socket(), Option.empty());
+            // Pending accept holds reference to the listening socket, so socket is not released by close until accept is cancelled
+            stopping = true;
+            pendingAccept.get().cancel();
+            serverContext.get().proactor().close(shutdown::resolve, serverContext.get().socket(), Option.empty());
         }
 
         return shutdown;
@@ -106,18 +116,69 @@ public class TcpListener<T extends InetAddress> implements Listener<T> {
             return;
         }
 
-        runAsync(() -> repeatAccept(context));
+        runAsync(() -> startAccept(context));
+    }
+
+    private void startAccept(ListenContext<T> context) {
+        if (stopping || throttle(context, () -> startAccept(context))) {
+            return;
+        }
+
+        pendingAccept.set(context.proactor().acceptMultishot((result, proactor1) -> processMultishotAccept(context, result), context.socket(),
+                                                             config.acceptorFlags(), context.address().address()));
+    }
+
+    private void processMultishotAccept(ListenContext<T> context, Result<ConnectionContext<T>> result) {
+        result.onSuccess(connectionContext -> handleSuccessfulAccept(context, connectionContext))
+              .onSuccessDo(() -> checkOverload(context))
+              .onFailure(failure -> handleMultishotFailure(context, failure));
+    }
+
+    private void checkOverload(ListenContext<T> context) {
+        // Stop multishot accept while proactor is overloaded, accepting is resumed once operation is completed (see handleMultishotFailure).
+        // Cancellation may fail (for example, if backlog is full), so it is requested again on each completion until operation is stopped.
+        if (isOverloaded(context)) {
+            pendingAccept.get().cancel();
+        }
+    }
+
+    private void handleMultishotFailure(ListenContext<T> context, Cause failure) {
+        if (stopping) {
+            return;
+        }
+
+        if (failure == SystemError.ECANCELED || failure == SystemError.EAGAIN) {
+            // Kernel stopped accepting connections without error or proactor was overloaded, operation needs to be re-armed
+            startAccept(context);
+        } else if (failure == SystemError.EINVAL) {
+            // Multishot accept is not supported by kernel, accept connections one by one
+            repeatAccept(context);
+        } else {
+            LOG.warn("Accept error: {}", failure.message());
+            serve.failure(failure);
+        }
     }
 
     private void repeatAccept(ListenContext<T> context) {
-        proactor().accept((result, proactor1) -> processAccept(context, result), context.socket(),
-                          config.acceptorFlags(), context.address().address());
+        if (stopping || throttle(context, () -> repeatAccept(context))) {
+            return;
+        }
+
+        pendingAccept.set(context.proactor().accept((result, proactor1) -> processAccept(context, result), context.socket(),
+                                                    config.acceptorFlags(), context.address().address()));
     }
 
     private void processAccept(ListenContext<T> context, Result<ConnectionContext<T>> result) {
+        if (result.equals(SystemError.EAGAIN.result())) {
+            // Proactor was overloaded, try again once it is able to accept more operations
+            repeatAccept(context);
+            return;
+        }
+
         result.onFailure(failure -> LOG.warn("Accept error: {}", failure.message()))
               .onFailure(serve::failure)
-              .onSuccess(connectionContext -> handleSuccessfulAccept(context, connectionContext));
+              .onSuccess(connectionContext -> handleSuccessfulAccept(context, connectionContext))
+              .onSuccessDo(() -> repeatAccept(context));
     }
 
     private void handleSuccessfulAccept(ListenContext<T> context,
@@ -127,7 +188,30 @@ public class TcpListener<T extends InetAddress> implements Listener<T> {
             LOG.debug("Accepted connection {}", connectionContext);
         }
 
-        runAsync(() -> config.acceptProtocol().accept(connectionProtocolContext(context, connectionContext)));
-        repeatAccept(context);
+        config.acceptProtocol().accept(connectionProtocolContext(context, connectionContext));
+    }
+
+    /**
+     * Postpone accepting of new connections while proactor is overloaded, i.e. more than half of its backlog is occupied by operations waiting
+     * for submission. Pause is performed asynchronously, so worker thread is never blocked.
+     *
+     * @return {@code true} if accepting is postponed
+     */
+    private boolean throttle(ListenContext<T> context, Runnable resume) {
+        if (!isOverloaded(context)) {
+            return false;
+        }
+
+        runAsync(() -> {
+            LockSupport.parkNanos(THROTTLE_PAUSE_NANOS);
+            resume.run();
+        });
+        return true;
+    }
+
+    private static boolean isOverloaded(ListenContext<?> context) {
+        var proactor = context.proactor();
+
+        return proactor.backlog() > proactor.maxBacklog() / 2;
     }
 }
@@ -0,0 +1,123 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.pragmatica.io;
+
+import org.pragmatica.io.async.file.FileDescriptor;
+import org.pragmatica.io.util.SerialExecutor;
+import org.pragmatica.lang.Option;
+import org.pragmatica.lang.Promise;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Policy which defines how {@link Promise} instances returned by {@link PromiseIO} are resolved once operation is completed, i.e. where actions
+ * attached to these promises are executed. Completions are delivered by the {@link org.pragmatica.io.async.Proactor} worker thread, so policy
+ * defines the trade-off between isolation of the worker thread from slow actions and the cost of the hand-off.
+ * <p>
+ * Policy is global and can be changed with {@link #configure(CompletionDispatch)}. Default policy is {@link #virtualThread()}.
+ */
+public interface CompletionDispatch {
+    int DEFAULT_BATCH_SIZE = 64;
+    int DEFAULT_STRIPES = 1024;
+
+    /**
+     * Executor for the actions attached to the promise of the operation. Invoked for each completion by the thread which delivers it, usually
+     * the {@link org.pragmatica.io.async.Proactor} worker thread.
+     *
+     * @param fd File descriptor of the operation, if any
+     */
+    Executor executor(Option<FileDescriptor> fd);
+
+    /**
+     * Currently configured policy.
+     */
+    static CompletionDispatch current() {
+        return DispatchHolder.INSTANCE.dispatch;
+    }
+
+    /**
+     * Replace current policy. New policy is applied to completions delivered after the invocation.
+     *
+     * @param dispatch New policy
+     */
+    static void configure(CompletionDispatch dispatch) {
+        DispatchHolder.INSTANCE.dispatch = dispatch;
+    }
+
+    /**
+     * Every completion starts new virtual thread. Attached actions can block and are never serialized, but each completion pays the cost of
+     * the thread start.
+     */
+    static CompletionDispatch virtualThread() {
+        return __ -> Promise::runAsync;
+    }
+
+    /**
+     * Attached actions are executed directly by the worker thread. Cheapest option, suitable only for trivial actions, which never block, since
+     * any delay stalls all I/O of the {@link org.pragmatica.io.async.Proactor} instance.
+     */
+    static CompletionDispatch inline() {
+        return __ -> Runnable::run;
+    }
+
+    /**
+     * Completions are handed off in batches: single virtual thread executes actions of up to {@code batchSize} completions. Each worker thread
+     * has its own executor, which is selected when completion is delivered, so actions of completions delivered by the same worker thread are
+     * executed in the order of completion.
+     *
+     * @param batchSize Maximal number of completions handled by single virtual thread
+     */
+    static CompletionDispatch batched(int batchSize) {
+        var executors = ThreadLocal.withInitial(() -> SerialExecutor.serialExecutor(batchSize));
+
+        return __ -> executors.get();
+    }
+
+    /**
+     * Same as {@link #serial(int, int)} with default number of stripes and batch size.
+     */
+    static CompletionDispatch serial() {
+        return serial(DEFAULT_STRIPES, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Actions of completions of operations with the same file descriptor are executed serially, in the order of completion, so ordering
+     * within the connection is preserved without starting virtual thread per completion. Descriptors are spread across fixed number of
+     * {@link SerialExecutor} stripes, so no per-connection state is kept. Operations without file descriptor use virtual thread per completion.
+     *
+     * @param stripes   Number of serial executors, rounded up to the power of two
+     * @param batchSize Maximal number of completions handled by single virtual thread
+     */
+    static CompletionDispatch serial(int stripes, int batchSize) {
+        var size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        var executors = new SerialExecutor[size];
+
+        for (int i = 0; i < size; i++) {
+            executors[i] = SerialExecutor.serialExecutor(batchSize);
+        }
+
+        return fd -> fd.<Executor>map(descriptor -> executors[descriptor.descriptor() & (size - 1)])
+                       .or(Promise::runAsync);
+    }
+
+    enum DispatchHolder {
+        INSTANCE;
+
+        private volatile CompletionDispatch dispatch = virtualThread();
+    }
+}
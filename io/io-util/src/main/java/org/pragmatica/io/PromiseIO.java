@@ -17,6 +17,8 @@
 
 package org.pragmatica.io;
 
+import org.pragmatica.io.async.LinkMode;
+import org.pragmatica.io.async.Proactor;
 import org.pragmatica.io.async.Timeout;
 import org.pragmatica.io.async.common.OffsetT;
 import org.pragmatica.io.async.common.SizeT;
@@ -31,17 +33,27 @@ import org.pragmatica.io.async.util.OffHeapSlice;
 import org.pragmatica.io.async.util.allocator.FixedBuffer;
 import org.pragmatica.lang.Option;
 import org.pragmatica.lang.Promise;
+import org.pragmatica.lang.Result;
 import org.pragmatica.lang.Unit;
 
 import java.nio.file.Path;
 import java.time.Duration;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import static org.pragmatica.io.async.Proactor.proactor;
 import static org.pragmatica.lang.Option.empty;
 
 /**
  * "Promisified" Proactor I/O API.
+ * <p>
+ * Cancellation of the returned {@link Promise} (see {@link Promise#cancel()}) cancels corresponding operation if it is still in progress.
+ * <p>
+ * Operations with file descriptors are submitted to the home {@link Proactor} instance of the descriptor (see
+ * {@link Proactor#proactor(FileDescriptor)}), so all operations with the same descriptor are processed by the same ring.
+ * <p>
+ * Execution of the actions attached to the returned promises is controlled by the {@link CompletionDispatch} policy.
  */
 //TODO: finish docs
 public interface PromiseIO {
@@ -51,7 +63,7 @@ public interface PromiseIO {
      * @return a {@link Promise} instance, which is resolved once operations is finished.
      */
     static Promise<Unit> nop() {
-        return Promise.promise(promise -> proactor().nop(promise::resolve));
+        return Promise.promise(promise -> proactor().nop(resolver(promise)).cancelWith(promise));
     }
 
     /**
@@ -60,7 +72,7 @@ public interface PromiseIO {
      * @return a {@link Promise} instance, which is resolved once operations is finished.
      */
     static Promise<Duration> delay(Timeout timeout) {
-        return Promise.promise(promise -> proactor().delay(promise::resolve, timeout));
+        return Promise.promise(promise -> proactor().delay(resolver(promise), timeout).cancelWith(promise));
     }
 
     /**
@@ -72,7 +84,9 @@ public interface PromiseIO {
      * @return a {@link Promise} instance, which is resolved once operations is finished.
      */
     static Promise<SizeT> splice(SpliceDescriptor descriptor, Option<Timeout> timeout) {
-        return Promise.promise(promise -> proactor().splice(promise::resolve, descriptor, timeout));
+        var fd = descriptor.fromDescriptor();
+
+        return Promise.promise(promise -> proactor(fd).splice(resolver(promise, fd), descriptor, timeout).cancelWith(promise));
     }
 
     /**
@@ -101,7 +115,7 @@ public interface PromiseIO {
      *     description if operation failed.
      */
     static Promise<SizeT> read(FileDescriptor fd, OffHeapSlice buffer, OffsetT offset, Option<Timeout> timeout) {
-        return Promise.promise(promise -> proactor().read(promise::resolve, fd, buffer, offset, timeout));
+        return Promise.promise(promise -> proactor(fd).read(resolver(promise, fd), fd, buffer, offset, timeout).cancelWith(promise));
     }
 
     /**
@@ -161,7 +175,7 @@ public interface PromiseIO {
      *     error description if operation failed.
      */
     static Promise<SizeT> write(FileDescriptor fd, OffHeapSlice buffer, OffsetT offset, Option<Timeout> timeout) {
-        return Promise.promise(promise -> proactor().write(promise::resolve, fd, buffer, offset, timeout));
+        return Promise.promise(promise -> proactor(fd).write(resolver(promise, fd), fd, buffer, offset, timeout).cancelWith(promise));
     }
 
     /**
@@ -216,7 +230,7 @@ public interface PromiseIO {
      * @return a {@link Promise} instance, which is resolved when operation is completed.
      */
     static Promise<Unit> close(FileDescriptor fd, Option<Timeout> timeout) {
-        return Promise.promise(promise -> proactor().close(promise::resolve, fd, timeout));
+        return Promise.promise(promise -> proactor(fd).close(resolver(promise, fd), fd, timeout).cancelWith(promise));
     }
 
     /**
@@ -242,7 +256,7 @@ public interface PromiseIO {
      *     operation failed.
      */
     static Promise<FileDescriptor> open(Path path, Set<OpenFlags> flags, Set<FilePermission> mode, Option<Timeout> timeout) {
-        return Promise.promise(promise -> proactor().open(promise::resolve, path, flags, mode, timeout));
+        return Promise.promise(promise -> proactor().open(resolver(promise), path, flags, mode, timeout).cancelWith(promise));
     }
 
     /**
@@ -272,16 +286,16 @@ public interface PromiseIO {
     }
 
     static Promise<FileDescriptor> socket(AddressFamily af, SocketType type, Set<SocketFlag> flags, Set<SocketOption> options) {
-        return Promise.promise(promise -> proactor().socket(promise::resolve, af, type, flags, options));
+        return Promise.promise(promise -> proactor().socket(resolver(promise), af, type, flags, options));
     }
 
     static <T extends InetAddress> Promise<ListenContext<T>> listen(SocketAddress<T> address, SocketType type,
                                                                     Set<SocketFlag> flags, SizeT len, Set<SocketOption> options) {
-        return Promise.promise(promise -> proactor().listen(promise::resolve, address, type, flags, len, options));
+        return Promise.promise(promise -> proactor().listen(resolver(promise), address, type, flags, len, options));
     }
 
     static <T extends InetAddress> Promise<ConnectionContext<T>> accept(FileDescriptor socket, Set<SocketFlag> flags, T addressType) {
-        return Promise.promise(promise -> proactor().accept(promise::resolve, socket, flags, addressType));
+        return Promise.promise(promise -> proactor(socket).accept(resolver(promise, socket), socket, flags, addressType).cancelWith(promise));
     }
 
     static Promise<ConnectionContext<Inet4Address>> acceptV4(FileDescriptor socket, Set<SocketFlag> flags) {
@@ -293,7 +307,7 @@ public interface PromiseIO {
     }
 
     static <T extends InetAddress> Promise<FileDescriptor> connect(FileDescriptor socket, SocketAddress<T> address, Option<Timeout> timeout) {
-        return Promise.promise(promise -> proactor().connect(promise::resolve, socket, address, timeout));
+        return Promise.promise(promise -> proactor(socket).connect(resolver(promise, socket), socket, address, timeout).cancelWith(promise));
     }
 
     static <T extends InetAddress> Promise<FileDescriptor> connect(FileDescriptor socket, SocketAddress<T> address) {
@@ -301,7 +315,7 @@ public interface PromiseIO {
     }
 
     static Promise<FileStat> stat(Path path, Set<StatFlag> flags, Set<StatMask> mask, Option<Timeout> timeout) {
-        return Promise.promise(promise -> proactor().stat(promise::resolve, path, flags, mask, timeout));
+        return Promise.promise(promise -> proactor().stat(resolver(promise), path, flags, mask, timeout).cancelWith(promise));
     }
 
     static Promise<FileStat> stat(Path path, Set<StatFlag> flags, Set<StatMask> mask) {
@@ -309,7 +323,7 @@ public interface PromiseIO {
     }
 
     static Promise<FileStat> stat(FileDescriptor fd, Set<StatFlag> flags, Set<StatMask> mask, Option<Timeout> timeout) {
-        return Promise.promise(promise -> proactor().stat(promise::resolve, fd, flags, mask, timeout));
+        return Promise.promise(promise -> proactor(fd).stat(resolver(promise, fd), fd, flags, mask, timeout).cancelWith(promise));
     }
 
     static Promise<FileStat> stat(FileDescriptor fd, Set<StatFlag> flags, Set<StatMask> mask) {
@@ -317,7 +331,7 @@ public interface PromiseIO {
     }
 
     static Promise<SizeT> readVector(FileDescriptor fd, OffsetT offset, Option<Timeout> timeout, OffHeapSlice... buffers) {
-        return Promise.promise(promise -> proactor().readVector(promise::resolve, fd, offset, timeout, buffers));
+        return Promise.promise(promise -> proactor(fd).readVector(resolver(promise, fd), fd, offset, timeout, buffers).cancelWith(promise));
     }
 
     static Promise<SizeT> readVector(FileDescriptor fd, OffsetT offset, OffHeapSlice... buffers) {
@@ -333,7 +347,7 @@ public interface PromiseIO {
     }
 
     static Promise<SizeT> writeVector(FileDescriptor fd, OffsetT offset, Option<Timeout> timeout, OffHeapSlice... buffers) {
-        return Promise.promise(promise -> proactor().writeVector(promise::resolve, fd, offset, timeout, buffers));
+        return Promise.promise(promise -> proactor(fd).writeVector(resolver(promise, fd), fd, offset, timeout, buffers).cancelWith(promise));
     }
 
     static Promise<SizeT> writeVector(FileDescriptor fd, OffsetT offset, OffHeapSlice... buffers) {
@@ -349,7 +363,7 @@ public interface PromiseIO {
     }
 
     static Promise<SizeT> readFixed(FileDescriptor fd, FixedBuffer fixedBuffer, OffsetT offset, Option<Timeout> timeout) {
-        return Promise.promise(promise -> proactor().readFixed(promise::resolve, fd, fixedBuffer, offset, timeout));
+        return Promise.promise(promise -> proactor(fd).readFixed(resolver(promise, fd), fd, fixedBuffer, offset, timeout).cancelWith(promise));
     }
 
     static Promise<SizeT> readFixed(FileDescriptor fd, FixedBuffer fixedBuffer, Option<Timeout> timeout) {
@@ -365,7 +379,7 @@ public interface PromiseIO {
     }
 
     static Promise<SizeT> writeFixed(FileDescriptor fd, FixedBuffer fixedBuffer, OffsetT offset, Option<Timeout> timeout) {
-        return Promise.promise(promise -> proactor().writeFixed(promise::resolve, fd, fixedBuffer, offset, timeout));
+        return Promise.promise(promise -> proactor(fd).writeFixed(resolver(promise, fd), fd, fixedBuffer, offset, timeout).cancelWith(promise));
     }
 
     static Promise<SizeT> writeFixed(FileDescriptor fd, FixedBuffer fixedBuffer, Option<Timeout> timeout) {
@@ -381,7 +395,7 @@ public interface PromiseIO {
     }
 
     static Promise<Unit> fileSync(FileDescriptor fd, boolean syncMetadata, Option<Timeout> timeout) {
-        return Promise.promise(promise -> proactor().fileSync(promise::resolve, fd, syncMetadata, timeout));
+        return Promise.promise(promise -> proactor(fd).fileSync(resolver(promise, fd), fd, syncMetadata, timeout).cancelWith(promise));
     }
 
     static Promise<Unit> fileSync(FileDescriptor fd, boolean syncMetadata) {
@@ -389,7 +403,7 @@ public interface PromiseIO {
     }
 
     static Promise<Unit> fileAlloc(FileDescriptor fd, Set<FileAllocFlags> flags, OffsetT offset, long len, Option<Timeout> timeout) {
-        return Promise.promise(promise -> proactor().fileAlloc(promise::resolve, fd, flags, offset, len, timeout));
+        return Promise.promise(promise -> proactor(fd).fileAlloc(resolver(promise, fd), fd, flags, offset, len, timeout).cancelWith(promise));
     }
 
     static Promise<Unit> fileAlloc(FileDescriptor fd, Set<FileAllocFlags> flags, OffsetT offset, long len) {
@@ -401,7 +415,7 @@ public interface PromiseIO {
     }
 
     static Promise<SizeT> send(FileDescriptor fd, OffHeapSlice buffer, Set<MessageFlags> msgFlags, Option<Timeout> timeout) {
-        return Promise.promise(promise -> proactor().send(promise::resolve, fd, buffer, msgFlags, timeout));
+        return Promise.promise(promise -> proactor(fd).send(resolver(promise, fd), fd, buffer, msgFlags, timeout).cancelWith(promise));
     }
 
     default Promise<SizeT> send(FileDescriptor fd, OffHeapSlice buffer, Set<MessageFlags> msgFlags) {
@@ -409,12 +423,81 @@ public interface PromiseIO {
     }
 
     default Promise<SizeT> recv(FileDescriptor fd, OffHeapSlice buffer, Set<MessageFlags> msgFlags, Option<Timeout> timeout) {
-        return Promise.promise(promise -> proactor().recv(promise::resolve, fd, buffer, msgFlags, timeout));
+        return Promise.promise(promise -> proactor(fd).recv(resolver(promise, fd), fd, buffer, msgFlags, timeout).cancelWith(promise));
     }
 
     default Promise<SizeT> recv(FileDescriptor fd, OffHeapSlice buffer, Set<MessageFlags> msgFlags) {
         return recv(fd, buffer, msgFlags, empty());
     }
+
+    /**
+     * Submit several operations as a chain of linked operations, see {@link Proactor#chain(BiConsumer, LinkMode, Consumer)} for more details.
+     * Results of individual operations are delivered to the callbacks passed to the operations requested by {@code steps}. For example, the
+     * promise resolved by the write operation can be passed as a callback using {@code promise::resolve}.
+     * <p>
+     * Chain is submitted to the home {@link Proactor} instance of the provided descriptor (see {@link Proactor#proactor(FileDescriptor)}). Fixed
+     * descriptors used by the steps must belong to that instance.
+     *
+     * @param fd    Descriptor which defines instance the chain is submitted to
+     * @param mode  Behavior of the chain in case of failure
+     * @param steps Builder which requests operations of the chain
+     *
+     * @return a {@link Promise} instance, which is resolved once all operations in the chain are finished. Promise is resolved with the first
+     *     failure reported by operations or with success if all operations succeeded.
+     */
+    static Promise<Unit> chain(FileDescriptor fd, LinkMode mode, Consumer<Proactor> steps) {
+        return Promise.promise(promise -> proactor(fd).chain(resolver(promise, fd), mode, steps).cancelWith(promise));
+    }
+
+    /**
+     * Same as {@link #chain(FileDescriptor, LinkMode, Consumer)}, but failure of any operation cancels remaining operations in the chain.
+     *
+     * @param fd    Descriptor which defines instance the chain is submitted to
+     * @param steps Builder which requests operations of the chain
+     *
+     * @return a {@link Promise} instance, which is resolved once all operations in the chain are finished.
+     */
+    static Promise<Unit> chain(FileDescriptor fd, Consumer<Proactor> steps) {
+        return chain(fd, LinkMode.SOFT, steps);
+    }
+
+    /**
+     * Same as {@link #chain(FileDescriptor, LinkMode, Consumer)}, but chain is submitted to an arbitrary instance of the pool. Steps must not use
+     * fixed descriptors (see {@link FileDescriptor#isFixed()}), since they are valid only within the instance which installed them.
+     *
+     * @param mode  Behavior of the chain in case of failure
+     * @param steps Builder which requests operations of the chain
+     *
+     * @return a {@link Promise} instance, which is resolved once all operations in the chain are finished.
+     */
+    static Promise<Unit> chain(LinkMode mode, Consumer<Proactor> steps) {
+        return Promise.promise(promise -> proactor().chain(resolver(promise), mode, steps).cancelWith(promise));
+    }
+
+    /**
+     * Same as {@link #chain(LinkMode, Consumer)}, but failure of any operation cancels remaining operations in the chain. Steps must not use
+     * fixed descriptors.
+     *
+     * @param steps Builder which requests operations of the chain
+     *
+     * @return a {@link Promise} instance, which is resolved once all operations in the chain are finished.
+     */
+    static Promise<Unit> chain(Consumer<Proactor> steps) {
+        return chain(LinkMode.SOFT, steps);
+    }
+
+    private static <T> Consumer<Result<T>> resolver(Promise<T> promise) {
+        return resolver(promise, Option.empty());
+    }
+
+    private static <T> Consumer<Result<T>> resolver(Promise<T> promise, FileDescriptor fd) {
+        return resolver(promise, Option.option(fd));
+    }
+
+    private static <T> Consumer<Result<T>> resolver(Promise<T> promise, Option<FileDescriptor> fd) {
+        // Executor is selected by the thread which delivers completion, policies may depend on it
+        return result -> promise.resolveWith(result, CompletionDispatch.current().executor(fd));
+    }
 //---------------------------------------------------------------------------------------------------------------------
 //---------------------------------------------------------------------------------------------------------------------
 //---------------------------------------------------------------------------------------------------------------------
@@ -0,0 +1,91 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.pragmatica.io.util;
+
+import org.pragmatica.lang.Promise;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Executor which runs submitted tasks one by one in the order of submission. Tasks are executed by virtual threads, but instead of starting
+ * new thread for every task, single thread runs up to {@code batchSize} pending tasks before handing off remaining ones to the next thread.
+ * <p>
+ * Executor is thread safe. Tasks should not block, because they delay all subsequent tasks.
+ */
+public final class SerialExecutor implements Executor {
+    private static final Logger LOG = LoggerFactory.getLogger(SerialExecutor.class);
+
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private final int batchSize;
+
+    private SerialExecutor(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Create executor instance.
+     *
+     * @param batchSize Maximal number of tasks executed by single virtual thread
+     *
+     * @return created instance
+     */
+    public static SerialExecutor serialExecutor(int batchSize) {
+        return new SerialExecutor(Math.max(1, batchSize));
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        tasks.offer(task);
+        schedule();
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            Promise.runAsync(this::drain);
+        }
+    }
+
+    private void drain() {
+        for (int i = 0; i < batchSize; i++) {
+            var task = tasks.poll();
+
+            if (task == null) {
+                break;
+            }
+
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LOG.warn("Task triggered exception", e);
+            }
+        }
+
+        scheduled.set(false);
+
+        // Task submitted after last poll could not schedule execution while this thread was active
+        if (!tasks.isEmpty()) {
+            schedule();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.pragmatica.io.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SerialExecutorTest {
+    @Test
+    void tasksAreExecutedInOrderOfSubmission() throws InterruptedException {
+        var count = 10_000;
+        var executor = SerialExecutor.serialExecutor(16);
+        var latch = new CountDownLatch(count);
+        var executed = Collections.synchronizedList(new ArrayList<Integer>());
+
+        for (int i = 0; i < count; i++) {
+            var value = i;
+
+            executor.execute(() -> {
+                executed.add(value);
+                latch.countDown();
+            });
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(IntStream.range(0, count).boxed().toList(), List.copyOf(executed));
+    }
+
+    @Test
+    void tasksSubmittedConcurrentlyAreAllExecuted() throws InterruptedException {
+        var threads = 8;
+        var perThread = 1_000;
+        var executor = SerialExecutor.serialExecutor(16);
+        var latch = new CountDownLatch(threads * perThread);
+
+        for (int i = 0; i < threads; i++) {
+            Thread.ofVirtual().start(() -> {
+                for (int j = 0; j < perThread; j++) {
+                    executor.execute(latch::countDown);
+                }
+            });
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,361 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.pragmatica.io.async;
+
+import org.pragmatica.io.async.common.OffsetT;
+import org.pragmatica.io.async.common.SizeT;
+import org.pragmatica.io.async.file.*;
+import org.pragmatica.io.async.file.stat.FileStat;
+import org.pragmatica.io.async.file.stat.StatFlag;
+import org.pragmatica.io.async.file.stat.StatMask;
+import org.pragmatica.io.async.net.*;
+import org.pragmatica.io.async.uring.Bitmask;
+import org.pragmatica.io.async.uring.UringApi;
+import org.pragmatica.io.async.uring.exchange.AsyncOperation;
+import org.pragmatica.io.async.uring.exchange.ExchangeEntry;
+import org.pragmatica.io.async.uring.exchange.ExchangeEntryPool;
+import org.pragmatica.io.async.util.OffHeapSlice;
+import org.pragmatica.io.async.util.allocator.BufferRing;
+import org.pragmatica.io.async.util.allocator.ChunkedAllocator;
+import org.pragmatica.io.async.util.allocator.FixedBuffer;
+import org.pragmatica.io.async.util.allocator.ProvidedBuffer;
+import org.pragmatica.lang.Option;
+import org.pragmatica.lang.Result;
+import org.pragmatica.lang.Unit;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static org.pragmatica.io.async.uring.exchange.AsyncOperation.*;
+import static org.pragmatica.io.async.uring.struct.raw.SQEntry.IORING_FSYNC_DATASYNC;
+
+/**
+ * Preparation of the operations shared by {@link Proactor} implementations. Prepared entries are passed to {@link #submit(ExchangeEntry)},
+ * which decides how they reach the ring.
+ */
+abstract class AbstractProactor implements Proactor {
+    // Special value used to indicate the openat/statx functions should use the current working directory.
+    private static final FileDescriptor AT_FDCWD = FileDescriptor.file(-100);
+
+    protected final ExchangeEntryPool pool;
+    protected final ChunkedAllocator sharedAllocator;
+    protected final Option<BufferRing> bufferRing;
+    // Index of the instance in the pool, fixed descriptors installed by this instance carry it
+    protected final int ring;
+
+    protected AbstractProactor(ExchangeEntryPool pool, ChunkedAllocator sharedAllocator, Option<BufferRing> bufferRing, int ring) {
+        this.pool = pool;
+        this.sharedAllocator = sharedAllocator;
+        this.bufferRing = bufferRing;
+        this.ring = ring;
+    }
+
+    /**
+     * Pass prepared entry to the ring.
+     *
+     * @return handle which can be used to cancel submitted operation
+     */
+    protected abstract Cancellable submit(ExchangeEntry<?> entry);
+
+    @Override
+    public Cancellable nop(BiConsumer<Result<Unit>, Proactor> completion) {
+        return submit(pool.acquire(NOP)
+                          .completion(completion));
+    }
+
+    @Override
+    public Cancellable delay(BiConsumer<Result<Duration>, Proactor> completion, Timeout timeout) {
+        return submit(pool.acquire(TIMEOUT)
+                          .completion(completion)
+                          .setDelayTime(timeout));
+    }
+
+    @Override
+    public Cancellable close(BiConsumer<Result<Unit>, Proactor> completion, FileDescriptor fd, Option<Timeout> timeout) {
+        return submit(pool.acquire(CLOSE)
+                          .completion(completion)
+                          .descriptor(fd)
+                          .setOperationTimeout(timeout));
+    }
+
+    @Override
+    public Cancellable read(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, OffHeapSlice buffer,
+                            OffsetT offset, Option<Timeout> timeout) {
+        return submit(pool.acquire(READ)
+                          .completion(completion)
+                          .descriptor(fd)
+                          .buffer(buffer)
+                          .offset(offset)
+                          .setOperationTimeout(timeout));
+    }
+
+    @Override
+    public Cancellable write(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, OffHeapSlice buffer,
+                             OffsetT offset, Option<Timeout> timeout) {
+        return submit(pool.acquire(WRITE)
+                          .completion(completion)
+                          .descriptor(fd)
+                          .buffer(buffer)
+                          .offset(offset)
+                          .setOperationTimeout(timeout));
+    }
+
+    @Override
+    public Cancellable splice(BiConsumer<Result<SizeT>, Proactor> completion, SpliceDescriptor descriptor, Option<Timeout> timeout) {
+        return submit(pool.acquire(SPLICE)
+                          .completion(completion)
+                          .spliceDescriptor(descriptor)
+                          .setOperationTimeout(timeout));
+    }
+
+    @Override
+    public Cancellable open(BiConsumer<Result<FileDescriptor>, Proactor> completion, Path path, Set<OpenFlags> flags,
+                            Set<FilePermission> mode, Option<Timeout> timeout) {
+        return submit(pool.acquire(OPENAT)
+                          .completion(completion)
+                          .rawPath(path.toString())
+                          .openFlags(Bitmask.combine(flags))
+                          .openMode(Bitmask.combine(mode))
+                          .setOperationTimeout(timeout));
+    }
+
+    @Override
+    public Cancellable openDirect(BiConsumer<Result<FileDescriptor>, Proactor> completion, Path path, Set<OpenFlags> flags,
+                                  Set<FilePermission> mode, Option<Timeout> timeout) {
+        return submit(pool.acquire(OPENAT)
+                          .completion(completion)
+                          .rawPath(path.toString())
+                          .openFlags(Bitmask.combine(flags))
+                          .openMode(Bitmask.combine(mode))
+                          .direct(ring)
+                          .setOperationTimeout(timeout));
+    }
+
+    @Override
+    public void socket(Consumer<Result<FileDescriptor>> completion, AddressFamily addressFamily,
+                       SocketType socketType, Set<SocketFlag> openFlags, Set<SocketOption> options) {
+        completion.accept(UringApi.socket(addressFamily, socketType, openFlags, options));
+    }
+
+    @Override
+    public <T extends InetAddress> void listen(Consumer<Result<ListenContext<T>>> completion,
+                                               SocketAddress<T> socketAddress, SocketType socketType,
+                                               Set<SocketFlag> openFlags, SizeT queueDepth, Set<SocketOption> options) {
+        completion.accept(UringApi.listen(socketAddress, socketType, openFlags, options, queueDepth));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @Override
+    public <T extends InetAddress> Cancellable accept(BiConsumer<Result<ConnectionContext<T>>, Proactor> completion,
+                                                      FileDescriptor socket, Set<SocketFlag> flags, T address) {
+        return submit(pool.acquire((AsyncOperation<ConnectionContext<T>>) (AsyncOperation) ACCEPT)
+                          .completion(completion)
+                          .descriptor(socket)
+                          .acceptFlags(Bitmask.combine(flags))
+                          .protocolVersion(address.version()));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @Override
+    public <T extends InetAddress> Cancellable acceptDirect(BiConsumer<Result<ConnectionContext<T>>, Proactor> completion,
+                                                            FileDescriptor socket, Set<SocketFlag> flags, T address) {
+        return submit(pool.acquire((AsyncOperation<ConnectionContext<T>>) (AsyncOperation) ACCEPT)
+                          .completion(completion)
+                          .descriptor(socket)
+                          .acceptFlags(Bitmask.combine(flags))
+                          .protocolVersion(address.version())
+                          .direct(ring));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @Override
+    public <T extends InetAddress> Cancellable acceptMultishot(BiConsumer<Result<ConnectionContext<T>>, Proactor> completion,
+                                                               FileDescriptor socket, Set<SocketFlag> flags, T address) {
+        return submit(pool.acquire((AsyncOperation<ConnectionContext<T>>) (AsyncOperation) ACCEPT)
+                          .completion(completion)
+                          .descriptor(socket)
+                          .acceptFlags(Bitmask.combine(flags))
+                          .protocolVersion(address.version())
+                          .multishot());
+    }
+
+    @Override
+    public <T extends InetAddress> Cancellable connect(BiConsumer<Result<FileDescriptor>, Proactor> completion, FileDescriptor socket,
+                                                       SocketAddress<T> address, Option<Timeout> timeout) {
+        return submit(pool.acquire(CONNECT)
+                          .completion(completion)
+                          .destinationAddress(address)
+                          .descriptor(socket)
+                          .setOperationTimeout(timeout));
+    }
+
+    @Override
+    public Cancellable stat(BiConsumer<Result<FileStat>, Proactor> completion,
+                            Path path, Set<StatFlag> flags, Set<StatMask> mask, Option<Timeout> timeout) {
+        //Reset EMPTY_PATH and force use the path.
+        return submit(pool.acquire(STATX)
+                          .completion(completion)
+                          .descriptor(AT_FDCWD)
+                          .statFlags(Bitmask.combine(flags) & ~StatFlag.EMPTY_PATH.mask())
+                          .statMask(Bitmask.combine(mask))
+                          .rawPath(path.toString()));
+    }
+
+    @Override
+    public Cancellable stat(BiConsumer<Result<FileStat>, Proactor> completion, FileDescriptor fileDescriptor, Set<StatFlag> flags,
+                            Set<StatMask> mask, Option<Timeout> timeout) {
+        // Kernel does not support fixed descriptors for STATX
+        if (fileDescriptor.isFixed()) {
+            completion.accept(SystemError.EBADF.result(), this);
+            return Cancellable.none();
+        }
+
+        //Set EMPTY_PATH and force use of file descriptor.
+        return submit(pool.acquire(STATX)
+                          .completion(completion)
+                          .descriptor(fileDescriptor)
+                          .statFlags(Bitmask.combine(flags) | StatFlag.EMPTY_PATH.mask())
+                          .statMask(Bitmask.combine(mask))
+                          .rawPath(""));
+
+    }
+
+    @Override
+    public Cancellable readVector(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fileDescriptor, OffsetT offset,
+                                  Option<Timeout> timeout, OffHeapSlice... buffers) {
+        return submit(pool.acquire(READV)
+                          .completion(completion)
+                          .descriptor(fileDescriptor)
+                          .offset(offset)
+                          .readBuffers(buffers)
+                          .setOperationTimeout(timeout));
+    }
+
+    @Override
+    public Cancellable writeVector(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fileDescriptor, OffsetT offset,
+                                   Option<Timeout> timeout, OffHeapSlice... buffers) {
+        return submit(pool.acquire(WRITEV)
+                          .completion(completion)
+                          .descriptor(fileDescriptor)
+                          .offset(offset)
+                          .writeBuffers(buffers)
+                          .setOperationTimeout(timeout));
+    }
+
+    @Override
+    public Cancellable fileSync(BiConsumer<Result<Unit>, Proactor> completion, FileDescriptor fileDescriptor,
+                                boolean syncMetadata, Option<Timeout> timeout) {
+        return submit(pool.acquire(FSYNC)
+                          .completion(completion)
+                          .descriptor(fileDescriptor)
+                          .syncFlags(syncMetadata ? 0 : IORING_FSYNC_DATASYNC)
+                          .setOperationTimeout(timeout));
+    }
+
+    @Override
+    public Cancellable fileAlloc(BiConsumer<Result<Unit>, Proactor> completion, FileDescriptor fileDescriptor,
+                                 Set<FileAllocFlags> allocFlags, OffsetT offset, long len, Option<Timeout> timeout) {
+        return submit(pool.acquire(FALLOCATE)
+                          .completion(completion).descriptor(fileDescriptor)
+                          .allocFlags(Bitmask.combine(allocFlags))
+                          .offset(offset)
+                          .len(len)
+                          .setOperationTimeout(timeout));
+    }
+
+    @Override
+    public Cancellable readFixed(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, FixedBuffer buffer,
+                                 OffsetT offset, Option<Timeout> timeout) {
+        return submit(pool.acquire(READ_FIXED)
+                          .completion(completion)
+                          .descriptor(fd)
+                          .fixedBuffer(buffer)
+                          .offset(offset)
+                          .setOperationTimeout(timeout));
+    }
+
+    @Override
+    public Cancellable writeFixed(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, FixedBuffer buffer,
+                                  OffsetT offset, Option<Timeout> timeout) {
+        return submit(pool.acquire(WRITE_FIXED)
+                          .completion(completion)
+                          .descriptor(fd)
+                          .fixedBuffer(buffer)
+                          .offset(offset)
+                          .setOperationTimeout(timeout));
+    }
+
+    @Override
+    public Cancellable send(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, OffHeapSlice buffer,
+                            Set<MessageFlags> msgFlags, Option<Timeout> timeout) {
+        return submit(pool.acquire(SEND)
+                          .completion(completion)
+                          .buffer(buffer)
+                          .descriptor(fd)
+                          .msgFlags(Bitmask.combine(msgFlags))
+                          .setOperationTimeout(timeout));
+    }
+
+    @Override
+    public Cancellable recv(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, OffHeapSlice buffer,
+                            Set<MessageFlags> msgFlags, Option<Timeout> timeout) {
+        return submit(pool.acquire(RECV)
+                          .completion(completion)
+                          .buffer(buffer)
+                          .descriptor(fd)
+                          .msgFlags(Bitmask.combine(msgFlags))
+                          .setOperationTimeout(timeout));
+    }
+
+    @Override
+    public Cancellable recv(BiConsumer<Result<ProvidedBuffer>, Proactor> completion, FileDescriptor fd, Set<MessageFlags> msgFlags,
+                            Option<Timeout> timeout) {
+        return bufferRing.fold(() -> noBuffers(completion),
+                               ring -> submit(pool.acquire(RECV_PROVIDED)
+                                                  .completion(completion)
+                                                  .bufferRing(ring)
+                                                  .descriptor(fd)
+                                                  .msgFlags(Bitmask.combine(msgFlags))
+                                                  .setOperationTimeout(timeout)));
+    }
+
+    @Override
+    public Cancellable recvMultishot(BiConsumer<Result<ProvidedBuffer>, Proactor> handler, FileDescriptor fd, Set<MessageFlags> msgFlags) {
+        return bufferRing.fold(() -> noBuffers(handler),
+                               ring -> submit(pool.acquire(RECV_PROVIDED)
+                                                  .completion(handler)
+                                                  .bufferRing(ring)
+                                                  .descriptor(fd)
+                                                  .msgFlags(Bitmask.combine(msgFlags))
+                                                  .setOperationTimeout(Option.empty())
+                                                  .multishot()));
+    }
+
+    private Cancellable noBuffers(BiConsumer<Result<ProvidedBuffer>, Proactor> completion) {
+        completion.accept(SystemError.ENOBUFS.result(), this);
+        return Cancellable.none();
+    }
+
+    @Override
+    public Result<FixedBuffer> allocateFixedBuffer(int size) {
+        return sharedAllocator.allocate(size);
+    }
+}
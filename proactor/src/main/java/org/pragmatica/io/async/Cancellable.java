@@ -0,0 +1,55 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.pragmatica.io.async;
+
+import org.pragmatica.lang.Promise;
+import org.pragmatica.lang.io.CoreError;
+
+/**
+ * Handle of the submitted operation, which can be used to cancel the operation.
+ */
+@FunctionalInterface
+public interface Cancellable {
+    /**
+     * Request cancellation of the operation. If operation is still in progress, it is completed with {@link SystemError#ECANCELED}. Cancellation
+     * of the already completed operation has no effect. Cancellation is asynchronous, so operation still may complete successfully if it was
+     * about to complete when cancellation was requested.
+     */
+    void cancel();
+
+    /**
+     * Cancel operation once provided promise is cancelled with {@link Promise#cancel()}.
+     *
+     * @param promise Promise which is resolved by operation
+     */
+    default void cancelWith(Promise<?> promise) {
+        promise.onFailure(cause -> {
+            if (cause == CoreError.CANCELLED) {
+                cancel();
+            }
+        });
+    }
+
+    /**
+     * Handle of the operation which is completed without submission, for example, because its parameters are invalid.
+     */
+    static Cancellable none() {
+        return NONE;
+    }
+
+    Cancellable NONE = () -> {};
+}
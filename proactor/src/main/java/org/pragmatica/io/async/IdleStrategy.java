@@ -0,0 +1,117 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.pragmatica.io.async;
+
+/**
+ * Strategy which defines behavior of the {@link Proactor} worker thread when there is no work to do.
+ * <p>
+ * Some strategies keep internal state, so each worker thread must use its own instance.
+ */
+public interface IdleStrategy {
+    int DEFAULT_MAX_SPINS = 100;
+    int DEFAULT_MAX_YIELDS = 1000;
+    Timeout DEFAULT_MAX_WAIT = Timeout.timeout(1000).millis();
+
+    /**
+     * Invoked by worker thread at the end of every loop iteration.
+     *
+     * @param workCount Number of submissions and completions processed during iteration.
+     * @param waiter    Blocking wait for completions. It returns once at least one completion is available, new submission arrived or timeout
+     *                  expired.
+     */
+    void idle(int workCount, Waiter waiter);
+
+    /**
+     * Blocking wait for completions provided by the worker thread.
+     */
+    @FunctionalInterface
+    interface Waiter {
+        void await(long timeoutNanos);
+    }
+
+    /**
+     * Busy spin while there is no work. Provides the lowest latency at the cost of permanently occupied CPU core.
+     */
+    static IdleStrategy busySpin() {
+        return (workCount, waiter) -> {
+            if (workCount == 0) {
+                Thread.onSpinWait();
+            }
+        };
+    }
+
+    /**
+     * Yield CPU while there is no work. Low latency, but CPU core remains busy if there are no other runnable threads.
+     */
+    static IdleStrategy yielding() {
+        return (workCount, waiter) -> {
+            if (workCount == 0) {
+                Thread.yield();
+            }
+        };
+    }
+
+    /**
+     * Progressive backoff with default parameters. See {@link #backoff(int, int, Timeout)} for more details.
+     */
+    static IdleStrategy backoff() {
+        return backoff(DEFAULT_MAX_SPINS, DEFAULT_MAX_YIELDS, DEFAULT_MAX_WAIT);
+    }
+
+    /**
+     * Progressive backoff: spin first, then yield and then block until completion or new submission arrives. Any work resets strategy back to
+     * spinning, so bursty load is handled at the spinning/yielding stages and only idle worker threads get blocked.
+     *
+     * @param maxSpins  Number of idle iterations spent in spinning
+     * @param maxYields Number of idle iterations spent in yielding
+     * @param maxWait   Maximal duration of single blocking wait
+     */
+    static IdleStrategy backoff(int maxSpins, int maxYields, Timeout maxWait) {
+        return new BackoffIdleStrategy(maxSpins, maxSpins + maxYields, maxWait.nanoseconds());
+    }
+
+    final class BackoffIdleStrategy implements IdleStrategy {
+        private final int maxSpins;
+        private final int maxYields;
+        private final long maxWaitNanos;
+        private int idleCount;
+
+        private BackoffIdleStrategy(int maxSpins, int maxYields, long maxWaitNanos) {
+            this.maxSpins = maxSpins;
+            this.maxYields = maxYields;
+            this.maxWaitNanos = maxWaitNanos;
+        }
+
+        @Override
+        public void idle(int workCount, Waiter waiter) {
+            if (workCount > 0) {
+                idleCount = 0;
+                return;
+            }
+
+            if (idleCount < maxSpins) {
+                idleCount++;
+                Thread.onSpinWait();
+            } else if (idleCount < maxYields) {
+                idleCount++;
+                Thread.yield();
+            } else {
+                waiter.await(maxWaitNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.pragmatica.io.async;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Snapshot of the operation latency distribution.
+ * <p>
+ * Values (in nanoseconds) are stored in log-linear buckets, similar to HdrHistogram: each power of two range is split into
+ * {@value #SUB_BUCKETS} linear sub-buckets, so relative error of reported values does not exceed 1/{@value #SUB_BUCKETS} (about 6%).
+ * Values larger than {@link #MAX_VALUE} are recorded as {@link #MAX_VALUE}.
+ * <p>
+ * Histograms returned by {@link ProactorMetrics#latency(org.pragmatica.io.async.uring.exchange.Opcode)} are cumulative. Distribution for the
+ * particular interval can be obtained with {@link #since(LatencyHistogram)}, distribution for several rings - with
+ * {@link #merge(List)}.
+ */
+public final class LatencyHistogram {
+    public static final int SUB_BUCKETS = 16;
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int MAX_BUCKET = 36;
+
+    /**
+     * Number of counters in the histogram.
+     */
+    public static final int SIZE = (MAX_BUCKET + 2) * SUB_BUCKETS;
+
+    /**
+     * Largest value which can be distinguished by histogram (about 35 minutes).
+     */
+    public static final long MAX_VALUE = lowestValue(SIZE - 1);
+
+    private static final LatencyHistogram EMPTY = new LatencyHistogram(new long[SIZE]);
+
+    private final long[] counts;
+    private final long total;
+
+    private LatencyHistogram(long[] counts) {
+        this.counts = counts;
+        this.total = Arrays.stream(counts).sum();
+    }
+
+    /**
+     * Create histogram from the array of counters. Array is not copied and must not be modified afterwards.
+     */
+    public static LatencyHistogram latencyHistogram(long[] counts) {
+        return new LatencyHistogram(counts);
+    }
+
+    public static LatencyHistogram empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Index of the counter for the provided value.
+     */
+    public static int index(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) Math.max(0, value);
+        }
+
+        var bucket = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+
+        if (bucket > MAX_BUCKET) {
+            return SIZE - 1;
+        }
+
+        return bucket * SUB_BUCKETS + (int) (value >>> bucket);
+    }
+
+    /**
+     * Lowest value which is recorded into the counter with specified index.
+     */
+    public static long lowestValue(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+
+        var bucket = index / SUB_BUCKETS - 1;
+
+        return (long) (index % SUB_BUCKETS + SUB_BUCKETS) << bucket;
+    }
+
+    /**
+     * Highest value which is recorded into the counter with specified index.
+     */
+    public static long highestValue(int index) {
+        return index >= SIZE - 1 ? MAX_VALUE : lowestValue(index + 1) - 1;
+    }
+
+    /**
+     * Combine histograms, for example, histograms of the same opcode collected by different rings.
+     */
+    public static LatencyHistogram merge(List<LatencyHistogram> histograms) {
+        var counts = new long[SIZE];
+
+        for (var histogram : histograms) {
+            for (int i = 0; i < SIZE; i++) {
+                counts[i] += histogram.counts[i];
+            }
+        }
+
+        return new LatencyHistogram(counts);
+    }
+
+    /**
+     * Distribution of values recorded after provided (earlier) snapshot of the same histogram was taken.
+     */
+    public LatencyHistogram since(LatencyHistogram previous) {
+        var counts = new long[SIZE];
+
+        for (int i = 0; i < SIZE; i++) {
+            counts[i] = Math.max(0, this.counts[i] - previous.counts[i]);
+        }
+
+        return new LatencyHistogram(counts);
+    }
+
+    /**
+     * Total number of recorded values.
+     */
+    public long count() {
+        return total;
+    }
+
+    /**
+     * Number of values recorded into the counter with specified index.
+     */
+    public long count(int index) {
+        return counts[index];
+    }
+
+    /**
+     * Value below or equal to which given percentage of recorded values falls. Returned value is the highest value of the bucket which contains
+     * requested percentile, so it is never less than actual one.
+     *
+     * @param percentile Requested percentile in range {@code [0, 100]}, for example, 99.9
+     *
+     * @return percentile value in nanoseconds, or zero if histogram is empty
+     */
+    public long percentile(double percentile) {
+        if (total == 0) {
+            return 0;
+        }
+
+        var threshold = Math.max(1, (long) Math.ceil(total * Math.min(100.0, Math.max(0.0, percentile)) / 100.0));
+        long accumulated = 0;
+
+        for (int i = 0; i < SIZE; i++) {
+            accumulated += counts[i];
+
+            if (accumulated >= threshold) {
+                return highestValue(i);
+            }
+        }
+
+        return MAX_VALUE;
+    }
+
+    /**
+     * Largest recorded value (with histogram precision), or zero if histogram is empty.
+     */
+    public long max() {
+        for (int i = SIZE - 1; i >= 0; i--) {
+            if (counts[i] != 0) {
+                return highestValue(i);
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Average of the recorded values (with histogram precision), or zero if histogram is empty.
+     */
+    public double mean() {
+        if (total == 0) {
+            return 0;
+        }
+
+        double sum = 0;
+
+        for (int i = 0; i < SIZE; i++) {
+            if (counts[i] != 0) {
+                sum += (double) counts[i] * (lowestValue(i) + highestValue(i)) / 2;
+            }
+        }
+
+        return sum / total;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram(count: " + total + ", mean: " + (long) mean() + "ns, p50: " + percentile(50) + "ns, p99: " + percentile(99)
+               + "ns, p99.9: " + percentile(99.9) + "ns, max: " + max() + "ns)";
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.pragmatica.io.async;
+
+import org.pragmatica.io.async.uring.struct.raw.SQEntryFlags;
+
+/**
+ * Behavior of the chain of linked operations in case of failure of one of the operations.
+ */
+public enum LinkMode {
+    /**
+     * Failure of the operation cancels all remaining operations in the chain. Note that the kernel considers short reads and writes as
+     * failures too.
+     */
+    SOFT(SQEntryFlags.IO_LINK),
+    /**
+     * Remaining operations are executed regardless of the result of the preceding operation.
+     */
+    HARD(SQEntryFlags.IO_HARDLINK);
+
+    private final SQEntryFlags flag;
+
+    LinkMode(SQEntryFlags flag) {
+        this.flag = flag;
+    }
+
+    public SQEntryFlags flag() {
+        return flag;
+    }
+}
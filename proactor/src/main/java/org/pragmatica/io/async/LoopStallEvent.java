@@ -0,0 +1,47 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.pragmatica.io.async;
+
+import jdk.jfr.*;
+
+/**
+ * Flight Recorder event emitted for the proactor worker loop iteration which took longer than configured threshold. Iteration includes
+ * submission of pending operations and execution of completion callbacks, but not idle waiting. Event is disabled by default.
+ */
+@Name("org.pragmatica.io.LoopStall")
+@Label("Proactor Loop Stall")
+@Description("Proactor worker loop iteration which took longer than threshold")
+@Category({"Pragmatica", "Proactor"})
+@Enabled(false)
+@StackTrace(false)
+@Threshold("10 ms")
+final class LoopStallEvent extends Event {
+    // Event class configuration is shared by all instances, so single instance is enough to check if event is enabled without allocation
+    private static final LoopStallEvent PROBE = new LoopStallEvent();
+
+    @Label("Work Count")
+    @Description("Number of submissions and completions processed during iteration")
+    int workCount;
+
+    @Label("Backlog")
+    @Description("Number of operations waiting for submission at the end of iteration")
+    int backlog;
+
+    static boolean enabled() {
+        return PROBE.isEnabled();
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.pragmatica.io.async;
+
+import org.pragmatica.io.async.uring.exchange.ExchangeEntry;
+import org.pragmatica.io.async.uring.struct.raw.SQEntryFlags;
+import org.pragmatica.lang.Option;
+import org.pragmatica.lang.Result;
+import org.pragmatica.lang.Result.Cause;
+import org.pragmatica.lang.Unit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static org.pragmatica.lang.Option.empty;
+import static org.pragmatica.lang.Option.option;
+import static org.pragmatica.lang.Unit.unitResult;
+
+/**
+ * View of the {@link Proactor} instance passed to the chain or batch builder. Instead of submission, operations are collected into the group,
+ * which is submitted at once when builder returns. Operations requested via this view after that are submitted as usual.
+ * <p>
+ * Completions of all operations in the chain are invoked by the worker thread, so tracking of the chain state does not need synchronization.
+ */
+final class OperationGroup extends AbstractProactor {
+    private final ProactorImpl owner;
+    private final Option<OperationGroup> parent;
+    private final SQEntryFlags link;
+    private final Option<BiConsumer<Result<Unit>, Proactor>> completion;
+    private ExchangeEntry<?> head;
+    private ExchangeEntry<?> tail;
+    private int remaining;
+    private Cause failure;
+    private boolean submitted;
+    private final List<Cancellable> handles = new ArrayList<>();
+
+    private OperationGroup(ProactorImpl owner, Option<OperationGroup> parent, SQEntryFlags link,
+                           Option<BiConsumer<Result<Unit>, Proactor>> completion) {
+        super(owner.pool, owner.sharedAllocator, owner.bufferRing, owner.ring);
+        this.owner = owner;
+        this.parent = parent;
+        this.link = link;
+        this.completion = completion;
+    }
+
+    static OperationGroup chain(ProactorImpl owner, LinkMode mode, BiConsumer<Result<Unit>, Proactor> completion) {
+        return new OperationGroup(owner, empty(), mode.flag(), option(completion));
+    }
+
+    static OperationGroup batch(ProactorImpl owner) {
+        return new OperationGroup(owner, empty(), SQEntryFlags.NONE, empty());
+    }
+
+    @Override
+    protected Cancellable submit(ExchangeEntry<?> entry) {
+        if (submitted) {
+            return owner.submit(entry);
+        }
+
+        if (link != SQEntryFlags.NONE && entry.isMultishot()) {
+            // Multishot operation never finishes on its own, so it would stall the rest of the chain
+            if (failure == null) {
+                failure = SystemError.EINVAL;
+            }
+
+            owner.fail(entry, SystemError.EINVAL);
+            return Cancellable.none();
+        }
+
+        var handle = owner.handle(entry);
+
+        completion.onPresent(chainCompletion -> track(entry, chainCompletion));
+        handles.add(handle);
+        append(entry, entry);
+
+        return handle;
+    }
+
+    /**
+     * Cancel all operations of the group which are not finished yet.
+     */
+    void cancel() {
+        handles.forEach(Cancellable::cancel);
+    }
+
+    private void append(ExchangeEntry<?> first, ExchangeEntry<?> last) {
+        if (head == null) {
+            head = first;
+        } else {
+            tail.next(first, link);
+        }
+
+        tail = last;
+    }
+
+    void flush() {
+        submitted = true;
+
+        if (head == null) {
+            completion.onPresent(chainCompletion -> chainCompletion.accept(failure == null ? unitResult() : failure.result(), owner));
+            return;
+        }
+
+        parent.onPresent(batch -> batch.append(head, tail))
+              .onEmpty(() -> {
+                  if (link == SQEntryFlags.NONE) {
+                      owner.submitBatch(head);
+                  } else {
+                      owner.submitGroup(head);
+                  }
+              });
+    }
+
+    private <R> void track(ExchangeEntry<R> entry, BiConsumer<Result<Unit>, Proactor> chainCompletion) {
+        var step = entry.completion();
+
+        remaining++;
+        entry.completion((result, proactor) -> {
+            step.accept(result, proactor);
+
+            if (failure == null) {
+                result.onFailure(cause -> failure = cause);
+            }
+
+            if (--remaining == 0) {
+                chainCompletion.accept(failure == null ? unitResult() : failure.result(), proactor);
+            }
+        });
+    }
+
+    @Override
+    public Cancellable chain(BiConsumer<Result<Unit>, Proactor> completion, LinkMode mode, Consumer<Proactor> steps) {
+        if (link != SQEntryFlags.NONE) {
+            // Nested chain is not linked to this one
+            return owner.chain(completion, mode, steps);
+        }
+
+        // Chain becomes part of the batch
+        var chain = new OperationGroup(owner, option(this), mode.flag(), option(completion));
+
+        steps.accept(chain);
+        chain.flush();
+
+        return chain::cancel;
+    }
+
+    @Override
+    public void batch(Consumer<Proactor> steps) {
+        if (link != SQEntryFlags.NONE) {
+            // Operations of the batch must not be linked to the chain
+            owner.batch(steps);
+            return;
+        }
+
+        steps.accept(this);
+    }
+
+    @Override
+    public int backlog() {
+        return owner.backlog();
+    }
+
+    @Override
+    public int maxBacklog() {
+        return owner.maxBacklog();
+    }
+
+    @Override
+    public ProactorMetrics metrics() {
+        return owner.metrics();
+    }
+
+    @Override
+    public void shutdown() {
+        owner.shutdown();
+    }
+}
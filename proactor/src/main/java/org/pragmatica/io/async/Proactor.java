@@ -24,31 +24,32 @@ import org.pragmatica.io.async.file.stat.StatFlag;
 import org.pragmatica.io.async.file.stat.StatMask;
 import org.pragmatica.io.async.net.*;
 import org.pragmatica.io.async.uring.UringApi;
-import org.pragmatica.io.async.uring.UringSetupFlags;
 import org.pragmatica.io.async.util.DaemonThreadFactory;
 import org.pragmatica.io.async.util.OffHeapSlice;
-import org.pragmatica.io.async.util.Units;
 import org.pragmatica.io.async.util.allocator.ChunkedAllocator;
 import org.pragmatica.io.async.util.allocator.FixedBuffer;
+import org.pragmatica.io.async.util.allocator.ProvidedBuffer;
 import org.pragmatica.lang.Option;
 import org.pragmatica.lang.Result;
 import org.pragmatica.lang.Unit;
 
+import javax.management.ObjectName;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 import static org.pragmatica.lang.Option.empty;
 
 /**
  * Low level externally accessible API for submission of I/O operations. The API designed as a <a
  * href="https://en.wikipedia.org/wiki/Proactor_pattern">Proactor</a> pattern.
+ * <p>
+ * Methods which submit operations return {@link Cancellable} handle, which can be used to cancel operation while it is still in progress.
+ * Cancelled operation is completed with {@link SystemError#ECANCELED}.
  */
 //TODO: finish docs
 public interface Proactor {
@@ -59,10 +60,10 @@ public interface Proactor {
      *
      * @param completion Callback which is invoked once operation is finished.
      */
-    void nop(BiConsumer<Result<Unit>, Proactor> completion);
+    Cancellable nop(BiConsumer<Result<Unit>, Proactor> completion);
 
-    default void nop(Consumer<Result<Unit>> completion) {
-        nop((result, __) -> completion.accept(result));
+    default Cancellable nop(Consumer<Result<Unit>> completion) {
+        return nop((result, __) -> completion.accept(result));
     }
 
     /**
@@ -73,10 +74,10 @@ public interface Proactor {
      * @param completion Callback which is invoked once operation is finished.
      * @param timeout    Requested delay.
      */
-    void delay(BiConsumer<Result<Duration>, Proactor> completion, Timeout timeout);
+    Cancellable delay(BiConsumer<Result<Duration>, Proactor> completion, Timeout timeout);
 
-    default void delay(Consumer<Result<Duration>> completion, Timeout timeout) {
-        delay((result, __) -> completion.accept(result), timeout);
+    default Cancellable delay(Consumer<Result<Duration>> completion, Timeout timeout) {
+        return delay((result, __) -> completion.accept(result), timeout);
     }
 
     /**
@@ -88,10 +89,10 @@ public interface Proactor {
      * @param descriptor Splice operation details container
      * @param timeout    Optional operation timeout.
      */
-    void splice(BiConsumer<Result<SizeT>, Proactor> completion, SpliceDescriptor descriptor, Option<Timeout> timeout);
+    Cancellable splice(BiConsumer<Result<SizeT>, Proactor> completion, SpliceDescriptor descriptor, Option<Timeout> timeout);
 
-    default void splice(Consumer<Result<SizeT>> completion, SpliceDescriptor descriptor, Option<Timeout> timeout) {
-        splice((result, __) -> completion.accept(result), descriptor, timeout);
+    default Cancellable splice(Consumer<Result<SizeT>> completion, SpliceDescriptor descriptor, Option<Timeout> timeout) {
+        return splice((result, __) -> completion.accept(result), descriptor, timeout);
     }
 
     /**
@@ -107,26 +108,26 @@ public interface Proactor {
      * @param offset     Offset to read from if file descriptor points to file.
      * @param timeout    Optional operation timeout.
      */
-    void read(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, OffHeapSlice buffer, OffsetT offset, Option<Timeout> timeout);
+    Cancellable read(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, OffHeapSlice buffer, OffsetT offset, Option<Timeout> timeout);
 
-    default void read(Consumer<Result<SizeT>> completion, FileDescriptor fd, OffHeapSlice buffer, OffsetT offset, Option<Timeout> timeout) {
-        read((result, __) -> completion.accept(result), fd, buffer, offset, timeout);
+    default Cancellable read(Consumer<Result<SizeT>> completion, FileDescriptor fd, OffHeapSlice buffer, OffsetT offset, Option<Timeout> timeout) {
+        return read((result, __) -> completion.accept(result), fd, buffer, offset, timeout);
     }
 
-    default void read(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, OffHeapSlice buffer, Option<Timeout> timeout) {
-        read(completion, fd, buffer, OffsetT.ZERO, timeout);
+    default Cancellable read(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, OffHeapSlice buffer, Option<Timeout> timeout) {
+        return read(completion, fd, buffer, OffsetT.ZERO, timeout);
     }
 
-    default void read(Consumer<Result<SizeT>> completion, FileDescriptor fd, OffHeapSlice buffer, Option<Timeout> timeout) {
-        read(completion, fd, buffer, OffsetT.ZERO, timeout);
+    default Cancellable read(Consumer<Result<SizeT>> completion, FileDescriptor fd, OffHeapSlice buffer, Option<Timeout> timeout) {
+        return read(completion, fd, buffer, OffsetT.ZERO, timeout);
     }
 
-    default void read(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, OffHeapSlice buffer) {
-        read(completion, fd, buffer, OffsetT.ZERO, empty());
+    default Cancellable read(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, OffHeapSlice buffer) {
+        return read(completion, fd, buffer, OffsetT.ZERO, empty());
     }
 
-    default void read(Consumer<Result<SizeT>> completion, FileDescriptor fd, OffHeapSlice buffer) {
-        read((result, __) -> completion.accept(result), fd, buffer);
+    default Cancellable read(Consumer<Result<SizeT>> completion, FileDescriptor fd, OffHeapSlice buffer) {
+        return read((result, __) -> completion.accept(result), fd, buffer);
     }
 
     /**
@@ -141,26 +142,27 @@ public interface Proactor {
      * @param offset     Offset in a file to start writing if file descriptor points to file.
      * @param timeout    Optional operation timeout.
      */
-    void write(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, OffHeapSlice buffer, OffsetT offset, Option<Timeout> timeout);
+    Cancellable write(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, OffHeapSlice buffer, OffsetT offset,
+                      Option<Timeout> timeout);
 
-    default void write(Consumer<Result<SizeT>> completion, FileDescriptor fd, OffHeapSlice buffer, OffsetT offset, Option<Timeout> timeout) {
-        write((result, __) -> completion.accept(result), fd, buffer, offset, timeout);
+    default Cancellable write(Consumer<Result<SizeT>> completion, FileDescriptor fd, OffHeapSlice buffer, OffsetT offset, Option<Timeout> timeout) {
+        return write((result, __) -> completion.accept(result), fd, buffer, offset, timeout);
     }
 
-    default void write(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, OffHeapSlice buffer, Option<Timeout> timeout) {
-        write(completion, fd, buffer, OffsetT.ZERO, timeout);
+    default Cancellable write(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, OffHeapSlice buffer, Option<Timeout> timeout) {
+        return write(completion, fd, buffer, OffsetT.ZERO, timeout);
     }
 
-    default void write(Consumer<Result<SizeT>> completion, FileDescriptor fd, OffHeapSlice buffer, Option<Timeout> timeout) {
-        write(completion, fd, buffer, OffsetT.ZERO, timeout);
+    default Cancellable write(Consumer<Result<SizeT>> completion, FileDescriptor fd, OffHeapSlice buffer, Option<Timeout> timeout) {
+        return write(completion, fd, buffer, OffsetT.ZERO, timeout);
     }
 
-    default void write(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, OffHeapSlice buffer) {
-        write(completion, fd, buffer, OffsetT.ZERO, empty());
+    default Cancellable write(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, OffHeapSlice buffer) {
+        return write(completion, fd, buffer, OffsetT.ZERO, empty());
     }
 
-    default void write(Consumer<Result<SizeT>> completion, FileDescriptor fd, OffHeapSlice buffer) {
-        write((result, __) -> completion.accept(result), fd, buffer);
+    default Cancellable write(Consumer<Result<SizeT>> completion, FileDescriptor fd, OffHeapSlice buffer) {
+        return write((result, __) -> completion.accept(result), fd, buffer);
     }
 
     /**
@@ -172,14 +174,14 @@ public interface Proactor {
      * @param fd         File descriptor to close.
      * @param timeout    Optional operation timeout.
      */
-    void close(BiConsumer<Result<Unit>, Proactor> completion, FileDescriptor fd, Option<Timeout> timeout);
+    Cancellable close(BiConsumer<Result<Unit>, Proactor> completion, FileDescriptor fd, Option<Timeout> timeout);
 
-    default void close(Consumer<Result<Unit>> completion, FileDescriptor fd, Option<Timeout> timeout) {
-        close((result, __) -> completion.accept(result), fd, timeout);
+    default Cancellable close(Consumer<Result<Unit>> completion, FileDescriptor fd, Option<Timeout> timeout) {
+        return close((result, __) -> completion.accept(result), fd, timeout);
     }
 
-    default void close(Consumer<Result<Unit>> completion, FileDescriptor fd) {
-        close((result, __) -> completion.accept(result), fd, empty());
+    default Cancellable close(Consumer<Result<Unit>> completion, FileDescriptor fd) {
+        return close((result, __) -> completion.accept(result), fd, empty());
     }
 
     /**
@@ -196,14 +198,31 @@ public interface Proactor {
      * @param mode       File open mode. Must be present only if {@code flags} contains {@link OpenFlags#CREATE} or {@link OpenFlags#TMPFILE}.
      * @param timeout    Optional operation timeout.
      */
-    void open(BiConsumer<Result<FileDescriptor>, Proactor> completion, Path path, Set<OpenFlags> flags,
-              Set<FilePermission> mode, Option<Timeout> timeout);
+    Cancellable open(BiConsumer<Result<FileDescriptor>, Proactor> completion, Path path, Set<OpenFlags> flags,
+                     Set<FilePermission> mode, Option<Timeout> timeout);
 
-    default void open(Consumer<Result<FileDescriptor>> completion, Path path, Set<OpenFlags> flags,
-                      Set<FilePermission> mode, Option<Timeout> timeout) {
-        open((result, __) -> completion.accept(result), path, flags, mode, timeout);
+    default Cancellable open(Consumer<Result<FileDescriptor>> completion, Path path, Set<OpenFlags> flags,
+                             Set<FilePermission> mode, Option<Timeout> timeout) {
+        return open((result, __) -> completion.accept(result), path, flags, mode, timeout);
     }
 
+    /**
+     * Submit OPEN operation which installs opened file directly into the free slot of the registered file table of this Proactor instance.
+     * <p>
+     * Resulting descriptor is fixed (see {@link FileDescriptor#isFixed()}): operations with it avoid file reference counting in the kernel,
+     * but it is valid only for operations submitted to the same Proactor instance (for example, the one passed to the completion callback or
+     * returned by {@link #proactor(FileDescriptor)}).
+     * Fixed descriptor must be closed with {@link #close(BiConsumer, FileDescriptor, Option)} in order to release slot.
+     *
+     * @param completion Callback which is invoked once operation is finished.
+     * @param path       File path.
+     * @param flags      File open flags.
+     * @param mode       File open mode. Must be present only if {@code flags} contains {@link OpenFlags#CREATE} or {@link OpenFlags#TMPFILE}.
+     * @param timeout    Optional operation timeout.
+     */
+    Cancellable openDirect(BiConsumer<Result<FileDescriptor>, Proactor> completion, Path path, Set<OpenFlags> flags,
+                           Set<FilePermission> mode, Option<Timeout> timeout);
+
     /**
      * Create socket for making client-side connections/requests. Upon completion callback is invoked with opened socket file descriptor as a
      * parameter.
@@ -249,34 +268,69 @@ public interface Proactor {
      *
      * @see ConnectionContext
      */
-    <T extends InetAddress> void accept(BiConsumer<Result<ConnectionContext<T>>, Proactor> completion,
-                                        FileDescriptor socket, Set<SocketFlag> flags, T addressType);
+    <T extends InetAddress> Cancellable accept(BiConsumer<Result<ConnectionContext<T>>, Proactor> completion,
+                                               FileDescriptor socket, Set<SocketFlag> flags, T addressType);
 
-    default <T extends InetAddress> void accept(Consumer<Result<ConnectionContext<T>>> completion,
-                                                FileDescriptor socket, Set<SocketFlag> flags, T addressType) {
-        accept((result, __) -> completion.accept(result), socket, flags, addressType);
+    default <T extends InetAddress> Cancellable accept(Consumer<Result<ConnectionContext<T>>> completion,
+                                                       FileDescriptor socket, Set<SocketFlag> flags, T addressType) {
+        return accept((result, __) -> completion.accept(result), socket, flags, addressType);
     }
 
-    default void acceptV4(BiConsumer<Result<ConnectionContext<InetAddress.Inet4Address>>, Proactor> completion,
-                          FileDescriptor socket,
-                          Set<SocketFlag> flags) {
-        accept(completion, socket, flags, InetAddress.Inet4Address.INADDR_ANY);
+    default Cancellable acceptV4(BiConsumer<Result<ConnectionContext<InetAddress.Inet4Address>>, Proactor> completion,
+                                 FileDescriptor socket,
+                                 Set<SocketFlag> flags) {
+        return accept(completion, socket, flags, InetAddress.Inet4Address.INADDR_ANY);
     }
 
-    default void acceptV4(Consumer<Result<ConnectionContext<InetAddress.Inet4Address>>> completion, FileDescriptor socket, Set<SocketFlag> flags) {
-        accept(completion, socket, flags, InetAddress.Inet4Address.INADDR_ANY);
+    default Cancellable acceptV4(Consumer<Result<ConnectionContext<InetAddress.Inet4Address>>> completion, FileDescriptor socket,
+                                 Set<SocketFlag> flags) {
+        return accept(completion, socket, flags, InetAddress.Inet4Address.INADDR_ANY);
     }
 
-    default void acceptV6(BiConsumer<Result<ConnectionContext<InetAddress.Inet6Address>>, Proactor> completion,
-                          FileDescriptor socket,
-                          Set<SocketFlag> flags) {
-        accept(completion, socket, flags, InetAddress.Inet6Address.INADDR_ANY);
+    default Cancellable acceptV6(BiConsumer<Result<ConnectionContext<InetAddress.Inet6Address>>, Proactor> completion,
+                                 FileDescriptor socket,
+                                 Set<SocketFlag> flags) {
+        return accept(completion, socket, flags, InetAddress.Inet6Address.INADDR_ANY);
     }
 
-    default void acceptV6(Consumer<Result<ConnectionContext<InetAddress.Inet6Address>>> completion, FileDescriptor socket, Set<SocketFlag> flags) {
-        accept(completion, socket, flags, InetAddress.Inet6Address.INADDR_ANY);
+    default Cancellable acceptV6(Consumer<Result<ConnectionContext<InetAddress.Inet6Address>>> completion, FileDescriptor socket,
+                                 Set<SocketFlag> flags) {
+        return accept(completion, socket, flags, InetAddress.Inet6Address.INADDR_ANY);
     }
 
+    /**
+     * Submit ACCEPT operation which installs accepted socket directly into the free slot of the registered file table of this Proactor
+     * instance.
+     * <p>
+     * Socket in the resulting connection context is fixed (see {@link FileDescriptor#isFixed()}): operations with it avoid file reference
+     * counting in the kernel, but it is valid only for operations submitted to the same Proactor instance (for example, the one passed to the
+     * completion callback). Fixed socket must be closed with {@link #close(BiConsumer, FileDescriptor, Option)} in order to release slot.
+     *
+     * @param completion  Callback which is invoked once operation is finished.
+     * @param socket      Listening socket to accept connections on.
+     * @param flags       Accept flags (see {@link SocketFlag} for more details)
+     * @param addressType tag for address type (TCPv4 or TCPv6). See {@link #accept(BiConsumer, FileDescriptor, Set, InetAddress)} for details.
+     */
+    <T extends InetAddress> Cancellable acceptDirect(BiConsumer<Result<ConnectionContext<T>>, Proactor> completion,
+                                                     FileDescriptor socket, Set<SocketFlag> flags, T addressType);
+
+    /**
+     * Submit multishot ACCEPT operation.
+     * <p>
+     * Unlike {@link #accept(BiConsumer, FileDescriptor, Set, InetAddress)}, operation remains armed after accepting connection and callback is
+     * invoked for every accepted connection. Operation is stopped once it fails or listening socket is closed. Last invocation of the callback
+     * always carries failure. If kernel stops operation without error (for example, if completion queue is overflown), the failure is
+     * {@link SystemError#ECANCELED} and operation can be submitted again. Kernels older than 5.19 do not support multishot accept and fail
+     * operation with {@link SystemError#EINVAL}.
+     *
+     * @param completion  Callback which is invoked for every accepted connection.
+     * @param socket      Listening socket to accept connections on.
+     * @param flags       Accept flags (see {@link SocketFlag} for more details)
+     * @param addressType tag for address type (TCPv4 or TCPv6). See {@link #accept(BiConsumer, FileDescriptor, Set, InetAddress)} for details.
+     */
+    <T extends InetAddress> Cancellable acceptMultishot(BiConsumer<Result<ConnectionContext<T>>, Proactor> completion,
+                                                        FileDescriptor socket, Set<SocketFlag> flags, T addressType);
+
     /**
      * Submit CONNECT operation.
      * <p>
@@ -288,12 +342,12 @@ public interface Proactor {
      * @param address    Address to connect
      * @param timeout    Optional operation timeout.
      */
-    <T extends InetAddress> void connect(BiConsumer<Result<FileDescriptor>, Proactor> completion, FileDescriptor socket,
-                                         SocketAddress<T> address, Option<Timeout> timeout);
+    <T extends InetAddress> Cancellable connect(BiConsumer<Result<FileDescriptor>, Proactor> completion, FileDescriptor socket,
+                                                SocketAddress<T> address, Option<Timeout> timeout);
 
-    default <T extends InetAddress> void connect(Consumer<Result<FileDescriptor>> completion, FileDescriptor socket,
-                                                 SocketAddress<T> address, Option<Timeout> timeout) {
-        connect((result, __) -> completion.accept(result), socket, address, timeout);
+    default <T extends InetAddress> Cancellable connect(Consumer<Result<FileDescriptor>> completion, FileDescriptor socket,
+                                                        SocketAddress<T> address, Option<Timeout> timeout) {
+        return connect((result, __) -> completion.accept(result), socket, address, timeout);
     }
 
     /**
@@ -307,15 +361,18 @@ public interface Proactor {
      *
      * @see FileStat
      */
-    void stat(BiConsumer<Result<FileStat>, Proactor> completion, Path path, Set<StatFlag> flags, Set<StatMask> mask, Option<Timeout> timeout);
+    Cancellable stat(BiConsumer<Result<FileStat>, Proactor> completion, Path path, Set<StatFlag> flags, Set<StatMask> mask, Option<Timeout> timeout);
 
-    default void stat(Consumer<Result<FileStat>> completion, Path path, Set<StatFlag> flags, Set<StatMask> mask, Option<Timeout> timeout) {
-        stat((result, __) -> completion.accept(result), path, flags, mask, timeout);
+    default Cancellable stat(Consumer<Result<FileStat>> completion, Path path, Set<StatFlag> flags, Set<StatMask> mask, Option<Timeout> timeout) {
+        return stat((result, __) -> completion.accept(result), path, flags, mask, timeout);
     }
 
     /**
      * Get file status information for file specified by file descriptor. Upon completion callback is invoked with requested file status details as a
      * parameter.
+     * <p>
+     * Kernel does not support fixed descriptors (see {@link FileDescriptor#isFixed()}) for this operation, so for them callback is immediately
+     * invoked with {@link SystemError#EBADF}.
      *
      * @param completion Callback which is invoked once operation is finished.
      * @param fd         File descriptor
@@ -325,10 +382,12 @@ public interface Proactor {
      *
      * @see FileStat
      */
-    void stat(BiConsumer<Result<FileStat>, Proactor> completion, FileDescriptor fd, Set<StatFlag> flags, Set<StatMask> mask, Option<Timeout> timeout);
+    Cancellable stat(BiConsumer<Result<FileStat>, Proactor> completion, FileDescriptor fd, Set<StatFlag> flags, Set<StatMask> mask,
+                     Option<Timeout> timeout);
 
-    default void stat(Consumer<Result<FileStat>> completion, FileDescriptor fd, Set<StatFlag> flags, Set<StatMask> mask, Option<Timeout> timeout) {
-        stat((result, __) -> completion.accept(result), fd, flags, mask, timeout);
+    default Cancellable stat(Consumer<Result<FileStat>> completion, FileDescriptor fd, Set<StatFlag> flags, Set<StatMask> mask,
+                             Option<Timeout> timeout) {
+        return stat((result, __) -> completion.accept(result), fd, flags, mask, timeout);
     }
 
     /**
@@ -346,41 +405,41 @@ public interface Proactor {
      * @param buffers        Set of buffers where read information will be put. Each buffer should have it's {@link OffHeapSlice#used()} property set
      *                       to actual number of bytes which application expects to see in this buffer.
      */
-    void readVector(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fileDescriptor, OffsetT offset,
-                    Option<Timeout> timeout, OffHeapSlice... buffers);
+    Cancellable readVector(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fileDescriptor, OffsetT offset,
+                           Option<Timeout> timeout, OffHeapSlice... buffers);
 
-    default void readVector(Consumer<Result<SizeT>> completion, FileDescriptor fileDescriptor, OffsetT offset,
-                            Option<Timeout> timeout, OffHeapSlice... buffers) {
-        readVector((result, __) -> completion.accept(result), fileDescriptor, offset, timeout, buffers);
+    default Cancellable readVector(Consumer<Result<SizeT>> completion, FileDescriptor fileDescriptor, OffsetT offset,
+                                   Option<Timeout> timeout, OffHeapSlice... buffers) {
+        return readVector((result, __) -> completion.accept(result), fileDescriptor, offset, timeout, buffers);
     }
 
-    default void readVector(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fileDescriptor,
-                            Option<Timeout> timeout, OffHeapSlice... buffers) {
-        readVector(completion, fileDescriptor, OffsetT.ZERO, timeout, buffers);
+    default Cancellable readVector(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fileDescriptor,
+                                   Option<Timeout> timeout, OffHeapSlice... buffers) {
+        return readVector(completion, fileDescriptor, OffsetT.ZERO, timeout, buffers);
     }
 
-    default void readVector(Consumer<Result<SizeT>> completion, FileDescriptor fileDescriptor,
-                            Option<Timeout> timeout, OffHeapSlice... buffers) {
-        readVector(completion, fileDescriptor, OffsetT.ZERO, timeout, buffers);
+    default Cancellable readVector(Consumer<Result<SizeT>> completion, FileDescriptor fileDescriptor,
+                                   Option<Timeout> timeout, OffHeapSlice... buffers) {
+        return readVector(completion, fileDescriptor, OffsetT.ZERO, timeout, buffers);
     }
 
-    default void readVector(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fileDescriptor, OffsetT offset,
-                            OffHeapSlice... buffers) {
-        readVector(completion, fileDescriptor, offset, empty(), buffers);
+    default Cancellable readVector(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fileDescriptor, OffsetT offset,
+                                   OffHeapSlice... buffers) {
+        return readVector(completion, fileDescriptor, offset, empty(), buffers);
     }
 
-    default void readVector(Consumer<Result<SizeT>> completion, FileDescriptor fileDescriptor, OffsetT offset,
-                            OffHeapSlice... buffers) {
-        readVector(completion, fileDescriptor, offset, empty(), buffers);
+    default Cancellable readVector(Consumer<Result<SizeT>> completion, FileDescriptor fileDescriptor, OffsetT offset,
+                                   OffHeapSlice... buffers) {
+        return readVector(completion, fileDescriptor, offset, empty(), buffers);
     }
 
-    default void readVector(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fileDescriptor,
-                            OffHeapSlice... buffers) {
-        readVector(completion, fileDescriptor, OffsetT.ZERO, empty(), buffers);
+    default Cancellable readVector(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fileDescriptor,
+                                   OffHeapSlice... buffers) {
+        return readVector(completion, fileDescriptor, OffsetT.ZERO, empty(), buffers);
     }
 
-    default void readVector(Consumer<Result<SizeT>> completion, FileDescriptor fileDescriptor, OffHeapSlice... buffers) {
-        readVector(completion, fileDescriptor, OffsetT.ZERO, empty(), buffers);
+    default Cancellable readVector(Consumer<Result<SizeT>> completion, FileDescriptor fileDescriptor, OffHeapSlice... buffers) {
+        return readVector(completion, fileDescriptor, OffsetT.ZERO, empty(), buffers);
     }
 
     /**
@@ -396,41 +455,41 @@ public interface Proactor {
      * @param timeout        Optional operation timeout
      * @param buffers        Set of buffers to write from
      */
-    void writeVector(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fileDescriptor, OffsetT offset,
-                     Option<Timeout> timeout, OffHeapSlice... buffers);
+    Cancellable writeVector(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fileDescriptor, OffsetT offset,
+                            Option<Timeout> timeout, OffHeapSlice... buffers);
 
-    default void writeVector(Consumer<Result<SizeT>> completion, FileDescriptor fileDescriptor, OffsetT offset,
-                             Option<Timeout> timeout, OffHeapSlice... buffers) {
-        writeVector((result, __) -> completion.accept(result), fileDescriptor, offset, timeout, buffers);
+    default Cancellable writeVector(Consumer<Result<SizeT>> completion, FileDescriptor fileDescriptor, OffsetT offset,
+                                    Option<Timeout> timeout, OffHeapSlice... buffers) {
+        return writeVector((result, __) -> completion.accept(result), fileDescriptor, offset, timeout, buffers);
     }
 
-    default void writeVector(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fileDescriptor,
-                             Option<Timeout> timeout, OffHeapSlice... buffers) {
-        writeVector(completion, fileDescriptor, OffsetT.ZERO, timeout, buffers);
+    default Cancellable writeVector(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fileDescriptor,
+                                    Option<Timeout> timeout, OffHeapSlice... buffers) {
+        return writeVector(completion, fileDescriptor, OffsetT.ZERO, timeout, buffers);
     }
 
-    default void writeVector(Consumer<Result<SizeT>> completion, FileDescriptor fileDescriptor,
-                             Option<Timeout> timeout, OffHeapSlice... buffers) {
-        writeVector(completion, fileDescriptor, OffsetT.ZERO, timeout, buffers);
+    default Cancellable writeVector(Consumer<Result<SizeT>> completion, FileDescriptor fileDescriptor,
+                                    Option<Timeout> timeout, OffHeapSlice... buffers) {
+        return writeVector(completion, fileDescriptor, OffsetT.ZERO, timeout, buffers);
     }
 
-    default void writeVector(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fileDescriptor, OffsetT offset,
-                             OffHeapSlice... buffers) {
-        writeVector(completion, fileDescriptor, offset, empty(), buffers);
+    default Cancellable writeVector(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fileDescriptor, OffsetT offset,
+                                    OffHeapSlice... buffers) {
+        return writeVector(completion, fileDescriptor, offset, empty(), buffers);
     }
 
-    default void writeVector(Consumer<Result<SizeT>> completion, FileDescriptor fileDescriptor, OffsetT offset,
-                             OffHeapSlice... buffers) {
-        writeVector(completion, fileDescriptor, offset, empty(), buffers);
+    default Cancellable writeVector(Consumer<Result<SizeT>> completion, FileDescriptor fileDescriptor, OffsetT offset,
+                                    OffHeapSlice... buffers) {
+        return writeVector(completion, fileDescriptor, offset, empty(), buffers);
     }
 
-    default void writeVector(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fileDescriptor,
-                             OffHeapSlice... buffers) {
-        writeVector(completion, fileDescriptor, OffsetT.ZERO, empty(), buffers);
+    default Cancellable writeVector(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fileDescriptor,
+                                    OffHeapSlice... buffers) {
+        return writeVector(completion, fileDescriptor, OffsetT.ZERO, empty(), buffers);
     }
 
-    default void writeVector(Consumer<Result<SizeT>> completion, FileDescriptor fileDescriptor, OffHeapSlice... buffers) {
-        writeVector(completion, fileDescriptor, OffsetT.ZERO, empty(), buffers);
+    default Cancellable writeVector(Consumer<Result<SizeT>> completion, FileDescriptor fileDescriptor, OffHeapSlice... buffers) {
+        return writeVector(completion, fileDescriptor, OffsetT.ZERO, empty(), buffers);
     }
 
     /**
@@ -444,12 +503,12 @@ public interface Proactor {
      * @param syncMetadata   Flag which controls flushing of file metadata: {@code true} enables syncing metadata
      * @param timeout        Optional operation timeout
      */
-    void fileSync(BiConsumer<Result<Unit>, Proactor> completion, FileDescriptor fileDescriptor,
-                  boolean syncMetadata, Option<Timeout> timeout);
+    Cancellable fileSync(BiConsumer<Result<Unit>, Proactor> completion, FileDescriptor fileDescriptor,
+                         boolean syncMetadata, Option<Timeout> timeout);
 
-    default void fileSync(Consumer<Result<Unit>> completion, FileDescriptor fileDescriptor,
-                          boolean syncMetadata, Option<Timeout> timeout) {
-        fileSync((result, __) -> completion.accept(result), fileDescriptor, syncMetadata, timeout);
+    default Cancellable fileSync(Consumer<Result<Unit>> completion, FileDescriptor fileDescriptor,
+                                 boolean syncMetadata, Option<Timeout> timeout) {
+        return fileSync((result, __) -> completion.accept(result), fileDescriptor, syncMetadata, timeout);
     }
 
     /**
@@ -462,12 +521,12 @@ public interface Proactor {
      * @param len            Length of the affected part of the file.
      * @param timeout        Optional operation timeout
      */
-    void fileAlloc(BiConsumer<Result<Unit>, Proactor> completion, FileDescriptor fileDescriptor,
-                   Set<FileAllocFlags> allocFlags, OffsetT offset, long len, Option<Timeout> timeout);
+    Cancellable fileAlloc(BiConsumer<Result<Unit>, Proactor> completion, FileDescriptor fileDescriptor,
+                          Set<FileAllocFlags> allocFlags, OffsetT offset, long len, Option<Timeout> timeout);
 
-    default void fileAlloc(Consumer<Result<Unit>> completion, FileDescriptor fileDescriptor,
-                           Set<FileAllocFlags> allocFlags, OffsetT offset, long len, Option<Timeout> timeout) {
-        fileAlloc((result, __) -> completion.accept(result), fileDescriptor, allocFlags, offset, len, timeout);
+    default Cancellable fileAlloc(Consumer<Result<Unit>> completion, FileDescriptor fileDescriptor,
+                                  Set<FileAllocFlags> allocFlags, OffsetT offset, long len, Option<Timeout> timeout) {
+        return fileAlloc((result, __) -> completion.accept(result), fileDescriptor, allocFlags, offset, len, timeout);
     }
 
     /**
@@ -475,109 +534,239 @@ public interface Proactor {
      * {@link #readFixed(BiConsumer, FileDescriptor, FixedBuffer, OffsetT, Option)} and
      * {@link #writeFixed(BiConsumer, FileDescriptor, FixedBuffer, OffsetT, Option)} methods.
      * <p>
-     * Fixed buffers are allocated from common memory arena shared across all instances of {@link Proactor}. The arena size is configured at start and
-     * can't be changed at run time.
+     * Fixed buffers are allocated from common memory shared across all instances of {@link Proactor}. Memory is organized as a set of regions, new
+     * regions are added on demand up to the limit set by {@link ProactorConfig}. Single buffer can't be larger than the region size.
      * <p>
-     * Note that allocation is relatively slow process and frequent allocation/release of buffers might quickly result to fragmentation, so it is
-     * highly recommended avoiding frequent allocation/release of the fixed buffers.
+     * Buffers up to {@link org.pragmatica.io.async.util.allocator.ChunkedAllocator#CHUNK_SIZE} bytes are allocated from size classes without
+     * locking, so they can be allocated and released frequently, for example, per connection. Larger buffers are allocated as runs of chunks,
+     * which is relatively slow and might result in fragmentation, so it is recommended to allocate them once and reuse.
      * <p>
      * Allocated buffer can be released using {@link FixedBuffer#dispose()}. Buffer content must not be accessed once this method is invoked.
      *
-     * @param size Buffer size in bytes. Note that allocation is done in chunks of size
+     * @param size Buffer size in bytes. Small buffers are rounded up to the power of two, but at least
+     *             {@link org.pragmatica.io.async.util.allocator.ChunkedAllocator#MIN_BLOCK_SIZE}, larger ones are rounded up to the multiple of
      *             {@link org.pragmatica.io.async.util.allocator.ChunkedAllocator#CHUNK_SIZE}.
      *
      * @return allocation result.
      */
     Result<FixedBuffer> allocateFixedBuffer(int size);
 
-    void readFixed(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, FixedBuffer buffer, OffsetT offset, Option<Timeout> timeout);
+    Cancellable readFixed(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, FixedBuffer buffer, OffsetT offset,
+                          Option<Timeout> timeout);
 
-    default void readFixed(Consumer<Result<SizeT>> completion, FileDescriptor fd, FixedBuffer buffer, OffsetT offset, Option<Timeout> timeout) {
-        readFixed((result, __) -> completion.accept(result), fd, buffer, offset, timeout);
+    default Cancellable readFixed(Consumer<Result<SizeT>> completion, FileDescriptor fd, FixedBuffer buffer, OffsetT offset,
+                                  Option<Timeout> timeout) {
+        return readFixed((result, __) -> completion.accept(result), fd, buffer, offset, timeout);
     }
 
-    default void readFixed(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, FixedBuffer buffer, Option<Timeout> timeout) {
-        readFixed(completion, fd, buffer, OffsetT.ZERO, timeout);
+    default Cancellable readFixed(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, FixedBuffer buffer, Option<Timeout> timeout) {
+        return readFixed(completion, fd, buffer, OffsetT.ZERO, timeout);
     }
 
-    default void readFixed(Consumer<Result<SizeT>> completion, FileDescriptor fd, FixedBuffer buffer, Option<Timeout> timeout) {
-        readFixed(completion, fd, buffer, OffsetT.ZERO, timeout);
+    default Cancellable readFixed(Consumer<Result<SizeT>> completion, FileDescriptor fd, FixedBuffer buffer, Option<Timeout> timeout) {
+        return readFixed(completion, fd, buffer, OffsetT.ZERO, timeout);
     }
 
-    default void readFixed(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, FixedBuffer buffer) {
-        readFixed(completion, fd, buffer, OffsetT.ZERO, empty());
+    default Cancellable readFixed(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, FixedBuffer buffer) {
+        return readFixed(completion, fd, buffer, OffsetT.ZERO, empty());
     }
 
-    default void readFixed(Consumer<Result<SizeT>> completion, FileDescriptor fd, FixedBuffer buffer) {
-        readFixed((result, __) -> completion.accept(result), fd, buffer);
+    default Cancellable readFixed(Consumer<Result<SizeT>> completion, FileDescriptor fd, FixedBuffer buffer) {
+        return readFixed((result, __) -> completion.accept(result), fd, buffer);
     }
 
 
-    void writeFixed(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, FixedBuffer buffer, OffsetT offset, Option<Timeout> timeout);
+    Cancellable writeFixed(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, FixedBuffer buffer, OffsetT offset,
+                           Option<Timeout> timeout);
 
-    default void writeFixed(Consumer<Result<SizeT>> completion, FileDescriptor fd, FixedBuffer buffer, OffsetT offset, Option<Timeout> timeout) {
-        writeFixed((result, __) -> completion.accept(result), fd, buffer, offset, timeout);
+    default Cancellable writeFixed(Consumer<Result<SizeT>> completion, FileDescriptor fd, FixedBuffer buffer, OffsetT offset,
+                                   Option<Timeout> timeout) {
+        return writeFixed((result, __) -> completion.accept(result), fd, buffer, offset, timeout);
     }
 
-    default void writeFixed(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, FixedBuffer buffer, Option<Timeout> timeout) {
-        writeFixed(completion, fd, buffer, OffsetT.ZERO, timeout);
+    default Cancellable writeFixed(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, FixedBuffer buffer, Option<Timeout> timeout) {
+        return writeFixed(completion, fd, buffer, OffsetT.ZERO, timeout);
     }
 
-    default void writeFixed(Consumer<Result<SizeT>> completion, FileDescriptor fd, FixedBuffer buffer, Option<Timeout> timeout) {
-        writeFixed(completion, fd, buffer, OffsetT.ZERO, timeout);
+    default Cancellable writeFixed(Consumer<Result<SizeT>> completion, FileDescriptor fd, FixedBuffer buffer, Option<Timeout> timeout) {
+        return writeFixed(completion, fd, buffer, OffsetT.ZERO, timeout);
     }
 
-    default void writeFixed(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, FixedBuffer buffer) {
-        writeFixed(completion, fd, buffer, OffsetT.ZERO, empty());
+    default Cancellable writeFixed(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, FixedBuffer buffer) {
+        return writeFixed(completion, fd, buffer, OffsetT.ZERO, empty());
     }
 
-    default void writeFixed(Consumer<Result<SizeT>> completion, FileDescriptor fd, FixedBuffer buffer) {
-        writeFixed((result, __) -> completion.accept(result), fd, buffer);
+    default Cancellable writeFixed(Consumer<Result<SizeT>> completion, FileDescriptor fd, FixedBuffer buffer) {
+        return writeFixed((result, __) -> completion.accept(result), fd, buffer);
     }
 
 
-    void send(BiConsumer<Result<SizeT>, Proactor> completion,
-              FileDescriptor fd,
-              OffHeapSlice buffer,
-              Set<MessageFlags> msgFlags,
-              Option<Timeout> timeout);
+    Cancellable send(BiConsumer<Result<SizeT>, Proactor> completion,
+                     FileDescriptor fd,
+                     OffHeapSlice buffer,
+                     Set<MessageFlags> msgFlags,
+                     Option<Timeout> timeout);
 
-    default void send(Consumer<Result<SizeT>> completion,
-                      FileDescriptor fd,
-                      OffHeapSlice buffer,
-                      Set<MessageFlags> msgFlags,
-                      Option<Timeout> timeout) {
-        send((result, __) -> completion.accept(result), fd, buffer, msgFlags, timeout);
+    default Cancellable send(Consumer<Result<SizeT>> completion,
+                             FileDescriptor fd,
+                             OffHeapSlice buffer,
+                             Set<MessageFlags> msgFlags,
+                             Option<Timeout> timeout) {
+        return send((result, __) -> completion.accept(result), fd, buffer, msgFlags, timeout);
     }
 
-    default void send(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, OffHeapSlice buffer, Set<MessageFlags> msgFlags) {
-        send(completion, fd, buffer, msgFlags, empty());
+    default Cancellable send(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, OffHeapSlice buffer, Set<MessageFlags> msgFlags) {
+        return send(completion, fd, buffer, msgFlags, empty());
     }
 
-    default void send(Consumer<Result<SizeT>> completion, FileDescriptor fd, OffHeapSlice buffer, Set<MessageFlags> msgFlags) {
-        send((result, __) -> completion.accept(result), fd, buffer, msgFlags, empty());
+    default Cancellable send(Consumer<Result<SizeT>> completion, FileDescriptor fd, OffHeapSlice buffer, Set<MessageFlags> msgFlags) {
+        return send((result, __) -> completion.accept(result), fd, buffer, msgFlags, empty());
     }
 
-    void recv(BiConsumer<Result<SizeT>, Proactor> completion,
-              FileDescriptor fd,
-              OffHeapSlice buffer,
-              Set<MessageFlags> msgFlags,
-              Option<Timeout> timeout);
+    Cancellable recv(BiConsumer<Result<SizeT>, Proactor> completion,
+                     FileDescriptor fd,
+                     OffHeapSlice buffer,
+                     Set<MessageFlags> msgFlags,
+                     Option<Timeout> timeout);
 
-    default void recv(Consumer<Result<SizeT>> completion,
-                      FileDescriptor fd,
-                      OffHeapSlice buffer,
-                      Set<MessageFlags> msgFlags,
-                      Option<Timeout> timeout) {
-        recv((result, __) -> completion.accept(result), fd, buffer, msgFlags, timeout);
+    default Cancellable recv(Consumer<Result<SizeT>> completion,
+                             FileDescriptor fd,
+                             OffHeapSlice buffer,
+                             Set<MessageFlags> msgFlags,
+                             Option<Timeout> timeout) {
+        return recv((result, __) -> completion.accept(result), fd, buffer, msgFlags, timeout);
     }
 
-    default void recv(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, OffHeapSlice buffer, Set<MessageFlags> msgFlags) {
-        recv(completion, fd, buffer, msgFlags, empty());
+    default Cancellable recv(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, OffHeapSlice buffer, Set<MessageFlags> msgFlags) {
+        return recv(completion, fd, buffer, msgFlags, empty());
     }
 
-    default void recv(Consumer<Result<SizeT>> completion, FileDescriptor fd, OffHeapSlice buffer, Set<MessageFlags> msgFlags) {
-        recv((result, __) -> completion.accept(result), fd, buffer, msgFlags, empty());
+    default Cancellable recv(Consumer<Result<SizeT>> completion, FileDescriptor fd, OffHeapSlice buffer, Set<MessageFlags> msgFlags) {
+        return recv((result, __) -> completion.accept(result), fd, buffer, msgFlags, empty());
+    }
+
+    /**
+     * Receive data from the socket into the buffer selected by the kernel from the ring of provided buffers of this {@link Proactor} instance.
+     * <p>
+     * Unlike {@link #recv(BiConsumer, FileDescriptor, OffHeapSlice, Set, Option)}, buffer is not held while operation waits for the data, so large
+     * number of mostly idle connections can share relatively small pool of buffers. Size and number of provided buffers are configured with
+     * {@link ProactorConfig}.
+     * <p>
+     * Received buffer must be returned back to the ring with {@link ProvidedBuffer#release()} once its content is processed. If there are no free
+     * buffers in the ring at the moment when data arrive, operation fails with {@link SystemError#ENOBUFS}.
+     *
+     * @param completion Callback which is invoked once operation is finished
+     * @param fd         Socket to receive data from
+     * @param msgFlags   Receive flags
+     * @param timeout    Optional operation timeout
+     */
+    Cancellable recv(BiConsumer<Result<ProvidedBuffer>, Proactor> completion, FileDescriptor fd, Set<MessageFlags> msgFlags, Option<Timeout> timeout);
+
+    default Cancellable recv(Consumer<Result<ProvidedBuffer>> completion, FileDescriptor fd, Set<MessageFlags> msgFlags, Option<Timeout> timeout) {
+        return recv((result, __) -> completion.accept(result), fd, msgFlags, timeout);
+    }
+
+    default Cancellable recv(BiConsumer<Result<ProvidedBuffer>, Proactor> completion, FileDescriptor fd, Set<MessageFlags> msgFlags) {
+        return recv(completion, fd, msgFlags, empty());
+    }
+
+    default Cancellable recv(Consumer<Result<ProvidedBuffer>> completion, FileDescriptor fd, Set<MessageFlags> msgFlags) {
+        return recv((result, __) -> completion.accept(result), fd, msgFlags, empty());
+    }
+
+    /**
+     * Receive stream of data from the socket into the buffers selected by the kernel from the ring of provided buffers of this {@link Proactor}
+     * instance.
+     * <p>
+     * Operation is submitted once and remains armed: handler is invoked with new buffer every time data arrive. Handler is invoked by the worker
+     * thread of this {@link Proactor} instance, so buffers are delivered in order. Each buffer must be released with
+     * {@link ProvidedBuffer#release()} once its content is processed.
+     * <p>
+     * Operation is stopped once socket is closed by peer ({@link SystemError#ENODATA}), any error happens or there are no free buffers in the
+     * ring ({@link SystemError#ENOBUFS}). Last invocation of the handler always carries failure. If operation was stopped by the kernel without
+     * error, the failure is {@link SystemError#ECANCELED}. In case of {@link SystemError#ENOBUFS} and {@link SystemError#ECANCELED} operation can
+     * be submitted again. Kernels older than 6.0 do not support multishot receive and fail operation with {@link SystemError#EINVAL}.
+     * <p>
+     * Operation can be stopped with returned {@link Cancellable} handle, then last invocation of the handler receives
+     * {@link SystemError#ECANCELED}.
+     *
+     * @param handler  Handler which is invoked for every received buffer and for the final failure
+     * @param fd       Socket to receive data from
+     * @param msgFlags Receive flags
+     */
+    Cancellable recvMultishot(BiConsumer<Result<ProvidedBuffer>, Proactor> handler, FileDescriptor fd, Set<MessageFlags> msgFlags);
+
+    /**
+     * Submit several operations as a chain of linked operations. Operations requested from the {@link Proactor} instance passed to the
+     * {@code steps} are not submitted immediately, instead they are collected and submitted at once, when {@code steps} returns. Kernel starts
+     * each operation only once the previous one is finished, so there is no need to wait for completion of one operation before submission of
+     * the next one. For example, data can be written and then synced to the disk or received data can be sent to the other socket.
+     * <p>
+     * Completion of each operation is invoked as usual. Then {@code completion} is invoked once all operations are finished. It receives first
+     * failure reported by the operations in the chain or success if all operations succeeded. If {@link LinkMode#SOFT} is used, failure of the
+     * operation cancels the rest of the chain and operations receive {@link SystemError#ECANCELED}.
+     * <p>
+     * Since all operations are submitted at once, they can't use results of previous operations. Operations which are completed without
+     * submission (like {@link #socket(Consumer, AddressFamily, SocketType, Set, Set)} or {@link #listen(Consumer, SocketAddress, SocketType, Set,
+     * SizeT, Set)}) are not part of the chain. Multishot operations can't be part of the chain as well, they immediately fail with
+     * {@link SystemError#EINVAL}, which is also reported to {@code completion}. Chain must fit into the submission queue, otherwise all
+     * operations fail with {@link SystemError#E2BIG}.
+     * <p>
+     * Returned {@link Cancellable} handle cancels all operations of the chain which are not finished yet.
+     *
+     * @param completion Callback which is invoked once all operations in the chain are finished
+     * @param mode       Behavior of the chain in case of failure
+     * @param steps      Builder which requests operations of the chain
+     */
+    Cancellable chain(BiConsumer<Result<Unit>, Proactor> completion, LinkMode mode, Consumer<Proactor> steps);
+
+    default Cancellable chain(Consumer<Result<Unit>> completion, LinkMode mode, Consumer<Proactor> steps) {
+        return chain((result, __) -> completion.accept(result), mode, steps);
+    }
+
+    default Cancellable chain(BiConsumer<Result<Unit>, Proactor> completion, Consumer<Proactor> steps) {
+        return chain(completion, LinkMode.SOFT, steps);
+    }
+
+    default Cancellable chain(Consumer<Result<Unit>> completion, Consumer<Proactor> steps) {
+        return chain((result, __) -> completion.accept(result), LinkMode.SOFT, steps);
+    }
+
+    /**
+     * Submit several independent operations at once. Operations requested from the {@link Proactor} instance passed to the {@code steps} are
+     * not submitted immediately, instead they are collected and passed to the worker thread as a single unit, so they land in the same
+     * {@code io_uring_enter} call. Completion of each operation is invoked as usual.
+     * <p>
+     * Chains requested within the batch (see {@link #chain(BiConsumer, LinkMode, Consumer)}) become part of the batch. If batch does not fit into
+     * the submission queue, it is split into several submissions, but chains are never split.
+     *
+     * @param steps Builder which requests operations of the batch
+     */
+    void batch(Consumer<Proactor> steps);
+
+    /**
+     * Number of operations submitted to this instance, but not yet passed to the kernel. The value is a snapshot and can be used by producers
+     * as a load signal, for example, to throttle acceptance of new connections.
+     */
+    int backlog();
+
+    /**
+     * Maximal number of operations waiting for submission. Operations submitted while backlog is full are not queued, instead they are
+     * immediately completed with {@link SystemError#EAGAIN}.
+     */
+    int maxBacklog();
+
+    /**
+     * Runtime metrics of this instance. Returned object is a live view, values are updated as instance processes operations.
+     */
+    ProactorMetrics metrics();
+
+    /**
+     * Runtime metrics of all instances in the pool. Metrics are also available via JMX as {@code org.pragmatica.io:type=Proactor,name=<index>}
+     * MBeans.
+     */
+    static List<ProactorMetrics> poolMetrics() {
+        return ProactorHolder.INSTANCE.metrics();
     }
 
     //recvmsg, sendmsg, read_fixed, write_fixed
@@ -587,6 +776,33 @@ public interface Proactor {
         return ProactorHolder.INSTANCE.get();
     }
 
+    /**
+     * Get home {@link Proactor} instance of the provided file descriptor. All invocations with the same descriptor return the same instance,
+     * so operations with the descriptor submitted via returned instance are processed by the same ring and worker thread. This preserves cache
+     * locality and enables use of per-instance resources, like registered buffers.
+     * <p>
+     * Fixed descriptors (see {@link FileDescriptor#isFixed()}) are valid only within the instance which installed them, so for them this
+     * method returns that instance.
+     *
+     * @param fd File descriptor or socket
+     *
+     * @return home instance of the descriptor
+     */
+    static Proactor proactor(FileDescriptor fd) {
+        return ProactorHolder.INSTANCE.home(fd);
+    }
+
+    /**
+     * Configure Proactor pool. Configuration can be changed only before pool is created, i.e. before first invocation of {@link #proactor()}.
+     *
+     * @param config New pool configuration
+     *
+     * @return success or {@link SystemError#EBUSY} if pool is already created.
+     */
+    static Result<Unit> configure(ProactorConfig config) {
+        return ProactorConfig.install(config);
+    }
+
     /**
      * Shutdown current Proactor instance.
      */
@@ -602,31 +818,67 @@ public interface Proactor {
     enum ProactorHolder {
         INSTANCE;
 
-        private final AtomicInteger counter = new AtomicInteger(0);
-        private final List<ProactorImpl> proactors;
+        private final ProactorImpl[] proactors;
+        private final ProactorSelector selector;
+        private final List<ObjectName> mbeans = new ArrayList<>();
 
-        private final ChunkedAllocator allocator = ChunkedAllocator.allocator(Units._1MiB);
-        private static final int DEFAULT_QUEUE_SIZE = 128;
+        private final ChunkedAllocator allocator;
 
         ProactorHolder() {
             var numCores = Runtime.getRuntime().availableProcessors();
             var factory = DaemonThreadFactory.threadFactory("Proactor Worker %d");
-//            var numCores = 1;
-
-            proactors = IntStream.range(0, numCores)
-                                 .mapToObj(__ -> ProactorImpl.proactor(DEFAULT_QUEUE_SIZE,
-                                                                       UringSetupFlags.defaultFlags(),
-                                                                       allocator,
-                                                                       factory))
-                                 .collect(Collectors.toList());
+            var config = ProactorConfig.poolConfig();
+
+            allocator = ChunkedAllocator.allocator(config.regionSize(), config.maxRegions());
+            selector = config.selector();
+
+            proactors = new ProactorImpl[numCores];
+            proactors[0] = ProactorImpl.proactor(config, allocator, factory, 0);
+
+            // Shared setup: remaining rings use backend (and submission queue polling thread, if any) of the first one
+            if (config.uringSetup().isShared()) {
+                config = config.withUringSetup(config.uringSetup().attachTo(proactors[0].ringFd()));
+            }
+
+            for (int i = 1; i < numCores; i++) {
+                proactors[i] = ProactorImpl.proactor(config, allocator, factory, i);
+            }
+
+            for (int i = 0; i < numCores; i++) {
+                ProactorMetricsBean.register(i, proactors[i].metrics())
+                                   .onPresent(mbeans::add);
+            }
         }
 
         Proactor get() {
-            return proactors.get(counter.incrementAndGet() % proactors.size());
+            return proactors[selector.select(proactors.length)];
+        }
+
+        Proactor home(FileDescriptor fd) {
+            if (fd.isFixed()) {
+                return proactors[fd.ring()];
+            }
+
+            // Kernel allocates the lowest available descriptor number, so live descriptors are dense and spread evenly across instances
+            return proactors[fd.descriptor() % proactors.length];
+        }
+
+        List<ProactorMetrics> metrics() {
+            var result = new ArrayList<ProactorMetrics>(proactors.length);
+
+            for (var proactor : proactors) {
+                result.add(proactor.metrics());
+            }
+
+            return result;
         }
 
         public void shutdown() {
-            proactors.forEach(Proactor::shutdown);
+            mbeans.forEach(ProactorMetricsBean::unregister);
+
+            for (var proactor : proactors) {
+                proactor.shutdown();
+            }
             allocator.close();
         }
     }
@@ -0,0 +1,108 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.pragmatica.io.async;
+
+import org.pragmatica.io.async.uring.UringSetup;
+import org.pragmatica.io.async.util.Units;
+import org.pragmatica.lang.Result;
+import org.pragmatica.lang.Unit;
+
+import java.util.function.Supplier;
+
+/**
+ * Configuration of the {@link Proactor} pool.
+ *
+ * @param queueSize          Requested size of the submission queue of each ring.
+ * @param uringSetup         Ring setup parameters.
+ * @param idleStrategy       Factory for idle strategies, each worker thread gets its own instance.
+ * @param regionSize         Size of the single region of the fixed buffer memory, see {@link Proactor#allocateFixedBuffer(int)}.
+ * @param maxRegions         Maximal number of fixed buffer memory regions. Regions are allocated on demand.
+ * @param providedBuffers    Number of buffers in the ring of provided buffers of each {@link Proactor} instance, must be power of two.
+ * @param providedBufferSize Size of each provided buffer.
+ * @param selector           Strategy which picks pool member for each invocation of {@link Proactor#proactor()}.
+ * @param exchangeEntries    Initial number of in-flight operation descriptors of each ring. Pool grows on demand, pre-sizing it for expected
+ *                           peak load avoids growth under traffic ramp.
+ */
+public record ProactorConfig(int queueSize, UringSetup uringSetup, Supplier<IdleStrategy> idleStrategy, int regionSize, int maxRegions,
+                             int providedBuffers, int providedBufferSize, ProactorSelector selector, int exchangeEntries) {
+    public static final int DEFAULT_QUEUE_SIZE = 128;
+    public static final int DEFAULT_REGION_SIZE = Units._1MiB;
+    public static final int DEFAULT_MAX_REGIONS = 256;
+    public static final int DEFAULT_PROVIDED_BUFFERS = 256;
+    public static final int DEFAULT_PROVIDED_BUFFER_SIZE = 16 * Units._1KiB;
+    public static final int DEFAULT_EXCHANGE_ENTRIES = 2048;
+
+    private static final ProactorConfig DEFAULT = new ProactorConfig(DEFAULT_QUEUE_SIZE, UringSetup.singleThread(), IdleStrategy::backoff,
+                                                                     DEFAULT_REGION_SIZE, DEFAULT_MAX_REGIONS,
+                                                                     DEFAULT_PROVIDED_BUFFERS, DEFAULT_PROVIDED_BUFFER_SIZE,
+                                                                     ProactorSelector.random(), DEFAULT_EXCHANGE_ENTRIES);
+    private static ProactorConfig poolConfig = DEFAULT;
+    private static boolean poolCreated = false;
+
+    public static ProactorConfig defaultConfig() {
+        return DEFAULT;
+    }
+
+    public ProactorConfig withQueueSize(int queueSize) {
+        return new ProactorConfig(queueSize, uringSetup, idleStrategy, regionSize, maxRegions, providedBuffers, providedBufferSize,
+                                  selector, exchangeEntries);
+    }
+
+    public ProactorConfig withUringSetup(UringSetup uringSetup) {
+        return new ProactorConfig(queueSize, uringSetup, idleStrategy, regionSize, maxRegions, providedBuffers, providedBufferSize,
+                                  selector, exchangeEntries);
+    }
+
+    public ProactorConfig withIdleStrategy(Supplier<IdleStrategy> idleStrategy) {
+        return new ProactorConfig(queueSize, uringSetup, idleStrategy, regionSize, maxRegions, providedBuffers, providedBufferSize,
+                                  selector, exchangeEntries);
+    }
+
+    public ProactorConfig withFixedBuffers(int regionSize, int maxRegions) {
+        return new ProactorConfig(queueSize, uringSetup, idleStrategy, regionSize, maxRegions, providedBuffers, providedBufferSize,
+                                  selector, exchangeEntries);
+    }
+
+    public ProactorConfig withProvidedBuffers(int providedBuffers, int providedBufferSize) {
+        return new ProactorConfig(queueSize, uringSetup, idleStrategy, regionSize, maxRegions, providedBuffers, providedBufferSize,
+                                  selector, exchangeEntries);
+    }
+
+    public ProactorConfig withSelector(ProactorSelector selector) {
+        return new ProactorConfig(queueSize, uringSetup, idleStrategy, regionSize, maxRegions, providedBuffers, providedBufferSize,
+                                  selector, exchangeEntries);
+    }
+
+    public ProactorConfig withExchangeEntries(int exchangeEntries) {
+        return new ProactorConfig(queueSize, uringSetup, idleStrategy, regionSize, maxRegions, providedBuffers, providedBufferSize,
+                                  selector, exchangeEntries);
+    }
+
+    static synchronized Result<Unit> install(ProactorConfig config) {
+        if (poolCreated) {
+            return SystemError.EBUSY.result();
+        }
+
+        poolConfig = config;
+        return Unit.unitResult();
+    }
+
+    static synchronized ProactorConfig poolConfig() {
+        poolCreated = true;
+        return poolConfig;
+    }
+}
@@ -16,23 +16,13 @@
 
 package org.pragmatica.io.async;
 
-import org.pragmatica.io.async.common.OffsetT;
-import org.pragmatica.io.async.common.SizeT;
-import org.pragmatica.io.async.file.*;
-import org.pragmatica.io.async.file.stat.FileStat;
-import org.pragmatica.io.async.file.stat.StatFlag;
-import org.pragmatica.io.async.file.stat.StatMask;
-import org.pragmatica.io.async.net.*;
-import org.pragmatica.io.async.uring.Bitmask;
 import org.pragmatica.io.async.uring.UringApi;
-import org.pragmatica.io.async.uring.UringSetupFlags;
-import org.pragmatica.io.async.uring.exchange.AsyncOperation;
+import org.pragmatica.io.async.uring.UringMetrics;
+import org.pragmatica.io.async.uring.exchange.ExchangeEntry;
 import org.pragmatica.io.async.uring.exchange.ExchangeEntryPool;
-import org.pragmatica.io.async.uring.struct.offheap.OffHeapCString;
-import org.pragmatica.io.async.uring.struct.offheap.OffHeapSocketAddress;
-import org.pragmatica.io.async.util.OffHeapSlice;
+import org.pragmatica.io.async.uring.struct.raw.SQEntryFlags;
+import org.pragmatica.io.async.util.allocator.BufferRing;
 import org.pragmatica.io.async.util.allocator.ChunkedAllocator;
-import org.pragmatica.io.async.util.allocator.FixedBuffer;
 import org.pragmatica.lang.Functions;
 import org.pragmatica.lang.Option;
 import org.pragmatica.lang.Result;
@@ -41,9 +31,6 @@ import org.pragmatica.lang.Unit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.nio.file.Path;
-import java.time.Duration;
-import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -51,44 +38,53 @@ import java.util.concurrent.ThreadFactory;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
-import static org.pragmatica.io.async.uring.exchange.AsyncOperation.*;
+import static org.pragmatica.io.async.uring.exchange.AsyncOperation.ASYNC_CANCEL;
 import static org.pragmatica.io.async.uring.exchange.ExchangeEntryPool.exchangeEntryPool;
-import static org.pragmatica.io.async.uring.struct.offheap.OffHeapIoVector.withReadBuffers;
-import static org.pragmatica.io.async.uring.struct.offheap.OffHeapIoVector.withWriteBuffers;
-import static org.pragmatica.io.async.uring.struct.raw.SQEntry.IORING_FSYNC_DATASYNC;
 
 /**
  * Asynchronous Input/Output Proactor Implementation.
  */
-class ProactorImpl implements Proactor {
+class ProactorImpl extends AbstractProactor {
     private static final Logger LOG = LoggerFactory.getLogger(Proactor.class);
 
-    // Special value used to indicate the openat/statx functions should use the current working directory.
-    private static final FileDescriptor AT_FDCWD = FileDescriptor.file(-100);
-    private static final Timeout HEARTBEAT_INTERVAL = Timeout.timeout(1000).millis();
+    private static final short PROVIDED_BUFFER_GROUP = 0;
+
+    // Cancellation fails with ENOENT or EALREADY if operation is already finished or about to finish, there is nothing to do in this case
+    private static final BiConsumer<Result<Unit>, Proactor> IGNORE_CANCEL_RESULT = (result, proactor) -> {};
 
     private final UringApi uringApi;
-    private final ExchangeEntryPool pool;
-    private final ChunkedAllocator sharedAllocator;
     private final ExecutorService executor;
-    private boolean shutdown = false;
-    private final CountDownLatch shutdownLatch = new CountDownLatch(2);
-
-    private ProactorImpl(UringApi uringApi, ChunkedAllocator sharedAllocator, ExchangeEntryPool pool, ThreadFactory factory) {
+    private final IdleStrategy idleStrategy;
+    private final IdleStrategy.Waiter waiter;
+    private final UringMetrics metrics;
+    private volatile boolean shutdown = false;
+    private final CountDownLatch shutdownLatch = new CountDownLatch(1);
+
+    private ProactorImpl(UringApi uringApi, ChunkedAllocator sharedAllocator, Option<BufferRing> bufferRing, ExchangeEntryPool pool,
+                         ProactorConfig config, ThreadFactory factory, int ring) {
+        super(pool, sharedAllocator, bufferRing, ring);
         this.uringApi = uringApi;
-        this.pool = pool;
-
-        this.sharedAllocator = sharedAllocator.register(uringApi);
+        this.idleStrategy = config.idleStrategy().get();
+        this.waiter = uringApi::waitForCompletions;
+        this.metrics = uringApi.metrics();
+        this.uringApi.submissionBarrier(sharedAllocator.register(uringApi)::sync);
         this.executor = Executors.newSingleThreadExecutor(factory);
         this.executor.submit(this::processIO);
     }
 
-    static ProactorImpl proactor(int queueSize, Set<UringSetupFlags> openFlags, ChunkedAllocator sharedAllocator, ThreadFactory factory) {
-        var pool = exchangeEntryPool();
-        var api = UringApi.uringApi(queueSize, openFlags, pool)
+    static ProactorImpl proactor(ProactorConfig config, ChunkedAllocator sharedAllocator, ThreadFactory factory, int ring) {
+        var pool = exchangeEntryPool(config.exchangeEntries());
+        var api = UringApi.uringApi(config.queueSize(), config.uringSetup(), pool)
                           .fold(ProactorImpl::fail, Functions::id);
+        var bufferRing = BufferRing.bufferRing(api, PROVIDED_BUFFER_GROUP, config.providedBuffers(), config.providedBufferSize())
+                                   .onFailure(cause -> LOG.debug("Provided buffers are not available: {}", cause.message()))
+                                   .toOption();
 
-        return new ProactorImpl(api, sharedAllocator, pool, factory);
+        return new ProactorImpl(api, sharedAllocator, bufferRing, pool, config, factory, ring);
+    }
+
+    int ringFd() {
+        return uringApi.ringFd();
     }
 
     private static <R> R fail(Cause cause) {
@@ -103,8 +99,11 @@ class ProactorImpl implements Proactor {
 
         shutdown = true;
         try {
-            uringApi.shutdown();
+            uringApi.wakeup();
+            // Ring must be closed only after worker thread released it
             shutdownLatch.await();
+            uringApi.shutdown();
+            bufferRing.onPresent(BufferRing::close);
         } catch (InterruptedException e) {
             throw new RuntimeException(e);
         } finally {
@@ -114,240 +113,166 @@ class ProactorImpl implements Proactor {
     }
 
     private void processIO() {
+        uringApi.attach()
+                .onSuccessDo(this::processLoop)
+                .onFailure(cause -> LOG.error("Unable to attach IO_URING interface to worker thread: {}", cause.message()));
+
+        uringApi.detach();
+        shutdownLatch.countDown();
+    }
+
+    private void processLoop() {
         while (!shutdown) {
             try {
-                int count = uringApi.processSubmissions();
-                count += uringApi.processCompletions(this);
+                bufferRing.onPresent(BufferRing::sync);
 
-                if (count == 0) {
-                    Thread.yield();
-//                    LockSupport.parkNanos(10);
-                }
+                int count = LoopStallEvent.enabled() ? tracedIteration() : iteration();
 
+                metrics.iteration(count);
+                idleStrategy.idle(count, waiter);
             } catch (Exception e) {
                 LOG.debug("processCompletions caught (and ignored) exception: ", e);
             }
         }
-        shutdownLatch.countDown();
     }
 
-    @Override
-    public void nop(BiConsumer<Result<Unit>, Proactor> completion) {
-        uringApi.submit(pool.acquire(NOP)
-                            .completion(completion));
+    private int iteration() {
+        return uringApi.processSubmissions() + uringApi.processCompletions(this);
     }
 
-    @Override
-    public void delay(BiConsumer<Result<Duration>, Proactor> completion, Timeout timeout) {
-        uringApi.submit(pool.acquire(TIMEOUT)
-                            .completion(completion)
-                            .setDelayTime(timeout));
-    }
+    private int tracedIteration() {
+        var event = new LoopStallEvent();
 
-    @Override
-    public void close(BiConsumer<Result<Unit>, Proactor> completion, FileDescriptor fd, Option<Timeout> timeout) {
-        uringApi.submit(pool.acquire(CLOSE)
-                            .completion(completion)
-                            .descriptor(fd)
-                            .setOperationTimeout(timeout));
-    }
+        event.begin();
+        int count = iteration();
+        event.end();
 
-    @Override
-    public void read(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, OffHeapSlice buffer,
-                     OffsetT offset, Option<Timeout> timeout) {
-        uringApi.submit(pool.acquire(READ)
-                            .completion(completion)
-                            .descriptor(fd)
-                            .buffer(buffer)
-                            .offset(offset)
-                            .setOperationTimeout(timeout));
-    }
+        if (event.shouldCommit()) {
+            event.workCount = count;
+            event.backlog = uringApi.backlog();
+            event.commit();
+        }
 
-    @Override
-    public void write(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, OffHeapSlice buffer,
-                      OffsetT offset, Option<Timeout> timeout) {
-        uringApi.submit(pool.acquire(WRITE)
-                            .completion(completion)
-                            .descriptor(fd)
-                            .buffer(buffer)
-                            .offset(offset)
-                            .setOperationTimeout(timeout));
+        return count;
     }
 
     @Override
-    public void splice(BiConsumer<Result<SizeT>, Proactor> completion, SpliceDescriptor descriptor, Option<Timeout> timeout) {
-        uringApi.submit(pool.acquire(SPLICE)
-                            .completion(completion)
-                            .spliceDescriptor(descriptor)
-                            .setOperationTimeout(timeout));
-    }
+    protected Cancellable submit(ExchangeEntry<?> entry) {
+        var handle = handle(entry);
 
-    @Override
-    public void open(BiConsumer<Result<FileDescriptor>, Proactor> completion, Path path, Set<OpenFlags> flags,
-                     Set<FilePermission> mode, Option<Timeout> timeout) {
-        uringApi.submit(pool.acquire(OPENAT)
-                            .completion(completion)
-                            .rawPath(OffHeapCString.cstring(path.toString()))
-                            .openFlags(Bitmask.combine(flags))
-                            .openMode(Bitmask.combine(mode))
-                            .setOperationTimeout(timeout));
-    }
+        if (uringApi.submit(entry)) {
+            return handle;
+        }
 
-    @Override
-    public void socket(Consumer<Result<FileDescriptor>> completion, AddressFamily addressFamily,
-                       SocketType socketType, Set<SocketFlag> openFlags, Set<SocketOption> options) {
-        completion.accept(UringApi.socket(addressFamily, socketType, openFlags, options));
+        fail(entry, SystemError.EAGAIN);
+        return Cancellable.none();
     }
 
-    @Override
-    public <T extends InetAddress> void listen(Consumer<Result<ListenContext<T>>> completion,
-                                               SocketAddress<T> socketAddress, SocketType socketType,
-                                               Set<SocketFlag> openFlags, SizeT queueDepth, Set<SocketOption> options) {
-        completion.accept(UringApi.listen(socketAddress, socketType, openFlags, options, queueDepth));
+    /**
+     * Create handle which cancels operation of the entry. Handle must be created before entry is submitted, because once operation is completed,
+     * entry can be reused by another operation.
+     */
+    Cancellable handle(ExchangeEntry<?> entry) {
+        var userData = entry.userData();
+
+        return () -> cancel(userData);
     }
 
-    @SuppressWarnings({"unchecked", "rawtypes"})
-    @Override
-    public <T extends InetAddress> void accept(BiConsumer<Result<ConnectionContext<T>>, Proactor> completion,
-                                               FileDescriptor socket, Set<SocketFlag> flags, T address) {
-        uringApi.submit(pool.acquire((AsyncOperation<ConnectionContext<T>>) (AsyncOperation) ACCEPT)
-                            .completion(completion)
-                            .descriptor(socket)
-                            .acceptFlags(Bitmask.combine(flags))
-                            .protocolVersion(address.version()));
+    private void cancel(long userData) {
+        submit(pool.acquire(ASYNC_CANCEL)
+                   .completion(IGNORE_CANCEL_RESULT)
+                   .cancelTarget(userData));
     }
 
     @Override
-    public <T extends InetAddress> void connect(BiConsumer<Result<FileDescriptor>, Proactor> completion, FileDescriptor socket,
-                                                SocketAddress<T> address, Option<Timeout> timeout) {
-        var destinationAddress = OffHeapSocketAddress.unsafeSocketAddress(address);
+    public Cancellable chain(BiConsumer<Result<Unit>, Proactor> completion, LinkMode mode, Consumer<Proactor> steps) {
+        var chain = OperationGroup.chain(this, mode, completion);
 
-        if (destinationAddress == null) {
-            completion.accept(SystemError.EPFNOSUPPORT.result(), this);
-            return;
-        }
+        steps.accept(chain);
+        chain.flush();
 
-        uringApi.submit(pool.acquire(CONNECT)
-                            .completion(completion)
-                            .destinationAddress(destinationAddress)
-                            .descriptor(socket)
-                            .setOperationTimeout(timeout));
+        return chain::cancel;
     }
 
     @Override
-    public void stat(BiConsumer<Result<FileStat>, Proactor> completion,
-                     Path path, Set<StatFlag> flags, Set<StatMask> mask, Option<Timeout> timeout) {
-        //Reset EMPTY_PATH and force use the path.
-        uringApi.submit(pool.acquire(STATX)
-                            .completion(completion)
-                            .descriptor(AT_FDCWD)
-                            .statFlags(Bitmask.combine(flags) & ~StatFlag.EMPTY_PATH.mask())
-                            .statMask(Bitmask.combine(mask))
-                            .rawPath(OffHeapCString.cstring(path.toString())));
-    }
-
-    @Override
-    public void stat(BiConsumer<Result<FileStat>, Proactor> completion, FileDescriptor fileDescriptor, Set<StatFlag> flags,
-                     Set<StatMask> mask, Option<Timeout> timeout) {
-        //Set EMPTY_PATH and force use of file descriptor.
-        uringApi.submit(pool.acquire(STATX)
-                            .completion(completion)
-                            .descriptor(fileDescriptor)
-                            .statFlags(Bitmask.combine(flags) | StatFlag.EMPTY_PATH.mask())
-                            .statMask(Bitmask.combine(mask))
-                            .rawPath(OffHeapCString.cstring("")));
+    public void batch(Consumer<Proactor> steps) {
+        var batch = OperationGroup.batch(this);
 
+        steps.accept(batch);
+        batch.flush();
     }
 
     @Override
-    public void readVector(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fileDescriptor, OffsetT offset,
-                           Option<Timeout> timeout, OffHeapSlice... buffers) {
-        uringApi.submit(pool.acquire(READV)
-                            .completion(completion)
-                            .descriptor(fileDescriptor)
-                            .offset(offset)
-                            .ioVector(withReadBuffers(buffers))
-                            .setOperationTimeout(timeout));
+    public int backlog() {
+        return uringApi.backlog();
     }
 
     @Override
-    public void writeVector(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fileDescriptor, OffsetT offset,
-                            Option<Timeout> timeout, OffHeapSlice... buffers) {
-        uringApi.submit(pool.acquire(WRITEV)
-                            .completion(completion)
-                            .descriptor(fileDescriptor)
-                            .offset(offset)
-                            .ioVector(withWriteBuffers(buffers))
-                            .setOperationTimeout(timeout));
+    public ProactorMetrics metrics() {
+        return metrics;
     }
 
     @Override
-    public void fileSync(BiConsumer<Result<Unit>, Proactor> completion, FileDescriptor fileDescriptor,
-                         boolean syncMetadata, Option<Timeout> timeout) {
-        uringApi.submit(pool.acquire(FSYNC)
-                            .completion(completion)
-                            .descriptor(fileDescriptor)
-                            .syncFlags(syncMetadata ? 0 : IORING_FSYNC_DATASYNC)
-                            .setOperationTimeout(timeout));
+    public int maxBacklog() {
+        return UringApi.MAX_BACKLOG;
     }
 
-    @Override
-    public void fileAlloc(BiConsumer<Result<Unit>, Proactor> completion, FileDescriptor fileDescriptor,
-                          Set<FileAllocFlags> allocFlags, OffsetT offset, long len, Option<Timeout> timeout) {
-        uringApi.submit(pool.acquire(FALLOCATE)
-                            .completion(completion).descriptor(fileDescriptor)
-                            .allocFlags(Bitmask.combine(allocFlags))
-                            .offset(offset)
-                            .len(len)
-                            .setOperationTimeout(timeout));
+    /**
+     * Submit entries appended to each other in the single submission, so they land in the same {@code io_uring_enter} call. If entries can't
+     * fit into the submission queue, then all of them are failed with {@link SystemError#E2BIG}. If backlog is full, then all of them are
+     * failed with {@link SystemError#EAGAIN}.
+     */
+    void submitGroup(ExchangeEntry<?> head) {
+        if (head.slots() > uringApi.maxGroupSize()) {
+            fail(head, SystemError.E2BIG);
+        } else if (!uringApi.submit(head)) {
+            fail(head, SystemError.EAGAIN);
+        }
     }
 
-    @Override
-    public void readFixed(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, FixedBuffer buffer,
-                          OffsetT offset, Option<Timeout> timeout) {
-        uringApi.submit(pool.acquire(READ_FIXED)
-                            .completion(completion)
-                            .descriptor(fd)
-                            .fixedBuffer(buffer)
-                            .offset(offset)
-                            .setOperationTimeout(timeout));
-    }
+    // Complete entry and entries appended to it with error, without passing them to the kernel
+    void fail(ExchangeEntry<?> head, SystemError error) {
+        ExchangeEntry<?> entry = head;
 
-    @Override
-    public void writeFixed(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, FixedBuffer buffer,
-                           OffsetT offset, Option<Timeout> timeout) {
-        uringApi.submit(pool.acquire(WRITE_FIXED)
-                            .completion(completion)
-                            .descriptor(fd)
-                            .fixedBuffer(buffer)
-                            .offset(offset)
-                            .setOperationTimeout(timeout));
+        while (entry != null) {
+            var next = entry.next();
+            pool.completeRequest(entry.key(), -error.code(), 0, this);
+            entry = next;
+        }
     }
 
-    @Override
-    public void send(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, OffHeapSlice buffer,
-                     Set<MessageFlags> msgFlags, Option<Timeout> timeout) {
-        uringApi.submit(pool.acquire(SEND)
-                            .completion(completion)
-                            .buffer(buffer)
-                            .descriptor(fd)
-                            .msgFlags(Bitmask.combine(msgFlags))
-                            .setOperationTimeout(timeout));
+    /**
+     * Submit batch of entries. Batch which does not fit into the submission queue is split into several submissions, but chains within the
+     * batch are never split.
+     */
+    void submitBatch(ExchangeEntry<?> head) {
+        while (head != null) {
+            var last = lastFitting(head, uringApi.maxGroupSize());
+            var rest = last.next();
+
+            last.next(null, SQEntryFlags.NONE);
+            submitGroup(head);
+            head = rest;
+        }
     }
 
-    @Override
-    public void recv(BiConsumer<Result<SizeT>, Proactor> completion, FileDescriptor fd, OffHeapSlice buffer,
-                     Set<MessageFlags> msgFlags, Option<Timeout> timeout) {
-        uringApi.submit(pool.acquire(RECV)
-                            .completion(completion)
-                            .buffer(buffer)
-                            .descriptor(fd)
-                            .msgFlags(Bitmask.combine(msgFlags))
-                            .setOperationTimeout(timeout));
-    }
+    // Find the longest sequence of entries which fits into the limit and does not end in the middle of chain.
+    private static ExchangeEntry<?> lastFitting(ExchangeEntry<?> head, int limit) {
+        ExchangeEntry<?> boundary = null;
+        int slots = 0;
 
-    @Override
-    public Result<FixedBuffer> allocateFixedBuffer(int size) {
-        return sharedAllocator.allocate(size);
+        for (ExchangeEntry<?> entry = head; entry != null; entry = entry.next()) {
+            slots += entry.sqEntries();
+
+            if (slots > limit && boundary != null) {
+                break;
+            }
+
+            if (entry.linkFlags() == 0) {
+                boundary = entry;
+            }
+        }
+
+        return boundary;
     }
 }
@@ -0,0 +1,108 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.pragmatica.io.async;
+
+import org.pragmatica.io.async.uring.exchange.Opcode;
+
+/**
+ * Runtime metrics of the single {@link Proactor} instance.
+ * <p>
+ * Counters are updated only by the worker thread of the instance, without allocation or synchronization, and can be read from any thread at
+ * any time. Values are monotonic (except gauges) and may be slightly stale when read concurrently with updates. Counters are cumulative since
+ * the instance was created, so rates should be calculated by the caller from the difference between two reads.
+ * <p>
+ * Values allow to distinguish typical sources of latency: growing {@link #backlog()} means that worker thread does not keep up with
+ * submissions, growing {@link #inFlight()} with low number of completions points to the kernel side, while small number of loop iterations
+ * per completion means that worker thread is busy in completion callbacks.
+ */
+public interface ProactorMetrics {
+    /**
+     * Number of submission queue entries with specified opcode passed to the kernel.
+     */
+    long submissions(Opcode opcode);
+
+    /**
+     * Number of completion queue entries with specified opcode received from the kernel. Multishot operations produce several completions
+     * per submission.
+     */
+    long completions(Opcode opcode);
+
+    /**
+     * Distribution of latency of the operations with specified opcode, measured from the moment when operation is passed to the kernel till
+     * the moment when its completion is received. Multishot operations are not included. Returned histogram is a cumulative snapshot, see
+     * {@link LatencyHistogram#since(LatencyHistogram)} for calculation of the distribution for the particular interval.
+     */
+    LatencyHistogram latency(Opcode opcode);
+
+    /**
+     * Total number of submission queue entries passed to the kernel.
+     */
+    long submissions();
+
+    /**
+     * Total number of completion queue entries received from the kernel.
+     */
+    long completions();
+
+    /**
+     * Number of iterations of the worker thread loop.
+     */
+    long loopIterations();
+
+    /**
+     * Number of iterations of the worker thread loop which found no work.
+     */
+    long idleIterations();
+
+    /**
+     * Number of iterations which passed at least one entry to the kernel. Average submission batch size is the ratio of {@link #submissions()}
+     * to this value.
+     */
+    long submitBatches();
+
+    /**
+     * Largest number of entries passed to the kernel in single iteration.
+     */
+    long maxSubmitBatch();
+
+    /**
+     * Number of iterations which received at least one completion. Average completion batch size is the ratio of {@link #completions()} to
+     * this value.
+     */
+    long completionBatches();
+
+    /**
+     * Largest number of completions received in single iteration.
+     */
+    long maxCompletionBatch();
+
+    /**
+     * Number of operations waiting for submission, see {@link Proactor#backlog()}.
+     */
+    int backlog();
+
+    /**
+     * Number of operations passed to the kernel and not yet finished.
+     */
+    long inFlight();
+
+    /**
+     * Number of completions dropped by the kernel because completion queue was full.
+     */
+    long completionQueueOverflow();
+}
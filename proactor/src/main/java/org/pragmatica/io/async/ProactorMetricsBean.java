@@ -0,0 +1,158 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.pragmatica.io.async;
+
+import org.pragmatica.io.async.uring.exchange.Opcode;
+import org.pragmatica.lang.Option;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * Adapter which exposes {@link ProactorMetrics} via JMX.
+ */
+final class ProactorMetricsBean implements ProactorMetricsMXBean {
+    private static final Logger LOG = LoggerFactory.getLogger(ProactorMetricsBean.class);
+    private static final String NAME_PATTERN = "org.pragmatica.io:type=Proactor,name=%d";
+
+    private final ProactorMetrics metrics;
+
+    private ProactorMetricsBean(ProactorMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Register MBean for the metrics of the pool member.
+     *
+     * @return name of the registered MBean or empty option if registration failed
+     */
+    static Option<ObjectName> register(int index, ProactorMetrics metrics) {
+        try {
+            var name = new ObjectName(String.format(NAME_PATTERN, index));
+
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new ProactorMetricsBean(metrics), name);
+            return Option.option(name);
+        } catch (JMException e) {
+            LOG.debug("Unable to register Proactor metrics MBean: {}", e.getMessage());
+            return Option.empty();
+        }
+    }
+
+    static void unregister(ObjectName name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (JMException e) {
+            LOG.debug("Unable to unregister Proactor metrics MBean: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public long getSubmissions() {
+        return metrics.submissions();
+    }
+
+    @Override
+    public long getCompletions() {
+        return metrics.completions();
+    }
+
+    @Override
+    public Map<String, Long> getSubmissionsByOpcode() {
+        return byOpcode(metrics::submissions);
+    }
+
+    @Override
+    public Map<String, Long> getCompletionsByOpcode() {
+        return byOpcode(metrics::completions);
+    }
+
+    @Override
+    public Map<String, Long> getLatencyP99ByOpcode() {
+        return byOpcode(opcode -> metrics.latency(opcode).percentile(99.0));
+    }
+
+    @Override
+    public Map<String, Long> getLatencyP999ByOpcode() {
+        return byOpcode(opcode -> metrics.latency(opcode).percentile(99.9));
+    }
+
+    private static Map<String, Long> byOpcode(ToLongFunction<Opcode> counter) {
+        var result = new TreeMap<String, Long>();
+
+        for (var opcode : Opcode.values()) {
+            var value = counter.applyAsLong(opcode);
+
+            if (value != 0) {
+                result.put(opcode.name(), value);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public long getLoopIterations() {
+        return metrics.loopIterations();
+    }
+
+    @Override
+    public long getIdleIterations() {
+        return metrics.idleIterations();
+    }
+
+    @Override
+    public long getSubmitBatches() {
+        return metrics.submitBatches();
+    }
+
+    @Override
+    public long getMaxSubmitBatch() {
+        return metrics.maxSubmitBatch();
+    }
+
+    @Override
+    public long getCompletionBatches() {
+        return metrics.completionBatches();
+    }
+
+    @Override
+    public long getMaxCompletionBatch() {
+        return metrics.maxCompletionBatch();
+    }
+
+    @Override
+    public int getBacklog() {
+        return metrics.backlog();
+    }
+
+    @Override
+    public long getInFlight() {
+        return metrics.inFlight();
+    }
+
+    @Override
+    public long getCompletionQueueOverflow() {
+        return metrics.completionQueueOverflow();
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.pragmatica.io.async;
+
+import java.util.Map;
+
+/**
+ * JMX view of the {@link ProactorMetrics}. Counters split per opcode are exposed as maps keyed by opcode name, opcodes which were never used
+ * are omitted.
+ */
+public interface ProactorMetricsMXBean {
+    long getSubmissions();
+
+    long getCompletions();
+
+    Map<String, Long> getSubmissionsByOpcode();
+
+    Map<String, Long> getCompletionsByOpcode();
+
+    /**
+     * 99th percentile of the operation latency in nanoseconds, since the instance was created.
+     */
+    Map<String, Long> getLatencyP99ByOpcode();
+
+    /**
+     * 99.9th percentile of the operation latency in nanoseconds, since the instance was created.
+     */
+    Map<String, Long> getLatencyP999ByOpcode();
+
+    long getLoopIterations();
+
+    long getIdleIterations();
+
+    long getSubmitBatches();
+
+    long getMaxSubmitBatch();
+
+    long getCompletionBatches();
+
+    long getMaxCompletionBatch();
+
+    int getBacklog();
+
+    long getInFlight();
+
+    long getCompletionQueueOverflow();
+}
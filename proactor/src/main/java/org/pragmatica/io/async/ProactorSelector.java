@@ -0,0 +1,74 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.pragmatica.io.async;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Strategy which picks {@link Proactor} instance from the pool for every invocation of {@link Proactor#proactor()}.
+ * <p>
+ * Selection is performed for every single I/O operation issued via pool, so strategy is invoked concurrently from many threads and should
+ * avoid writes to shared memory.
+ */
+@FunctionalInterface
+public interface ProactorSelector {
+    /**
+     * Select pool member.
+     *
+     * @param poolSize Number of {@link Proactor} instances in the pool
+     *
+     * @return index of the selected instance in range {@code [0, poolSize)}
+     */
+    int select(int poolSize);
+
+    /**
+     * Strict round-robin over the shared counter. Provides perfectly even distribution, but all calling threads contend on single cache line,
+     * which limits scalability on hosts with large number of cores.
+     */
+    static ProactorSelector roundRobin() {
+        var counter = new AtomicInteger(0);
+
+        return poolSize -> (counter.getAndIncrement() & Integer.MAX_VALUE) % poolSize;
+    }
+
+    /**
+     * Uniformly random selection. Uses per-thread random number generator state, so there are no shared writes and no per-thread
+     * allocations, which makes it suitable for large number of short-lived virtual threads.
+     */
+    static ProactorSelector random() {
+        return poolSize -> ThreadLocalRandom.current().nextInt(poolSize);
+    }
+
+    /**
+     * Sticky assignment: each calling thread is bound to single instance for its whole lifetime. Instance is chosen once, by the thread
+     * identifier, so there are no shared writes and subsequent operations issued by the same thread go to the same ring. Distribution is
+     * even only when there are many calling threads.
+     */
+    static ProactorSelector sticky() {
+        return poolSize -> mix(Thread.currentThread().threadId()) % poolSize;
+    }
+
+    private static int mix(long value) {
+        // Thread identifiers are sequential, spread them so neighbouring threads don't end up on neighbouring instances only
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+
+        return (int) (value ^ (value >>> 33)) & Integer.MAX_VALUE;
+    }
+}
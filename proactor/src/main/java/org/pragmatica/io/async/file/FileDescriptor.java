@@ -18,8 +18,18 @@ package org.pragmatica.io.async.file;
 
 /**
  * General purpose Linux file descriptor.
+ * <p>
+ * Descriptor can be either regular one or fixed. Fixed descriptor is an index of the slot in the table of files registered within particular
+ * {@link org.pragmatica.io.async.Proactor} instance, so it is meaningful only for operations submitted to that instance. Such a descriptor
+ * carries index of the owning instance in the pool ({@link #ring()}), regular descriptors have {@link #NO_RING} there.
  */
-public record FileDescriptor(int descriptor, DescriptorType type) {
+public record FileDescriptor(int descriptor, DescriptorType type, int ring) {
+    public static final int NO_RING = -1;
+
+    public FileDescriptor(int descriptor, DescriptorType type) {
+        this(descriptor, type, NO_RING);
+    }
+
     public static FileDescriptor file(int fd) {
         return new FileDescriptor(fd, DescriptorType.FILE);
     }
@@ -32,6 +42,22 @@ public record FileDescriptor(int descriptor, DescriptorType type) {
         return new FileDescriptor(fd, DescriptorType.SOCKET6);
     }
 
+    public static FileDescriptor fixedFile(int slot, int ring) {
+        return new FileDescriptor(slot, DescriptorType.FILE, ring);
+    }
+
+    public static FileDescriptor fixedSocket(int slot, int ring) {
+        return new FileDescriptor(slot, DescriptorType.SOCKET, ring);
+    }
+
+    public static FileDescriptor fixedSocket6(int slot, int ring) {
+        return new FileDescriptor(slot, DescriptorType.SOCKET6, ring);
+    }
+
+    public boolean isFixed() {
+        return ring != NO_RING;
+    }
+
     public boolean isSocket() {
         return type != DescriptorType.FILE;
     }
@@ -42,6 +68,8 @@ public record FileDescriptor(int descriptor, DescriptorType type) {
 
     @Override
     public String toString() {
-        return "FileDescriptor(" + descriptor + ", " + type + ")";
+        return isFixed()
+               ? "FileDescriptor(fixed " + descriptor + ", " + type + ", ring " + ring + ")"
+               : "FileDescriptor(" + descriptor + ", " + type + ")";
     }
 }
@@ -16,6 +16,7 @@
 
 package org.pragmatica.io.async.net;
 
+import org.pragmatica.io.async.Proactor;
 import org.pragmatica.io.async.file.FileDescriptor;
 
 /**
@@ -26,6 +27,13 @@ public interface ConnectionContext<T extends InetAddress> {
 
     SocketAddress<T> address();
 
+    /**
+     * Home {@link Proactor} instance of the connection, see {@link Proactor#proactor(FileDescriptor)}.
+     */
+    default Proactor proactor() {
+        return Proactor.proactor(socket());
+    }
+
     static <T extends InetAddress> ConnectionContext<T> connection(int socket, SocketAddress<T> address) {
         return connection(FileDescriptor.socket(socket), address);
     }
@@ -16,6 +16,7 @@
 
 package org.pragmatica.io.async.net;
 
+import org.pragmatica.io.async.Proactor;
 import org.pragmatica.io.async.file.FileDescriptor;
 
 /**
@@ -28,6 +29,13 @@ public interface ListenContext<T extends InetAddress> {
 
     int queueLen();
 
+    /**
+     * Home {@link Proactor} instance of the listening socket, see {@link Proactor#proactor(FileDescriptor)}.
+     */
+    default Proactor proactor() {
+        return Proactor.proactor(socket());
+    }
+
     static <T extends InetAddress> ListenContext<T> listenContext(FileDescriptor socket, SocketAddress<T> address, int queueLen) {
         record listenContext<T extends InetAddress>(FileDescriptor socket, SocketAddress<T> address, int queueLen) implements ListenContext<T> {}
 
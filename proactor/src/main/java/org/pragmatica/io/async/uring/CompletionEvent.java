@@ -0,0 +1,94 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.pragmatica.io.async.uring;
+
+import jdk.jfr.*;
+import org.pragmatica.io.async.uring.exchange.ExchangeEntry;
+import org.pragmatica.io.async.uring.exchange.Opcode;
+
+/**
+ * Flight Recorder event emitted for completed IO operation. Event duration covers execution of the completion callback on the proactor worker
+ * thread, so default threshold selects only callbacks which block the ring. Event is disabled by default, it can be enabled (and threshold can be
+ * changed) in the recording settings.
+ */
+@Name("org.pragmatica.io.Completion")
+@Label("Proactor Completion")
+@Description("Completion of the IO operation, duration covers execution of the completion callback")
+@Category({"Pragmatica", "Proactor"})
+@Enabled(false)
+@StackTrace(false)
+@Threshold("1 ms")
+final class CompletionEvent extends Event {
+    private static final Opcode[] OPCODES = Opcode.values();
+    // Event class configuration is shared by all instances, so single instance is enough to check if event is enabled without allocation
+    private static final CompletionEvent PROBE = new CompletionEvent();
+
+    @Label("Operation")
+    String operation;
+
+    @Label("File Descriptor")
+    int fd;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Result")
+    @Description("Raw operation result, negative values are error codes")
+    int result;
+
+    @Label("Latency")
+    @Description("Time passed between submission of the operation and reaping of its completion")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+
+    static boolean enabled() {
+        return PROBE.isEnabled();
+    }
+
+    /**
+     * Execute completion and record event if it took longer than configured threshold. Entry details are captured before completion, because
+     * entry is cleaned up once operation is finished.
+     */
+    static void complete(ExchangeEntry<?> entry, int res, long latency, Runnable completion) {
+        var opcode = entry.opcode();
+        var descriptor = entry.descriptor();
+        var event = new CompletionEvent();
+
+        event.begin();
+        completion.run();
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.operation = opcode >= 0 && opcode < OPCODES.length ? OPCODES[opcode].name() : Integer.toString(opcode);
+            event.fd = descriptor == null ? -1 : descriptor.descriptor();
+            event.bytes = res > 0 && isTransfer(opcode) ? res : 0;
+            event.result = res;
+            event.latency = latency;
+            event.commit();
+        }
+    }
+
+    private static boolean isTransfer(byte opcode) {
+        return opcode == Opcode.READ.opcode() || opcode == Opcode.WRITE.opcode()
+               || opcode == Opcode.READV.opcode() || opcode == Opcode.WRITEV.opcode()
+               || opcode == Opcode.READ_FIXED.opcode() || opcode == Opcode.WRITE_FIXED.opcode()
+               || opcode == Opcode.SEND.opcode() || opcode == Opcode.RECV.opcode()
+               || opcode == Opcode.SENDMSG.opcode() || opcode == Opcode.RECVMSG.opcode()
+               || opcode == Opcode.SPLICE.opcode();
+    }
+}
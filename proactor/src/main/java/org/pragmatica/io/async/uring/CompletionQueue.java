@@ -0,0 +1,101 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.pragmatica.io.async.uring;
+
+import org.pragmatica.io.async.uring.struct.shape.CompletionQueueEntryOffsets;
+import org.pragmatica.io.async.util.OffHeapSlice;
+import org.pragmatica.io.async.util.raw.RawMemory;
+
+/**
+ * Java side view of the completion queue ring shared with the kernel.
+ * <p>
+ * Entries are read in place and then released back to the kernel by the single store of the ring head. The instance is not thread safe and
+ * must be accessed only by the thread which processes completions.
+ */
+final class CompletionQueue {
+    // Layout of the data exported by the native side, each field is 64-bit wide
+    private static final int HEAD = 0;
+    private static final int TAIL = 1;
+    private static final int RING_MASK = 2;
+    private static final int OVERFLOW = 4;
+    private static final int ENTRIES = 5;
+    private static final int LAYOUT_SIZE = 8 * Long.BYTES;
+
+    private final long headAddress;
+    private final long tailAddress;
+    private final long overflowAddress;
+    private final long entriesAddress;
+    private final int mask;
+    private int head;
+
+    private CompletionQueue(long layout) {
+        this.headAddress = field(layout, HEAD);
+        this.tailAddress = field(layout, TAIL);
+        this.overflowAddress = field(layout, OVERFLOW);
+        this.entriesAddress = field(layout, ENTRIES);
+        this.mask = RawMemory.getInt(field(layout, RING_MASK));
+        this.head = RawMemory.getInt(headAddress);
+    }
+
+    static CompletionQueue completionQueue(long ringAddress) {
+        var layout = OffHeapSlice.fixedSize(LAYOUT_SIZE);
+
+        try {
+            UringNative.cqLayout(ringAddress, layout.address());
+            return new CompletionQueue(layout.address());
+        } finally {
+            layout.close();
+        }
+    }
+
+    private static long field(long layout, int index) {
+        return RawMemory.getLong(layout + (long) index * Long.BYTES);
+    }
+
+    /**
+     * Number of completions posted by the kernel and not yet consumed.
+     */
+    int ready() {
+        return RawMemory.getIntAcquire(tailAddress) - head;
+    }
+
+    /**
+     * Number of completions dropped by the kernel because the ring was full.
+     */
+    int overflow() {
+        return RawMemory.getIntAcquire(overflowAddress);
+    }
+
+    /**
+     * Address of the completion queue entry located at specified distance from the current head.
+     *
+     * @param index distance from head, must be less than {@link #ready()}
+     */
+    long entry(int index) {
+        return entriesAddress + (long) ((head + index) & mask) * CompletionQueueEntryOffsets.SIZE;
+    }
+
+    /**
+     * Release consumed entries back to the kernel.
+     *
+     * @param count number of consumed entries
+     */
+    void advance(int count) {
+        head += count;
+        RawMemory.putIntRelease(headAddress, head);
+    }
+}
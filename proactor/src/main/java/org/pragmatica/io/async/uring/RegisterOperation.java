@@ -45,5 +45,11 @@ public enum RegisterOperation {
     IORING_REGISTER_IOWQ_AFF,           /* set/clear io-wq thread affinities */
     IORING_UNREGISTER_IOWQ_AFF,
     IORING_REGISTER_IOWQ_MAX_WORKERS,   /* set/get max number of io-wq workers */
+    IORING_REGISTER_RING_FDS,           /* register/unregister io_uring fd with the ring */
+    IORING_UNREGISTER_RING_FDS,
+    IORING_REGISTER_PBUF_RING,          /* register ring based provide buffer group */
+    IORING_UNREGISTER_PBUF_RING,
+    IORING_REGISTER_SYNC_CANCEL,        /* sync cancelation API */
+    IORING_REGISTER_FILE_ALLOC_RANGE,   /* register a range of fixed file slots for automatic slot allocation */
     IORING_REGISTER_LAST;               /* this goes last */
 }
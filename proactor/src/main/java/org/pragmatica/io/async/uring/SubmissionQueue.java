@@ -0,0 +1,140 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.pragmatica.io.async.uring;
+
+import org.pragmatica.io.async.uring.struct.shape.SubmitQueueEntryOffsets;
+import org.pragmatica.io.async.util.OffHeapSlice;
+import org.pragmatica.io.async.util.raw.RawMemory;
+
+/**
+ * Java side view of the submission queue ring shared with the kernel.
+ * <p>
+ * Entries are filled in place and then published by the single store of the ring tail. The instance is not thread safe and must be accessed
+ * only by the thread which processes submissions.
+ */
+final class SubmissionQueue {
+    // Values of the ring flags field
+    static final int NEED_WAKEUP = 1;
+    static final int CQ_OVERFLOW = 1 << 1;
+    static final int TASKRUN = 1 << 2;
+
+    // Layout of the data exported by the native side, each field is 64-bit wide
+    private static final int HEAD = 0;
+    private static final int TAIL = 1;
+    private static final int RING_MASK = 2;
+    private static final int RING_ENTRIES = 3;
+    private static final int FLAGS = 4;
+    private static final int ARRAY = 5;
+    private static final int ENTRIES = 6;
+    private static final int LAYOUT_SIZE = 8 * Long.BYTES;
+
+    private final long headAddress;
+    private final long tailAddress;
+    private final long flagsAddress;
+    private final long entriesAddress;
+    private final int mask;
+    private final int capacity;
+    private int tail;
+
+    private SubmissionQueue(long layout) {
+        this.headAddress = field(layout, HEAD);
+        this.tailAddress = field(layout, TAIL);
+        this.flagsAddress = field(layout, FLAGS);
+        this.entriesAddress = field(layout, ENTRIES);
+        this.mask = RawMemory.getInt(field(layout, RING_MASK));
+        this.capacity = RawMemory.getInt(field(layout, RING_ENTRIES));
+        this.tail = RawMemory.getInt(tailAddress);
+
+        // Use identity mapping between ring slots and entries, so array does not need updates during submission
+        var array = field(layout, ARRAY);
+
+        for (int i = 0; i < capacity; i++) {
+            RawMemory.putInt(array + (long) i * Integer.BYTES, i);
+        }
+    }
+
+    static SubmissionQueue submissionQueue(long ringAddress) {
+        var layout = OffHeapSlice.fixedSize(LAYOUT_SIZE);
+
+        try {
+            UringNative.sqLayout(ringAddress, layout.address());
+            return new SubmissionQueue(layout.address());
+        } finally {
+            layout.close();
+        }
+    }
+
+    private static long field(long layout, int index) {
+        return RawMemory.getLong(layout + (long) index * Long.BYTES);
+    }
+
+    /**
+     * Total number of slots in the ring.
+     */
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Number of free slots in the ring.
+     */
+    int available() {
+        return capacity - pending();
+    }
+
+    /**
+     * Number of entries published, but not yet consumed by the kernel.
+     */
+    int pending() {
+        return tail - RawMemory.getIntAcquire(headAddress);
+    }
+
+    /**
+     * Ring flags set by the kernel, see {@link #NEED_WAKEUP}, {@link #CQ_OVERFLOW} and {@link #TASKRUN}.
+     */
+    int flags() {
+        return RawMemory.getIntAcquire(flagsAddress);
+    }
+
+    /**
+     * Check if kernel polling thread went to sleep and needs to be woken up to see new entries. Must be invoked after {@link #publish()}.
+     */
+    boolean needsWakeup() {
+        // Tail store must be visible to the polling thread before we check if it is sleeping, otherwise wakeup might be lost
+        RawMemory.fullFence();
+        return (flags() & NEED_WAKEUP) != 0;
+    }
+
+    /**
+     * Reserve next slot in the ring. Caller must ensure that there are free slots available.
+     *
+     * @return address of the reserved submission queue entry
+     */
+    long nextEntry() {
+        return entriesAddress + (long) (tail++ & mask) * SubmitQueueEntryOffsets.SIZE;
+    }
+
+    /**
+     * Make reserved entries visible to the kernel.
+     *
+     * @return number of entries awaiting submission
+     */
+    int publish() {
+        RawMemory.putIntRelease(tailAddress, tail);
+        return pending();
+    }
+}
@@ -24,33 +24,62 @@ import org.pragmatica.io.async.file.FileDescriptor;
 import org.pragmatica.io.async.net.*;
 import org.pragmatica.io.async.uring.exchange.ExchangeEntry;
 import org.pragmatica.io.async.uring.exchange.ExchangeEntryPool;
+import org.pragmatica.io.async.uring.exchange.Opcode;
+import org.pragmatica.io.async.uring.struct.offheap.OffHeapBufferRingRegister;
 import org.pragmatica.io.async.uring.struct.offheap.OffHeapIoVector;
+import org.pragmatica.io.async.uring.struct.offheap.OffHeapResourceRegister;
+import org.pragmatica.io.async.uring.struct.offheap.OffHeapResourceUpdate;
 import org.pragmatica.io.async.uring.struct.offheap.OffHeapSocketAddress;
+import org.pragmatica.io.async.uring.struct.offheap.OffHeapUringParams;
 import org.pragmatica.io.async.uring.struct.raw.CQEntry;
+import org.pragmatica.io.async.uring.struct.raw.CQEntryFlags;
 import org.pragmatica.io.async.uring.struct.raw.SQEntry;
-import org.pragmatica.io.async.uring.struct.shape.CompletionQueueEntryOffsets;
-import org.pragmatica.io.async.uring.struct.shape.SubmitQueueEntryOffsets;
 import org.pragmatica.io.async.util.OffHeapSlice;
 import org.pragmatica.lang.Result;
 import org.pragmatica.lang.Unit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.EnumSet;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Low-level IO URING API
  */
 public class UringApi {
+    private static final Logger LOG = LoggerFactory.getLogger(UringApi.class);
     public static final int MIN_QUEUE_SIZE = 128;
+    public static final int MAX_BACKLOG = MIN_QUEUE_SIZE * MIN_QUEUE_SIZE;
+    // Reserved user data values for the internal wakeup read and linked timeouts. Lower 32 bits of the user data of regular entries contain
+    // non-negative key, so they never match reserved values.
+    private static final long WAKEUP_KEY = -1L;
+    public static final long LINK_TIMEOUT_KEY = -2L;
+
     private final OffHeapSlice ringBuffer;
-    private final OffHeapSlice completionEntriesBuffer;
-    private final OffHeapSlice submissionEntriesBuffer;
     private final CQEntry cqEntry;
     private final SQEntry sqEntry;
     private final int entriesCount;
     private final ExchangeEntryPool pool;
-    private final Queue<ExchangeEntry<?>> queue = new MpscArrayQueue<>(MIN_QUEUE_SIZE * MIN_QUEUE_SIZE);
+    private SubmissionQueue submissionQueue;
+    private CompletionQueue completionQueue;
+    private Set<UringSetupFlags> setupFlags = UringSetupFlags.defaultFlags();
+    private Set<UringFeature> features = EnumSet.noneOf(UringFeature.class);
+    private int enterFlags = 0;
+    private int taskRunFlags = 0;
+    private boolean sqPolling = false;
+    private int fileTableSize = 0;
+    private final Queue<ExchangeEntry<?>> queue = new MpscArrayQueue<>(MAX_BACKLOG);
+    private final OffHeapSlice wakeupBuffer = OffHeapSlice.fixedSize(Long.BYTES);
+    private final AtomicBoolean parked = new AtomicBoolean(false);
+    private final UringMetrics metrics = UringMetrics.uringMetrics(this::backlog);
+    private int wakeupFd = -1;
+    private boolean wakeupArmed = false;
+    private boolean waitSupported = true;
     private boolean closed = false;
+    private Runnable submissionBarrier = () -> {};
+    private int enterError = 0;
 
     private UringApi(int numEntries, ExchangeEntryPool pool) {
         this.pool = pool;
@@ -58,15 +87,17 @@ public class UringApi {
                             MIN_QUEUE_SIZE : 1 << (32 - Integer.numberOfLeadingZeros(numEntries - 1));
 
         this.ringBuffer = OffHeapSlice.fixedSize(UringNative.SIZE);
-        this.submissionEntriesBuffer = OffHeapSlice.fixedSize(entriesCount * SubmitQueueEntryOffsets.SIZE);
-        this.completionEntriesBuffer = OffHeapSlice.fixedSize(entriesCount * 2 * CompletionQueueEntryOffsets.SIZE);
         this.cqEntry = CQEntry.at(0);
         this.sqEntry = SQEntry.at(0);
     }
 
     public static Result<UringApi> uringApi(int requestedEntries, Set<UringSetupFlags> openFlags, ExchangeEntryPool pool) {
+        return uringApi(requestedEntries, UringSetup.uringSetup(openFlags), pool);
+    }
+
+    public static Result<UringApi> uringApi(int requestedEntries, UringSetup setup, ExchangeEntryPool pool) {
         var uringApi = new UringApi(requestedEntries, pool);
-        var rc = uringApi.init(openFlags);
+        var rc = uringApi.init(setup);
 
         if (rc != 0) {
             uringApi.shutdown();
@@ -77,8 +108,135 @@ public class UringApi {
         return Result.success(uringApi);
     }
 
-    private int init(Set<UringSetupFlags> openFlags) {
-        return UringNative.init(entriesCount, ringBuffer.address(), Bitmask.combine(openFlags));
+    private int init(UringSetup setup) {
+        var flags = EnumSet.noneOf(UringSetupFlags.class);
+        flags.addAll(setup.flags());
+
+        // Single issuer ring is bound to the first thread which submits entries, so it is enabled later by the worker thread, see attach()
+        if (flags.contains(UringSetupFlags.SINGLE_ISSUER)) {
+            flags.add(UringSetupFlags.R_DISABLED);
+        }
+
+        // There is nothing to attach to, this ring will be the one which others attach to
+        if (setup.attachFd() < 0) {
+            flags.remove(UringSetupFlags.ATTACH_WQ);
+        }
+
+        var params = OffHeapUringParams.withFlags(Bitmask.combine(flags))
+                                       .sqThreadCpu(setup.sqThreadCpu())
+                                       .sqThreadIdle((int) setup.sqThreadIdle().milliseconds())
+                                       .wqFd(setup.attachFd());
+        int rc;
+
+        try {
+            rc = UringNative.init(entriesCount, ringBuffer.address(), params.address());
+            features = UringFeature.fromMask(params.features());
+        } finally {
+            params.close();
+        }
+
+        if (rc == -SystemError.EINVAL.code()) {
+            // Older kernel which does not support some flags, try with reduced set
+            return UringSetupFlags.fallback(setup.flags())
+                                  .map(reduced -> init(setup.withFlags(reduced)))
+                                  .or(rc);
+        }
+
+        if (rc != 0) {
+            return rc;
+        }
+
+        setupFlags = flags;
+        sqPolling = flags.contains(UringSetupFlags.SQ_POLL);
+        taskRunFlags = flags.contains(UringSetupFlags.TASKRUN_FLAG) ? UringEnterFlags.GET_EVENTS.mask() : 0;
+        waitSupported = features.contains(UringFeature.EXT_ARG);
+        submissionQueue = SubmissionQueue.submissionQueue(ringBuffer.address());
+        completionQueue = CompletionQueue.completionQueue(ringBuffer.address());
+        fileTableSize = registerFileTable(setup.fileTableSize());
+        wakeupFd = UringNative.eventFdOpen();
+
+        return wakeupFd < 0 ? wakeupFd : 0;
+    }
+
+    private int registerFileTable(int size) {
+        if (size <= 0) {
+            return 0;
+        }
+
+        var rc = UringNative.registerFilesSparse(ringBuffer.address(), size);
+
+        if (rc < 0) {
+            // Ring remains usable, only direct descriptors are not available
+            LOG.debug("Unable to register file table of {} entries: {}", size, SystemError.fromCode(rc).message());
+            return 0;
+        }
+
+        return size;
+    }
+
+    /**
+     * Number of slots in the registered file table. Zero means that table is not available and operations which create fixed descriptors will
+     * fail.
+     */
+    public int fileTableSize() {
+        return fileTableSize;
+    }
+
+    /**
+     * Ring file descriptor. Can be used to share backend with other rings, see {@link UringSetup#attachTo(int)}.
+     */
+    public int ringFd() {
+        return UringNative.ringFd(ringBuffer.address());
+    }
+
+    /**
+     * Setup flags actually used for the ring. They may differ from requested ones if running kernel does not support some of them.
+     */
+    public Set<UringSetupFlags> setupFlags() {
+        return setupFlags;
+    }
+
+    /**
+     * Features supported by the running kernel.
+     */
+    public Set<UringFeature> features() {
+        return features;
+    }
+
+    /**
+     * Bind ring to the calling thread. Must be invoked by the thread which processes submissions and completions before processing starts.
+     * <p>
+     * Single issuer ring is enabled here, so calling thread becomes its only submitter. Ring file descriptor is registered for the calling
+     * thread, if kernel supports it, so subsequent {@code io_uring_enter} calls don't need to look up file descriptor.
+     * Exchange entry pool is bound to the calling thread as well.
+     */
+    public Result<Unit> attach() {
+        pool.attach();
+
+        if (setupFlags.contains(UringSetupFlags.R_DISABLED)) {
+            var rc = register(RegisterOperation.IORING_REGISTER_ENABLE_RINGS, 0L, 0L);
+
+            if (rc < 0) {
+                return SystemError.result(rc);
+            }
+        }
+
+        // Registration is an optimization, so failure (for example, on older kernel) is silently ignored
+        if (UringNative.registerRingFd(ringBuffer.address()) >= 0) {
+            enterFlags = UringEnterFlags.REGISTERED_RING.mask();
+        }
+
+        return Unit.unitResult();
+    }
+
+    /**
+     * Release resources bound to the calling thread by {@link #attach()}. Must be invoked by the same thread.
+     */
+    public void detach() {
+        if (enterFlags != 0) {
+            UringNative.unregisterRingFd(ringBuffer.address());
+            enterFlags = 0;
+        }
     }
 
     public int register(RegisterOperation op, long arg1, long arg2) {
@@ -100,8 +258,70 @@ public class UringApi {
         }
     }
 
+    /**
+     * Register empty (sparse) table of fixed buffers. Slots can be populated later with {@link #updateBuffers(int, OffHeapSlice...)}.
+     *
+     * @param size Number of slots in the table
+     */
+    public Result<Unit> registerBufferTable(int size) {
+        var registration = OffHeapResourceRegister.sparse(size);
+        try {
+            int rc = register(RegisterOperation.IORING_REGISTER_BUFFERS2, registration.address(), registration.size());
+
+            return rc < 0
+                   ? SystemError.result(rc)
+                   : Unit.unitResult();
+        } finally {
+            registration.close();
+        }
+    }
+
+    /**
+     * Replace content of the consecutive slots of the fixed buffer table, starting at {@code start}.
+     * <p>
+     * Note that for rings set up with {@link UringSetupFlags#SINGLE_ISSUER} this method can be invoked only before {@link #attach()} or by the
+     * thread which attached ring.
+     */
+    public Result<OffHeapSlice[]> updateBuffers(int start, OffHeapSlice... buffers) {
+        var vector = OffHeapIoVector.withReadBuffers(buffers);
+        var update = OffHeapResourceUpdate.update(start, vector.address(), vector.length());
+        try {
+            int rc = register(RegisterOperation.IORING_REGISTER_BUFFERS_UPDATE, update.address(), update.size());
+
+            if (rc < 0) {
+                return SystemError.result(rc);
+            }
+
+            return Result.success(buffers);
+        } finally {
+            update.close();
+            vector.close();
+        }
+    }
+
+    /**
+     * Register ring of provided buffers. Operations submitted with {@link org.pragmatica.io.async.uring.struct.raw.SQEntryFlags#BUFFER_SELECT}
+     * and matching group ID get their buffers from this ring.
+     *
+     * @param address Page aligned address of the ring
+     * @param entries Number of ring entries, must be power of two
+     * @param groupId Buffer group ID
+     */
+    public Result<Unit> registerBufferRing(long address, int entries, short groupId) {
+        var registration = OffHeapBufferRingRegister.bufferRing(address, entries, groupId);
+        try {
+            int rc = register(RegisterOperation.IORING_REGISTER_PBUF_RING, registration.address(), 1);
+
+            return rc < 0
+                   ? SystemError.result(rc)
+                   : Unit.unitResult();
+        } finally {
+            registration.close();
+        }
+    }
+
     public Result<Unit> unregisterBuffers() {
-        int rc = register(RegisterOperation.IORING_REGISTER_BUFFERS, 0L, 0L);
+        int rc = register(RegisterOperation.IORING_UNREGISTER_BUFFERS, 0L, 0L);
 
         return rc < 0
                ? SystemError.result(rc)
@@ -114,62 +334,272 @@ public class UringApi {
         }
 
         UringNative.exit(ringBuffer.address());
-        submissionEntriesBuffer.close();
-        completionEntriesBuffer.close();
+
+        if (wakeupFd >= 0) {
+            UringNative.eventFdClose(wakeupFd);
+        }
+
+        wakeupBuffer.close();
         ringBuffer.close();
         pool.clear();
         closed = true;
     }
 
     public int processCompletions(Proactor proactor) {
-        long ready = UringNative.copyCQES(ringBuffer.address(), completionEntriesBuffer.address(), completionEntriesBuffer.size() / CompletionQueueEntryOffsets.SIZE);
-
-        for (long i = 0, address = completionEntriesBuffer.address(); i < ready; i++, address += CompletionQueueEntryOffsets.SIZE) {
-            cqEntry.reposition(address);
+        int ready = completionQueue.ready();
+        // Single timestamp is shared by the whole batch of completions
+        long now = ready > 0 ? System.nanoTime() : 0L;
+        // Checked once per batch, so disabled event costs nothing per completion
+        boolean traced = ready > 0 && CompletionEvent.enabled();
+
+        for (int i = 0; i < ready; i++) {
+            cqEntry.reposition(completionQueue.entry(i));
             long key = cqEntry.userData();
+
+            if (key == WAKEUP_KEY) {
+                wakeupArmed = false;
+                continue;
+            }
+
+            if (key == LINK_TIMEOUT_KEY) {
+                // Operation itself reports timeout expiration
+                metrics.completed(Opcode.LINK_TIMEOUT.opcode());
+                continue;
+            }
+
             int res = cqEntry.res();
             int flags = cqEntry.flags();
-            pool.completeRequest(key, res, flags, proactor);
+            var entry = pool.lookup((int) key);
+
+            metrics.completed(entry.opcode());
+
+            if (!entry.isMultishot()) {
+                metrics.latency(entry.opcode(), now - entry.startNanos());
+            }
+
+            if (!CQEntryFlags.MORE.isSet(flags)) {
+                metrics.finished();
+            }
+
+            // Head is advanced only after the whole batch, so failing callback must not interrupt processing of the remaining entries
+            try {
+                if (traced) {
+                    CompletionEvent.complete(entry, res, now - entry.startNanos(), () -> pool.completeRequest(key, res, flags, proactor));
+                } else {
+                    pool.completeRequest(key, res, flags, proactor);
+                }
+            } catch (Throwable e) {
+                LOG.warn("Completion callback failed: ", e);
+            }
         }
-        return (int) ready;
+
+        if (ready > 0) {
+            completionQueue.advance(ready);
+            pool.flush();
+        }
+
+        metrics.completionBatch(ready, completionQueue.overflow());
+
+        return ready;
     }
 
     public int processSubmissions() {
-        var address = submissionEntriesBuffer.address();
+        var available = submissionQueue.available();
         int filled = 0;
 
+        if (!wakeupArmed && available > 0) {
+            sqEntry.reposition(submissionQueue.nextEntry());
+            fillWakeup(sqEntry);
+
+            filled++;
+            wakeupArmed = true;
+        }
+
+        // Internal wakeup entry (if any) is not included into metrics
+        int internal = filled;
+        int submitted = 0;
+        long now = 0L;
+
         while (true) {
-            var entry = queue.poll();
+            var entry = queue.peek();
 
-            if (entry == null) {
+            // Entries appended to the head (with their timeouts, if any) must land into the same submission
+            if (entry == null || available - filled < entry.slots()) {
                 break;
             }
 
-            if (filled > (entriesCount - 2)) { // entry may have timeout, so we need to ensure at least 2 empty slots
-                break;
+            queue.poll();
+
+            // Entry is published only after resources it uses are allocated, so barrier observes them
+            submissionBarrier.run();
+
+            if (submitted == 0) {
+                // Single timestamp is shared by the whole batch of submissions
+                now = System.nanoTime();
             }
 
-            sqEntry.reposition(address);
-            entry.fill(sqEntry);
+            for (; entry != null; entry = entry.next()) {
+                sqEntry.reposition(submissionQueue.nextEntry());
+                entry.startNanos(now)
+                     .fill(sqEntry);
+                metrics.submitted(entry.opcode());
+                filled++;
+                submitted++;
+
+                if (entry.hasTimeout()) {
+                    sqEntry.reposition(submissionQueue.nextEntry());
+                    entry.fillTimeout(sqEntry);
+                    metrics.submitted(Opcode.LINK_TIMEOUT.opcode());
+                    filled++;
+                }
+            }
+        }
 
-            address += SubmitQueueEntryOffsets.SIZE;
-            filled++;
+        metrics.started(submitted);
+        metrics.submitBatch(filled - internal);
 
-            if (entry.hasTimeout()) {
-                sqEntry.reposition(address);
-                entry.fillTimeout(sqEntry);
+        // Entries left unconsumed by the previous call (if any) are submitted as well
+        var pending = submissionQueue.publish();
+        var flags = enterFlags;
 
-                address += SubmitQueueEntryOffsets.SIZE;
-                filled++;
+        if (sqPolling) {
+            // Entries are picked up by the kernel polling thread, we need to enter kernel only if that thread went to sleep
+            if (pending > 0 && submissionQueue.needsWakeup()) {
+                flags |= UringEnterFlags.SQ_WAKEUP.mask();
             }
+        } else if ((submissionQueue.flags() & SubmissionQueue.TASKRUN) != 0) {
+            // Task work is not run until we enter kernel, so completions may be delayed if we don't do it.
+            flags |= taskRunFlags;
+        }
+
+        if ((submissionQueue.flags() & SubmissionQueue.CQ_OVERFLOW) != 0) {
+            // Completions which did not fit into completion queue are moved back to it only when kernel is entered to get events
+            flags |= UringEnterFlags.GET_EVENTS.mask();
+        }
+
+        if ((pending > 0 && !sqPolling) || flags != enterFlags) {
+            checkEnter(UringNative.enter(ringBuffer.address(), pending, 0, flags));
         }
 
-        UringNative.submit(ringBuffer.address(), submissionEntriesBuffer.address(), filled, SubmissionFlags.IMMEDIATE.mask());
         return filled;
     }
 
-    public void submit(ExchangeEntry<?> entry) {
-        queue.offer(entry);
+    // Entries not accepted by the kernel remain published in the submission queue and are passed to the kernel again by the next iteration,
+    // after completions are processed. Transient failures are expected, others are reported once until submission succeeds again.
+    private void checkEnter(int rc) {
+        if (rc >= 0) {
+            enterError = 0;
+            return;
+        }
+
+        if (rc == enterError) {
+            return;
+        }
+
+        enterError = rc;
+
+        var error = SystemError.fromCode(rc);
+
+        switch (error) {
+            case EINTR, EAGAIN, EBUSY -> LOG.debug("Submission is postponed: {}", error.message());
+            default -> LOG.error("Unable to submit entries, {} entries are pending: {}", submissionQueue.pending(), error.message());
+        }
+    }
+
+    private void fillWakeup(SQEntry entry) {
+        entry.clear()
+             .userData(WAKEUP_KEY)
+             .opcode(Opcode.READ)
+             .fd(wakeupFd)
+             .addr(wakeupBuffer.address())
+             .len(wakeupBuffer.size())
+             .off(0L);
+    }
+
+    /**
+     * Maximal number of submission queue entries which can be submitted at once. One slot is reserved for internal use.
+     */
+    public int maxGroupSize() {
+        return submissionQueue.capacity() - 1;
+    }
+
+    /**
+     * Pass entry (along with entries appended to it) to the worker thread for submission.
+     *
+     * @return {@code true} if entry is accepted and {@code false} if backlog is full. In latter case entry remains owned by the caller.
+     */
+    public boolean submit(ExchangeEntry<?> entry) {
+        if (!queue.offer(entry)) {
+            return false;
+        }
+
+        // Offer performs CAS on the producer index, so this read can't be reordered with the insertion.
+        if (parked.get() && parked.compareAndSet(true, false)) {
+            wakeup();
+        }
+
+        return true;
+    }
+
+    /**
+     * Number of entries waiting for submission.
+     */
+    public int backlog() {
+        return queue.size();
+    }
+
+    /**
+     * Set action which is invoked by the worker thread for each operation (or group of linked operations) taken from the backlog before it is
+     * passed to the kernel. Action can prepare resources used by the operation, for example, register fixed buffers allocated after ring
+     * setup (see {@link org.pragmatica.io.async.util.allocator.ChunkedAllocator.Registration#sync()}). Must be invoked before ring is
+     * attached to the worker thread.
+     */
+    public UringApi submissionBarrier(Runnable action) {
+        this.submissionBarrier = action;
+        return this;
+    }
+
+    /**
+     * Metrics of the ring. Counters are updated by the thread which processes submissions and completions.
+     */
+    public UringMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * Wake up worker thread blocked in {@link #waitForCompletions(long)}.
+     */
+    public void wakeup() {
+        UringNative.eventFdSignal(wakeupFd);
+    }
+
+    /**
+     * Block calling thread until at least one completion is available or timeout expires. Method returns immediately if there are pending
+     * submissions. Must be called only from the thread which processes submissions and completions.
+     *
+     * @param timeoutNanos Maximal wait time in nanoseconds.
+     */
+    public void waitForCompletions(long timeoutNanos) {
+        if (!waitSupported || !wakeupArmed) {
+            Thread.yield();
+            return;
+        }
+
+        parked.set(true);
+
+        // Entries postponed by the failed submission must be retried rather than waited for
+        if (!queue.isEmpty() || (!sqPolling && submissionQueue.pending() > 0)) {
+            parked.set(false);
+            return;
+        }
+
+        var rc = UringNative.waitForCompletions(ringBuffer.address(), enterFlags, timeoutNanos);
+        parked.set(false);
+
+        if (rc == -SystemError.EINVAL.code()) {
+            // Kernel does not support extended arguments, fall back to polling
+            waitSupported = false;
+        }
     }
 
     public static Result<FileDescriptor> socket(AddressFamily af, SocketType type, Set<SocketFlag> flags, Set<SocketOption> options) {
@@ -186,6 +616,20 @@ public class UringApi {
             .map(fd -> ListenContext.listenContext(fd, address, len));
     }
 
+    /**
+     * Retrieve address of the peer connected to the socket. Provided structure is used as a storage for the address, its protocol version
+     * must match protocol version of the socket.
+     */
+    public static <T extends InetAddress> Result<SocketAddress<T>> peerName(int socket, OffHeapSocketAddress address) {
+        address.reset();
+
+        var rc = UringNative.peerName(socket, address.sockAddrPtr(), address.sizePtr());
+
+        return rc < 0
+               ? SystemError.result(rc)
+               : address.extract();
+    }
+
     private static <T extends InetAddress> Result<FileDescriptor> configureForListen(FileDescriptor fd, SocketAddress<T> address, int queueLen) {
         if (!fd.isSocket()) {
             return SystemError.ENOTSOCK.result();
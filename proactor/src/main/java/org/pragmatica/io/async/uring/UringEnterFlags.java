@@ -17,15 +17,15 @@
 
 package org.pragmatica.io.async.uring;
 
-//TODO: fix this
 /**
- * Flags for {@link UringApi#enter(int, long, long, int)} method.
+ * Flags for {@link UringNative#enter(long, int, int, int)} method.
  */
 public enum UringEnterFlags implements Bitmask {
     GET_EVENTS(1),
     SQ_WAKEUP(1 << 1),
     SQ_WAIT(1 << 2),
-    EXT_ARG(1 << 3);
+    EXT_ARG(1 << 3),
+    REGISTERED_RING(1 << 4);
 
     private final int mask;
 
@@ -0,0 +1,62 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.pragmatica.io.async.uring;
+
+import java.util.EnumSet;
+
+/**
+ * Features reported by the kernel during ring setup.
+ */
+public enum UringFeature implements Bitmask {
+    SINGLE_MMAP(1),
+    NODROP(1 << 1),
+    SUBMIT_STABLE(1 << 2),
+    RW_CUR_POS(1 << 3),
+    CUR_PERSONALITY(1 << 4),
+    FAST_POLL(1 << 5),
+    POLL_32BITS(1 << 6),
+    SQPOLL_NONFIXED(1 << 7),
+    EXT_ARG(1 << 8),
+    NATIVE_WORKERS(1 << 9),
+    RSRC_TAGS(1 << 10),
+    CQE_SKIP(1 << 11),
+    LINKED_FILE(1 << 12),
+    REG_REG_RING(1 << 13);
+
+    private final int mask;
+
+    UringFeature(final int mask) {
+        this.mask = mask;
+    }
+
+    @Override
+    public int mask() {
+        return mask;
+    }
+
+    public static EnumSet<UringFeature> fromMask(int mask) {
+        var result = EnumSet.noneOf(UringFeature.class);
+
+        for (var feature : values()) {
+            if ((mask & feature.mask) != 0) {
+                result.add(feature);
+            }
+        }
+
+        return result;
+    }
+}
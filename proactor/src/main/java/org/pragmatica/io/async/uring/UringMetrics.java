@@ -0,0 +1,236 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.pragmatica.io.async.uring;
+
+import org.pragmatica.io.async.LatencyHistogram;
+import org.pragmatica.io.async.ProactorMetrics;
+import org.pragmatica.io.async.uring.exchange.Opcode;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.IntSupplier;
+
+/**
+ * Metrics of the single ring. All counters are written only by the thread which processes submissions and completions, so updates are plain
+ * increments published with opaque stores, without atomic instructions or allocation (except one-time allocation of the latency histogram on
+ * first completion of the particular opcode).
+ */
+public final class UringMetrics implements ProactorMetrics {
+    private static final VarHandle COUNTERS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle HISTOGRAMS = MethodHandles.arrayElementVarHandle(long[][].class);
+    private static final Opcode[] OPCODES = Opcode.values();
+
+    // Layout of the counters array: submissions per opcode, completions per opcode, then scalar counters
+    private static final int SUBMISSIONS = 0;
+    private static final int COMPLETIONS = SUBMISSIONS + OPCODES.length;
+    private static final int LOOP_ITERATIONS = COMPLETIONS + OPCODES.length;
+    private static final int IDLE_ITERATIONS = LOOP_ITERATIONS + 1;
+    private static final int SUBMIT_BATCHES = IDLE_ITERATIONS + 1;
+    private static final int MAX_SUBMIT_BATCH = SUBMIT_BATCHES + 1;
+    private static final int COMPLETION_BATCHES = MAX_SUBMIT_BATCH + 1;
+    private static final int MAX_COMPLETION_BATCH = COMPLETION_BATCHES + 1;
+    private static final int IN_FLIGHT = MAX_COMPLETION_BATCH + 1;
+    private static final int CQ_OVERFLOW = IN_FLIGHT + 1;
+    private static final int SIZE = CQ_OVERFLOW + 1;
+
+    private final long[] counters = new long[SIZE];
+    // Latency histograms are allocated on first use of the opcode, most rings use only few opcodes
+    private final long[][] histograms = new long[OPCODES.length][];
+    private final IntSupplier backlog;
+
+    private UringMetrics(IntSupplier backlog) {
+        this.backlog = backlog;
+    }
+
+    static UringMetrics uringMetrics(IntSupplier backlog) {
+        return new UringMetrics(backlog);
+    }
+
+    // Single writer updates
+    private void add(int index, long delta) {
+        COUNTERS.setOpaque(counters, index, counters[index] + delta);
+    }
+
+    private void max(int index, long value) {
+        if (value > counters[index]) {
+            COUNTERS.setOpaque(counters, index, value);
+        }
+    }
+
+    private void set(int index, long value) {
+        COUNTERS.setOpaque(counters, index, value);
+    }
+
+    private long get(int index) {
+        return (long) COUNTERS.getOpaque(counters, index);
+    }
+
+    void submitted(byte opcode) {
+        add(SUBMISSIONS + opcode, 1);
+    }
+
+    void completed(byte opcode) {
+        add(COMPLETIONS + opcode, 1);
+    }
+
+    void latency(byte opcode, long nanos) {
+        var histogram = histograms[opcode];
+
+        if (histogram == null) {
+            histogram = new long[LatencyHistogram.SIZE];
+            HISTOGRAMS.setRelease(histograms, (int) opcode, histogram);
+        }
+
+        var index = LatencyHistogram.index(nanos);
+
+        COUNTERS.setOpaque(histogram, index, histogram[index] + 1);
+    }
+
+    void started(int count) {
+        if (count > 0) {
+            add(IN_FLIGHT, count);
+        }
+    }
+
+    void finished() {
+        add(IN_FLIGHT, -1);
+    }
+
+    void submitBatch(int size) {
+        if (size > 0) {
+            add(SUBMIT_BATCHES, 1);
+            max(MAX_SUBMIT_BATCH, size);
+        }
+    }
+
+    void completionBatch(int size, int overflow) {
+        if (size > 0) {
+            add(COMPLETION_BATCHES, 1);
+            max(MAX_COMPLETION_BATCH, size);
+        }
+
+        if (overflow != counters[CQ_OVERFLOW]) {
+            set(CQ_OVERFLOW, overflow);
+        }
+    }
+
+    /**
+     * Record single iteration of the worker thread loop.
+     *
+     * @param workCount Number of submissions and completions processed during iteration
+     */
+    public void iteration(int workCount) {
+        add(LOOP_ITERATIONS, 1);
+
+        if (workCount == 0) {
+            add(IDLE_ITERATIONS, 1);
+        }
+    }
+
+    @Override
+    public long submissions(Opcode opcode) {
+        return get(SUBMISSIONS + opcode.opcode());
+    }
+
+    @Override
+    public long completions(Opcode opcode) {
+        return get(COMPLETIONS + opcode.opcode());
+    }
+
+    @Override
+    public LatencyHistogram latency(Opcode opcode) {
+        var histogram = (long[]) HISTOGRAMS.getAcquire(histograms, (int) opcode.opcode());
+
+        if (histogram == null) {
+            return LatencyHistogram.empty();
+        }
+
+        var counts = new long[LatencyHistogram.SIZE];
+
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = (long) COUNTERS.getOpaque(histogram, i);
+        }
+
+        return LatencyHistogram.latencyHistogram(counts);
+    }
+
+    @Override
+    public long submissions() {
+        return sum(SUBMISSIONS);
+    }
+
+    @Override
+    public long completions() {
+        return sum(COMPLETIONS);
+    }
+
+    private long sum(int base) {
+        long total = 0;
+
+        for (int i = 0; i < OPCODES.length; i++) {
+            total += get(base + i);
+        }
+
+        return total;
+    }
+
+    @Override
+    public long loopIterations() {
+        return get(LOOP_ITERATIONS);
+    }
+
+    @Override
+    public long idleIterations() {
+        return get(IDLE_ITERATIONS);
+    }
+
+    @Override
+    public long submitBatches() {
+        return get(SUBMIT_BATCHES);
+    }
+
+    @Override
+    public long maxSubmitBatch() {
+        return get(MAX_SUBMIT_BATCH);
+    }
+
+    @Override
+    public long completionBatches() {
+        return get(COMPLETION_BATCHES);
+    }
+
+    @Override
+    public long maxCompletionBatch() {
+        return get(MAX_COMPLETION_BATCH);
+    }
+
+    @Override
+    public int backlog() {
+        return backlog.getAsInt();
+    }
+
+    @Override
+    public long inFlight() {
+        return get(IN_FLIGHT);
+    }
+
+    @Override
+    public long completionQueueOverflow() {
+        return get(CQ_OVERFLOW);
+    }
+}
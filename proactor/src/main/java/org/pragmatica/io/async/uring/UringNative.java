@@ -41,11 +41,21 @@ final class UringNative {
 
     private static MethodHandle initHandle;
     private static MethodHandle exitHandle;
-    private static MethodHandle copyCQESHandle;
-    private static MethodHandle submitHandle;
+    private static MethodHandle ringFdHandle;
+    private static MethodHandle registerRingFdHandle;
+    private static MethodHandle unregisterRingFdHandle;
+    private static MethodHandle sqLayoutHandle;
+    private static MethodHandle cqLayoutHandle;
+    private static MethodHandle enterHandle;
     private static MethodHandle registerHandle;
+    private static MethodHandle registerFilesSparseHandle;
+    private static MethodHandle waitHandle;
+    private static MethodHandle eventFdOpenHandle;
+    private static MethodHandle eventFdSignalHandle;
+    private static MethodHandle eventFdCloseHandle;
     private static MethodHandle socketHandle;
     private static MethodHandle listenHandle;
+    private static MethodHandle peerNameHandle;
 
     static {
         try {
@@ -53,13 +63,23 @@ final class UringNative {
 
             var lookup = SymbolLookup.loaderLookup();
 
-            initHandle = prepare(lookup, "ring_open", FunctionDescriptor.of(JAVA_INT, JAVA_INT, JAVA_LONG, JAVA_INT));
+            initHandle = prepare(lookup, "ring_open", FunctionDescriptor.of(JAVA_INT, JAVA_INT, JAVA_LONG, JAVA_LONG));
             exitHandle = prepare(lookup, "ring_close", FunctionDescriptor.ofVoid(JAVA_LONG));
-            copyCQESHandle = prepare(lookup, "ring_copy_cqes", FunctionDescriptor.of(JAVA_INT, JAVA_LONG, JAVA_LONG, JAVA_INT));
-            submitHandle = prepare(lookup, "ring_direct_submit", FunctionDescriptor.of(JAVA_INT, JAVA_LONG, JAVA_LONG, JAVA_INT, JAVA_INT));
+            ringFdHandle = prepare(lookup, "ring_fd", FunctionDescriptor.of(JAVA_INT, JAVA_LONG));
+            registerRingFdHandle = prepare(lookup, "ring_register_ring_fd", FunctionDescriptor.of(JAVA_INT, JAVA_LONG));
+            unregisterRingFdHandle = prepare(lookup, "ring_unregister_ring_fd", FunctionDescriptor.of(JAVA_INT, JAVA_LONG));
+            sqLayoutHandle = prepare(lookup, "ring_sq_layout", FunctionDescriptor.ofVoid(JAVA_LONG, JAVA_LONG));
+            cqLayoutHandle = prepare(lookup, "ring_cq_layout", FunctionDescriptor.ofVoid(JAVA_LONG, JAVA_LONG));
+            enterHandle = prepare(lookup, "ring_enter", FunctionDescriptor.of(JAVA_INT, JAVA_LONG, JAVA_INT, JAVA_INT, JAVA_INT));
             registerHandle = prepare(lookup, "ring_register", FunctionDescriptor.of(JAVA_INT, JAVA_LONG, JAVA_INT, JAVA_LONG, JAVA_LONG));
+            registerFilesSparseHandle = prepare(lookup, "ring_register_files_sparse", FunctionDescriptor.of(JAVA_INT, JAVA_LONG, JAVA_INT));
+            waitHandle = prepareBlocking(lookup, "ring_wait", FunctionDescriptor.of(JAVA_INT, JAVA_LONG, JAVA_INT, JAVA_LONG));
+            eventFdOpenHandle = prepare(lookup, "ring_eventfd_open", FunctionDescriptor.of(JAVA_INT));
+            eventFdSignalHandle = prepare(lookup, "ring_eventfd_signal", FunctionDescriptor.of(JAVA_INT, JAVA_INT));
+            eventFdCloseHandle = prepare(lookup, "ring_eventfd_close", FunctionDescriptor.ofVoid(JAVA_INT));
             socketHandle = prepare(lookup, "ring_socket", FunctionDescriptor.of(JAVA_INT, JAVA_INT, JAVA_INT, JAVA_INT));
             listenHandle = prepare(lookup, "ring_listen", FunctionDescriptor.of(JAVA_INT, JAVA_INT, JAVA_LONG, JAVA_INT, JAVA_INT));
+            peerNameHandle = prepare(lookup, "ring_peer_name", FunctionDescriptor.of(JAVA_INT, JAVA_INT, JAVA_LONG, JAVA_LONG));
         } catch (final Exception e) {
             LOG.error("Error while loading native library: ", e);
             System.exit(-1);
@@ -74,9 +94,28 @@ final class UringNative {
                      .downcallHandle(address, descriptor, Linker.Option.isTrivial());
     }
 
-    public static int init(int num_entries, long base_address, int flags) {
+    // Calls which may block for a long time must not be marked as trivial, otherwise they will stall GC safepoints.
+    private static MethodHandle prepareBlocking(SymbolLookup lookup, String symbol, FunctionDescriptor descriptor) {
+        var address = lookup.find(symbol)
+                            .orElseThrow(IllegalStateException::new);
+
+        return Linker.nativeLinker()
+                     .downcallHandle(address, descriptor);
+    }
+
+    /**
+     * Initialize the ring.
+     *
+     * @param num_entries    Requested number of submission queue entries.
+     * @param base_address   Ring base address.
+     * @param params_address Setup parameters, see {@link org.pragmatica.io.async.uring.struct.offheap.OffHeapUringParams}. On successful return
+     *                       parameters contain actual ring properties and supported features.
+     *
+     * @return 0 on success or negative error code.
+     */
+    public static int init(int num_entries, long base_address, long params_address) {
         try {
-            return (int) initHandle.invokeExact(num_entries, base_address, flags);
+            return (int) initHandle.invokeExact(num_entries, base_address, params_address);
         } catch (Throwable e) {
             LOG.error("Attempt to invoke method init failed", e);
             throw new RuntimeException(e);
@@ -92,20 +131,101 @@ final class UringNative {
         }
     }
 
-    public static int copyCQES(long base_address, long completions_address, int count) {
+    /**
+     * Retrieve ring file descriptor.
+     *
+     * @param base_address Ring base address.
+     *
+     * @return ring file descriptor.
+     */
+    public static int ringFd(long base_address) {
+        try {
+            return (int) ringFdHandle.invokeExact(base_address);
+        } catch (Throwable e) {
+            LOG.error("Attempt to invoke method ring_fd failed", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Register ring file descriptor for the calling thread. Registered descriptor allows kernel to skip file descriptor lookup on every
+     * {@link #enter(long, int, int, int)} invocation, but it can be used only by the thread which performed registration.
+     *
+     * @param base_address Ring base address.
+     *
+     * @return registered index (>=0) or negative error code.
+     */
+    public static int registerRingFd(long base_address) {
+        try {
+            return (int) registerRingFdHandle.invokeExact(base_address);
+        } catch (Throwable e) {
+            LOG.error("Attempt to invoke method register_ring_fd failed", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Unregister ring file descriptor registered by {@link #registerRingFd(long)}. Must be called by the same thread.
+     *
+     * @param base_address Ring base address.
+     *
+     * @return 0 on success or negative error code.
+     */
+    public static int unregisterRingFd(long base_address) {
         try {
-            return (int) copyCQESHandle.invokeExact(base_address, completions_address, count);
+            return (int) unregisterRingFdHandle.invokeExact(base_address);
         } catch (Throwable e) {
-            LOG.error("Attempt to invoke method peek_batch_cqe failed", e);
+            LOG.error("Attempt to invoke method unregister_ring_fd failed", e);
             throw new RuntimeException(e);
         }
     }
 
-    public static int submit(long base_address, long entries_address, int count, int flags) {
+    /**
+     * Export addresses of the submission queue ring fields.
+     *
+     * @param base_address   Ring base address.
+     * @param layout_address Memory where addresses are stored, see {@link SubmissionQueue} for the layout details.
+     */
+    public static void sqLayout(long base_address, long layout_address) {
         try {
-            return (int) submitHandle.invokeExact(base_address, entries_address, count, flags);
+            sqLayoutHandle.invokeExact(base_address, layout_address);
         } catch (Throwable e) {
-            LOG.error("Attempt to invoke method direct_submit failed", e);
+            LOG.error("Attempt to invoke method sq_layout failed", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Export addresses of the completion queue ring fields.
+     *
+     * @param base_address   Ring base address.
+     * @param layout_address Memory where addresses are stored, see {@link CompletionQueue} for the layout details.
+     */
+    public static void cqLayout(long base_address, long layout_address) {
+        try {
+            cqLayoutHandle.invokeExact(base_address, layout_address);
+        } catch (Throwable e) {
+            LOG.error("Attempt to invoke method cq_layout failed", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Submit entries placed into submission queue and/or wait for completions. This is a thin wrapper around io_uring_enter(2).
+     *
+     * @param base_address Ring base address.
+     * @param toSubmit     Number of entries to submit.
+     * @param minComplete  Number of completions to wait for.
+     * @param flags        Enter flags, see {@link UringEnterFlags}. If {@link UringEnterFlags#REGISTERED_RING} is set, ring file descriptor
+     *                     registered by {@link #registerRingFd(long)} is used.
+     *
+     * @return number of submitted entries or negative error code.
+     */
+    public static int enter(long base_address, int toSubmit, int minComplete, int flags) {
+        try {
+            return (int) enterHandle.invokeExact(base_address, toSubmit, minComplete, flags);
+        } catch (Throwable e) {
+            LOG.error("Attempt to invoke method enter failed", e);
             throw new RuntimeException(e);
         }
     }
@@ -119,6 +239,86 @@ final class UringNative {
         }
     }
 
+    /**
+     * Register sparse (initially empty) file table, which then can be populated by operations which create fixed descriptors.
+     *
+     * @param base_address Ring base address.
+     * @param count        Number of slots in the table.
+     *
+     * @return 0 on success or negative error code.
+     */
+    public static int registerFilesSparse(long base_address, int count) {
+        try {
+            return (int) registerFilesSparseHandle.invokeExact(base_address, count);
+        } catch (Throwable e) {
+            LOG.error("Attempt to invoke method register_files_sparse failed", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Wait for at least one completion.
+     *
+     * @param base_address Ring base address.
+     * @param flags        Additional enter flags, only {@link UringEnterFlags#REGISTERED_RING} is meaningful.
+     * @param timeoutNanos Maximal wait time in nanoseconds.
+     *
+     * @return number of submitted entries (always 0) or negative error code. The {@code -ETIME} is returned if timeout expired before any
+     *     completion became available.
+     */
+    public static int waitForCompletions(long base_address, int flags, long timeoutNanos) {
+        try {
+            return (int) waitHandle.invokeExact(base_address, flags, timeoutNanos);
+        } catch (Throwable e) {
+            LOG.error("Attempt to invoke method wait failed", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Create event file descriptor (see eventfd(2)) used to wake up thread waiting for completions.
+     *
+     * @return file descriptor (>0) or error (<0)
+     */
+    public static int eventFdOpen() {
+        try {
+            return (int) eventFdOpenHandle.invokeExact();
+        } catch (Throwable e) {
+            LOG.error("Attempt to invoke method eventfd_open failed", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Signal event file descriptor.
+     *
+     * @param fd Event file descriptor
+     *
+     * @return 0 for success and negative value of error code in case of error.
+     */
+    public static int eventFdSignal(int fd) {
+        try {
+            return (int) eventFdSignalHandle.invokeExact(fd);
+        } catch (Throwable e) {
+            LOG.error("Attempt to invoke method eventfd_signal failed", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Close event file descriptor.
+     *
+     * @param fd Event file descriptor
+     */
+    public static void eventFdClose(int fd) {
+        try {
+            eventFdCloseHandle.invokeExact(fd);
+        } catch (Throwable e) {
+            LOG.error("Attempt to invoke method eventfd_close failed", e);
+            throw new RuntimeException(e);
+        }
+    }
+
     /**
      * Create socket. This call is a combination of socket(2) and setsockopt(2).
      *
@@ -160,4 +360,22 @@ final class UringNative {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Retrieve address of the peer connected to the socket. Equivalent of getpeername(2) call.
+     *
+     * @param socket     Connected socket.
+     * @param address    Memory address of the socket address structure to fill.
+     * @param lenAddress Memory address of the size of the socket address structure. Updated with actual size of the address.
+     *
+     * @return 0 for success and negative value of error code in case of error.
+     */
+    public static int peerName(int socket, long address, long lenAddress) {
+        try {
+            return (int) peerNameHandle.invokeExact(socket, address, lenAddress);
+        } catch (Throwable e) {
+            LOG.error("Attempt to invoke method peerName failed", e);
+            throw new RuntimeException(e);
+        }
+    }
 }
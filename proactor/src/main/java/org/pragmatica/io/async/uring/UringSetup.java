@@ -0,0 +1,113 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.pragmatica.io.async.uring;
+
+import org.pragmatica.io.async.Timeout;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Ring setup parameters.
+ *
+ * @param flags         Setup flags.
+ * @param sqThreadCpu   CPU to which submission queue polling thread is pinned. Used only with {@link UringSetupFlags#SQ_AFF}.
+ * @param sqThreadIdle  Time after which idle submission queue polling thread goes to sleep. Used only with {@link UringSetupFlags#SQ_POLL}.
+ * @param attachFd      File descriptor of the ring which backend (async workers and, for {@link UringSetupFlags#SQ_POLL}, polling thread) is
+ *                      shared with this ring. Used only with {@link UringSetupFlags#ATTACH_WQ}.
+ * @param fileTableSize Number of slots in the registered file table, which holds fixed file descriptors. Zero disables the table.
+ */
+public record UringSetup(Set<UringSetupFlags> flags, int sqThreadCpu, Timeout sqThreadIdle, int attachFd, int fileTableSize) {
+    public static final Timeout DEFAULT_SQ_THREAD_IDLE = Timeout.timeout(1000).millis();
+    public static final int DEFAULT_FILE_TABLE_SIZE = 4096;
+
+    public static UringSetup uringSetup(Set<UringSetupFlags> flags) {
+        return new UringSetup(flags, -1, DEFAULT_SQ_THREAD_IDLE, -1, DEFAULT_FILE_TABLE_SIZE);
+    }
+
+    /**
+     * Setup for the ring driven by single thread, see {@link UringSetupFlags#singleThread()}.
+     */
+    public static UringSetup singleThread() {
+        return uringSetup(UringSetupFlags.singleThread());
+    }
+
+    /**
+     * Setup for the ring with kernel submission queue polling thread. Submissions to such a ring require no system calls while polling
+     * thread is active.
+     *
+     * @param sqThreadIdle Time after which idle polling thread goes to sleep.
+     */
+    public static UringSetup submissionQueuePoll(Timeout sqThreadIdle) {
+        return new UringSetup(UringSetupFlags.submissionQueuePoll(), -1, sqThreadIdle, -1, DEFAULT_FILE_TABLE_SIZE);
+    }
+
+    /**
+     * Setup for the ring with kernel submission queue polling thread pinned to specified CPU.
+     *
+     * @param sqThreadCpu  CPU to pin polling thread to.
+     * @param sqThreadIdle Time after which idle polling thread goes to sleep.
+     */
+    public static UringSetup submissionQueuePoll(int sqThreadCpu, Timeout sqThreadIdle) {
+        return new UringSetup(EnumSet.of(UringSetupFlags.SQ_POLL, UringSetupFlags.SQ_AFF), sqThreadCpu, sqThreadIdle, -1,
+                              DEFAULT_FILE_TABLE_SIZE);
+    }
+
+    /**
+     * Same setup, but rings created with it share backend with the first created ring. For the pool of submission queue polling rings this
+     * means that all rings are served by the single polling thread.
+     */
+    public UringSetup shared() {
+        return withFlags(with(UringSetupFlags.ATTACH_WQ));
+    }
+
+    /**
+     * Same setup, but attached to the ring with specified file descriptor.
+     */
+    public UringSetup attachTo(int ringFd) {
+        return new UringSetup(with(UringSetupFlags.ATTACH_WQ), sqThreadCpu, sqThreadIdle, ringFd, fileTableSize);
+    }
+
+    /**
+     * Same setup, but with different set of flags.
+     */
+    public UringSetup withFlags(Set<UringSetupFlags> flags) {
+        return new UringSetup(flags, sqThreadCpu, sqThreadIdle, attachFd, fileTableSize);
+    }
+
+    /**
+     * Same setup, but with registered file table of specified size. Zero disables the table.
+     */
+    public UringSetup withFileTable(int fileTableSize) {
+        return new UringSetup(flags, sqThreadCpu, sqThreadIdle, attachFd, fileTableSize);
+    }
+
+    public boolean isShared() {
+        return flags.contains(UringSetupFlags.ATTACH_WQ);
+    }
+
+    public boolean isSubmissionQueuePoll() {
+        return flags.contains(UringSetupFlags.SQ_POLL);
+    }
+
+    private EnumSet<UringSetupFlags> with(UringSetupFlags flag) {
+        var result = EnumSet.noneOf(UringSetupFlags.class);
+        result.addAll(flags);
+        result.add(flag);
+        return result;
+    }
+}
@@ -16,11 +16,13 @@
 
 package org.pragmatica.io.async.uring;
 
+import org.pragmatica.lang.Option;
+
 import java.util.EnumSet;
 import java.util.Set;
 
 /**
- * Flags for {@link UringApi#uringApi(int, Set)}.
+ * Flags for {@link UringApi#uringApi(int, Set, org.pragmatica.io.async.uring.exchange.ExchangeEntryPool)}.
  */
 public enum UringSetupFlags implements Bitmask {
     IO_POLL(1),    /* io_context is polled */
@@ -28,11 +30,18 @@ public enum UringSetupFlags implements Bitmask {
     SQ_AFF(1 << 2),    /* sq_thread_cpu is valid */
     CQ_SIZE(1 << 3),    /* app defines CQ size */
     CLAMP(1 << 4),     /* clamp SQ/CQ ring sizes */
-    ATTACH_WQ(1 << 5); /* attach to existing wq */
+    ATTACH_WQ(1 << 5), /* attach to existing wq */
+    R_DISABLED(1 << 6), /* start with ring disabled */
+    SUBMIT_ALL(1 << 7), /* continue submit on error */
+    COOP_TASKRUN(1 << 8), /* run task work on next kernel transition instead of IPI */
+    TASKRUN_FLAG(1 << 9), /* set IORING_SQ_TASKRUN when task work is pending, requires COOP_TASKRUN or DEFER_TASKRUN */
+    SINGLE_ISSUER(1 << 12), /* only one task is allowed to submit requests */
+    DEFER_TASKRUN(1 << 13); /* defer running task work until completions are requested, requires SINGLE_ISSUER */
 
     private static final EnumSet<UringSetupFlags> DEFAULT = EnumSet.noneOf(UringSetupFlags.class);
     private static final EnumSet<UringSetupFlags> SHARED_WQ = EnumSet.of(ATTACH_WQ);
     private static final EnumSet<UringSetupFlags> SUBMISSION_QUEUE_POLL = EnumSet.of(SQ_POLL);
+    private static final EnumSet<UringSetupFlags> SINGLE_THREAD = EnumSet.of(SINGLE_ISSUER, DEFER_TASKRUN, COOP_TASKRUN, TASKRUN_FLAG);
     private final int mask;
 
     UringSetupFlags(final int mask) {
@@ -55,4 +64,38 @@ public enum UringSetupFlags implements Bitmask {
     public static EnumSet<UringSetupFlags> submissionQueuePoll() {
         return SUBMISSION_QUEUE_POLL;
     }
+
+    /**
+     * Flags for the ring which is driven by exactly one thread. Such a ring avoids inter-processor interrupts and runs deferred task work only
+     * when thread asks for completions.
+     * <p>
+     * Flags are supported only by recent kernels (6.1+), but ring setup falls back to the subset supported by the running kernel, see
+     * {@link #fallback(Set)}.
+     */
+    public static EnumSet<UringSetupFlags> singleThread() {
+        return SINGLE_THREAD;
+    }
+
+    /**
+     * Compute the set of flags to try if the kernel rejected provided set. Flags are dropped in reverse order of their appearance in the kernel:
+     * {@link #DEFER_TASKRUN} (6.1), then {@link #SINGLE_ISSUER} (6.0), then {@link #COOP_TASKRUN} along with {@link #TASKRUN_FLAG} (5.19).
+     *
+     * @param flags rejected set of flags
+     *
+     * @return reduced set of flags or empty {@link Option} if there is nothing to drop
+     */
+    public static Option<EnumSet<UringSetupFlags>> fallback(Set<UringSetupFlags> flags) {
+        var result = EnumSet.noneOf(UringSetupFlags.class);
+        result.addAll(flags);
+
+        if (result.remove(DEFER_TASKRUN) || result.remove(SINGLE_ISSUER)) {
+            return Option.option(result);
+        }
+
+        if (result.remove(COOP_TASKRUN) | result.remove(TASKRUN_FLAG)) {
+            return Option.option(result);
+        }
+
+        return Option.empty();
+    }
 }
@@ -20,9 +20,14 @@ import org.pragmatica.io.async.SystemError;
 import org.pragmatica.io.async.common.SizeT;
 import org.pragmatica.io.async.file.FileDescriptor;
 import org.pragmatica.io.async.file.stat.FileStat;
+import org.pragmatica.io.async.net.AddressFamily;
 import org.pragmatica.io.async.net.ConnectionContext;
+import org.pragmatica.io.async.net.SocketAddress;
 import org.pragmatica.io.async.uring.Bitmask;
+import org.pragmatica.io.async.uring.UringApi;
 import org.pragmatica.io.async.uring.struct.raw.SQEntry;
+import org.pragmatica.io.async.uring.struct.raw.SQEntryFlags;
+import org.pragmatica.io.async.util.allocator.ProvidedBuffer;
 import org.pragmatica.lang.Result;
 import org.pragmatica.lang.Unit;
 
@@ -49,8 +54,9 @@ public interface AsyncOperation<R> {
 
         @Override
         public SQEntry fillSubmissionEntry(ExchangeEntry<Unit> exchangeEntry, SQEntry sqEntry) {
-            return sqEntry.userData(exchangeEntry.key())
-                          .opcode(Opcode.NOP);
+            return sqEntry.userData(exchangeEntry.userData())
+                          .opcode(Opcode.NOP)
+                          .flags(exchangeEntry.flags());
         }
     };
 
@@ -62,7 +68,7 @@ public interface AsyncOperation<R> {
 
         @Override
         public SQEntry fillSubmissionEntry(ExchangeEntry<SizeT> exchangeEntry, SQEntry sqEntry) {
-            return sqEntry.userData(exchangeEntry.key())
+            return sqEntry.userData(exchangeEntry.userData())
                           .opcode(Opcode.READV)
                           .flags(exchangeEntry.flags())
                           .fd(exchangeEntry.descriptor().descriptor())
@@ -80,7 +86,7 @@ public interface AsyncOperation<R> {
 
         @Override
         public SQEntry fillSubmissionEntry(ExchangeEntry<SizeT> exchangeEntry, SQEntry sqEntry) {
-            return sqEntry.userData(exchangeEntry.key())
+            return sqEntry.userData(exchangeEntry.userData())
                           .opcode(Opcode.WRITEV)
                           .flags(exchangeEntry.flags())
                           .fd(exchangeEntry.descriptor().descriptor())
@@ -98,7 +104,7 @@ public interface AsyncOperation<R> {
 
         @Override
         public SQEntry fillSubmissionEntry(ExchangeEntry<Unit> exchangeEntry, SQEntry sqEntry) {
-            return sqEntry.userData(exchangeEntry.key())
+            return sqEntry.userData(exchangeEntry.userData())
                           .opcode(Opcode.FSYNC)
                           .flags(exchangeEntry.flags())
                           .fd(exchangeEntry.descriptor().descriptor())
@@ -115,14 +121,14 @@ public interface AsyncOperation<R> {
 
         @Override
         public SQEntry fillSubmissionEntry(ExchangeEntry<SizeT> exchangeEntry, SQEntry sqEntry) {
-            return sqEntry.userData(exchangeEntry.key())
+            return sqEntry.userData(exchangeEntry.userData())
                           .opcode(Opcode.READ_FIXED)
                           .flags(exchangeEntry.flags())
                           .fd(exchangeEntry.descriptor().descriptor())
                           .addr(exchangeEntry.fixedBuffer().address())
                           .len(exchangeEntry.fixedBuffer().size())
                           .off(exchangeEntry.offset().value())
-                          .bufIndex((short) 0);
+                          .bufIndex(exchangeEntry.fixedBuffer().bufIndex());
         }
     };
 
@@ -134,14 +140,14 @@ public interface AsyncOperation<R> {
 
         @Override
         public SQEntry fillSubmissionEntry(ExchangeEntry<SizeT> exchangeEntry, SQEntry sqEntry) {
-            return sqEntry.userData(exchangeEntry.key())
+            return sqEntry.userData(exchangeEntry.userData())
                           .opcode(Opcode.WRITE_FIXED)
                           .flags(exchangeEntry.flags())
                           .fd(exchangeEntry.descriptor().descriptor())
                           .addr(exchangeEntry.fixedBuffer().address())
                           .len(exchangeEntry.fixedBuffer().used())
                           .off(exchangeEntry.offset().value())
-                          .bufIndex((short) 0);
+                          .bufIndex(exchangeEntry.fixedBuffer().bufIndex());
         }
     };
 
@@ -168,8 +174,9 @@ public interface AsyncOperation<R> {
         public SQEntry fillSubmissionEntry(ExchangeEntry<Duration> exchangeEntry, SQEntry sqEntry) {
             exchangeEntry.startNanos(System.nanoTime());
 
-            return sqEntry.userData(exchangeEntry.key())
+            return sqEntry.userData(exchangeEntry.userData())
                           .opcode(Opcode.TIMEOUT)
+                          .flags(exchangeEntry.flags())
                           .fd(-1)
                           .addr(exchangeEntry.delayTime().address())
                           .len(1)
@@ -180,23 +187,65 @@ public interface AsyncOperation<R> {
     AsyncOperation<ConnectionContext<?>> ACCEPT = new AsyncOperation<>() {
         @Override
         public Result<ConnectionContext<?>> parseCompletion(ExchangeEntry<ConnectionContext<?>> exchangeEntry, int result, int flags) {
-            return result <= 0
-                   ? SystemError.result(result)
-                   : exchangeEntry.remoteAddress().extract()
-                                  .map(address -> connection(result, address));
+            // Direct accept returns index of the slot, which can be zero
+            if (exchangeEntry.isDirect()) {
+                return result < 0
+                       ? SystemError.result(result)
+                       : exchangeEntry.remoteAddress().extract()
+                                      .map(address -> connection(fixedSocket(address, result, exchangeEntry.ring()), address));
+            }
+
+            if (result <= 0) {
+                return SystemError.result(result);
+            }
+
+            if (exchangeEntry.isMultishot()) {
+                // Connection is delivered even if peer address is not available, otherwise socket would leak
+                var remoteAddress = exchangeEntry.remoteAddress();
+
+                return success(connection(result, UringApi.peerName(result, remoteAddress).or(remoteAddress::unspecified)));
+            }
+
+            return exchangeEntry.remoteAddress().extract()
+                                .map(address -> connection(result, address));
+        }
+
+        private static FileDescriptor fixedSocket(SocketAddress<?> address, int slot, int ring) {
+            return address.family() == AddressFamily.INET6
+                   ? FileDescriptor.fixedSocket6(slot, ring)
+                   : FileDescriptor.fixedSocket(slot, ring);
         }
 
         @Override
         public SQEntry fillSubmissionEntry(ExchangeEntry<ConnectionContext<?>> exchangeEntry, SQEntry sqEntry) {
-            return sqEntry.userData(exchangeEntry.key())
+            // Multishot accept can't share single address buffer between completions, address is retrieved separately for each connection
+            var multishot = exchangeEntry.isMultishot();
+
+            return sqEntry.userData(exchangeEntry.userData())
                           .opcode(Opcode.ACCEPT)
+                          .flags(exchangeEntry.flags())
+                          .ioprio(multishot ? SQEntry.IORING_ACCEPT_MULTISHOT : 0)
                           .fd(exchangeEntry.descriptor().descriptor())
-                          .addr(exchangeEntry.remoteAddress().sockAddrPtr())
-                          .off(exchangeEntry.remoteAddress().sizePtr())
-                          .acceptFlags(exchangeEntry.acceptFlags());
+                          .addr(multishot ? 0L : exchangeEntry.remoteAddress().sockAddrPtr())
+                          .off(multishot ? 0L : exchangeEntry.remoteAddress().sizePtr())
+                          .acceptFlags(exchangeEntry.acceptFlags())
+                          .fileIndex(exchangeEntry.fileIndex());
+        }
+    };
+    AsyncOperation<Unit> ASYNC_CANCEL = new AsyncOperation<>() {
+        @Override
+        public Result<Unit> parseCompletion(ExchangeEntry<Unit> exchangeEntry, int result, int flags) {
+            return result == 0 ? unitResult() : SystemError.result(result);
+        }
+
+        @Override
+        public SQEntry fillSubmissionEntry(ExchangeEntry<Unit> exchangeEntry, SQEntry sqEntry) {
+            return sqEntry.userData(exchangeEntry.userData())
+                          .opcode(Opcode.ASYNC_CANCEL)
+                          .fd(-1)
+                          .addr(exchangeEntry.cancelTarget());
         }
     };
-    //    ASYNC_CANCEL(14),
     AsyncOperation<Unit> LINK_TIMEOUT = new AsyncOperation<>() {
         @Override
         public Result<Unit> parseCompletion(ExchangeEntry<Unit> exchangeEntry, int result, int flags) {
@@ -205,8 +254,10 @@ public interface AsyncOperation<R> {
 
         @Override
         public SQEntry fillSubmissionEntry(ExchangeEntry<Unit> exchangeEntry, SQEntry sqEntry) {
-            return sqEntry.userData(exchangeEntry.key())
+            // Timeout has its own completion, which must not be confused with the completion of the operation
+            return sqEntry.userData(UringApi.LINK_TIMEOUT_KEY)
                           .opcode(Opcode.LINK_TIMEOUT)
+                          .flags(exchangeEntry.linkFlags())
                           .fd(-1)
                           .addr(exchangeEntry.operationTimeout().address())
                           .len(1);
@@ -223,7 +274,7 @@ public interface AsyncOperation<R> {
 
         @Override
         public SQEntry fillSubmissionEntry(ExchangeEntry<FileDescriptor> exchangeEntry, SQEntry sqEntry) {
-            return sqEntry.userData(exchangeEntry.key())
+            return sqEntry.userData(exchangeEntry.userData())
                           .opcode(Opcode.CONNECT)
                           .flags(exchangeEntry.flags())
                           .fd(exchangeEntry.descriptor().descriptor())
@@ -241,7 +292,7 @@ public interface AsyncOperation<R> {
 
         @Override
         public SQEntry fillSubmissionEntry(ExchangeEntry<Unit> exchangeEntry, SQEntry sqEntry) {
-            return sqEntry.userData(exchangeEntry.key())
+            return sqEntry.userData(exchangeEntry.userData())
                           .opcode(Opcode.FALLOCATE)
                           .flags(exchangeEntry.flags())
                           .fd(exchangeEntry.descriptor().descriptor())
@@ -256,20 +307,25 @@ public interface AsyncOperation<R> {
 
         @Override
         public Result<FileDescriptor> parseCompletion(ExchangeEntry<FileDescriptor> exchangeEntry, int result, int flags) {
-            return result < 0
-                   ? SystemError.result(result)
+            if (result < 0) {
+                return SystemError.result(result);
+            }
+
+            return exchangeEntry.isDirect()
+                   ? success(FileDescriptor.fixedFile(result, exchangeEntry.ring()))
                    : success(FileDescriptor.file(result));
         }
 
         @Override
         public SQEntry fillSubmissionEntry(ExchangeEntry<FileDescriptor> exchangeEntry, SQEntry sqEntry) {
-            return sqEntry.userData(exchangeEntry.key())
+            return sqEntry.userData(exchangeEntry.userData())
                           .opcode(Opcode.OPENAT)
                           .flags(exchangeEntry.flags())
                           .fd(AT_FDCWD)
                           .addr(exchangeEntry.rawPath().address())
                           .len(exchangeEntry.openMode())
-                          .openFlags(exchangeEntry.openFlags());
+                          .openFlags(exchangeEntry.openFlags())
+                          .fileIndex(exchangeEntry.fileIndex());
 
         }
     };
@@ -281,10 +337,18 @@ public interface AsyncOperation<R> {
 
         @Override
         public SQEntry fillSubmissionEntry(ExchangeEntry<Unit> exchangeEntry, SQEntry sqEntry) {
-            return sqEntry.userData(exchangeEntry.key())
-                          .opcode(Opcode.CLOSE)
-                          .flags(exchangeEntry.flags())
-                          .fd(exchangeEntry.descriptor().descriptor());
+            var descriptor = exchangeEntry.descriptor();
+
+            sqEntry.userData(exchangeEntry.userData())
+                   .opcode(Opcode.CLOSE);
+
+            // Fixed descriptor is closed by removing it from the registered file table, slot is passed as 1-based index
+            return descriptor.isFixed()
+                   ? sqEntry.flags((byte) (exchangeEntry.flags() & ~SQEntryFlags.FIXED_FILE.byteMask()))
+                            .fd(0)
+                            .fileIndex(descriptor.descriptor() + 1)
+                   : sqEntry.flags(exchangeEntry.flags())
+                            .fd(descriptor.descriptor());
         }
     };
     //    FILES_UPDATE(20),
@@ -301,8 +365,9 @@ public interface AsyncOperation<R> {
         public SQEntry fillSubmissionEntry(ExchangeEntry<FileStat> exchangeEntry, SQEntry sqEntry) {
             exchangeEntry.fileStat().clear();
 
-            return sqEntry.userData(exchangeEntry.key())
+            return sqEntry.userData(exchangeEntry.userData())
                           .opcode(Opcode.STATX)
+                          .flags(exchangeEntry.flags())
                           .fd(exchangeEntry.descriptor().descriptor())
                           .addr(exchangeEntry.rawPath().address())
                           .len(exchangeEntry.statMask())
@@ -319,7 +384,7 @@ public interface AsyncOperation<R> {
 
         @Override
         public SQEntry fillSubmissionEntry(ExchangeEntry<SizeT> exchangeEntry, SQEntry sqEntry) {
-            return sqEntry.userData(exchangeEntry.key())
+            return sqEntry.userData(exchangeEntry.userData())
                           .opcode(Opcode.READ)
                           .flags(exchangeEntry.flags())
                           .fd(exchangeEntry.descriptor().descriptor())
@@ -337,7 +402,7 @@ public interface AsyncOperation<R> {
 
         @Override
         public SQEntry fillSubmissionEntry(ExchangeEntry<SizeT> exchangeEntry, SQEntry sqEntry) {
-            return sqEntry.userData(exchangeEntry.key())
+            return sqEntry.userData(exchangeEntry.userData())
                           .opcode(Opcode.WRITE)
                           .flags(exchangeEntry.flags())
                           .fd(exchangeEntry.descriptor().descriptor())
@@ -358,7 +423,7 @@ public interface AsyncOperation<R> {
 
         @Override
         public SQEntry fillSubmissionEntry(ExchangeEntry<SizeT> exchangeEntry, SQEntry sqEntry) {
-            return sqEntry.userData(exchangeEntry.key())
+            return sqEntry.userData(exchangeEntry.userData())
                           .opcode(Opcode.SEND)
                           .flags(exchangeEntry.flags())
                           .fd(exchangeEntry.descriptor().descriptor())
@@ -377,7 +442,7 @@ public interface AsyncOperation<R> {
 
         @Override
         public SQEntry fillSubmissionEntry(ExchangeEntry<SizeT> exchangeEntry, SQEntry sqEntry) {
-            return sqEntry.userData(exchangeEntry.key())
+            return sqEntry.userData(exchangeEntry.userData())
                           .opcode(Opcode.RECV)
                           .flags(exchangeEntry.flags())
                           .fd(exchangeEntry.descriptor().descriptor())
@@ -386,6 +451,30 @@ public interface AsyncOperation<R> {
                           .len(exchangeEntry.buffer().size());
         }
     };
+
+    AsyncOperation<ProvidedBuffer> RECV_PROVIDED = new AsyncOperation<>() {
+        @Override
+        public Result<ProvidedBuffer> parseCompletion(ExchangeEntry<ProvidedBuffer> exchangeEntry, int result, int flags) {
+            // Kernel might consume buffer even if operation did not produce any data
+            var buffer = exchangeEntry.bufferRing().take(flags, result);
+
+            return ExchangeEntry.bytesReadToResult(result)
+                                .flatMap(__ -> buffer.toResult(SystemError.ENOBUFS))
+                                .onFailureDo(() -> buffer.onPresent(ProvidedBuffer::release));
+        }
+
+        @Override
+        public SQEntry fillSubmissionEntry(ExchangeEntry<ProvidedBuffer> exchangeEntry, SQEntry sqEntry) {
+            return sqEntry.userData(exchangeEntry.userData())
+                          .opcode(Opcode.RECV)
+                          .flags((byte) (exchangeEntry.flags() | SQEntryFlags.BUFFER_SELECT.byteMask()))
+                          .ioprio(exchangeEntry.isMultishot() ? SQEntry.IORING_RECV_MULTISHOT : 0)
+                          .fd(exchangeEntry.descriptor().descriptor())
+                          .msgFlags(exchangeEntry.msgFlags())
+                          .len(exchangeEntry.bufferRing().bufferSize())
+                          .bufGroup(exchangeEntry.bufferRing().groupId());
+        }
+    };
     //
 //    OPENAT2(28),
 //
@@ -399,15 +488,23 @@ public interface AsyncOperation<R> {
 
         @Override
         public SQEntry fillSubmissionEntry(ExchangeEntry<SizeT> exchangeEntry, SQEntry sqEntry) {
-            return sqEntry.userData(exchangeEntry.key())
+            var descriptor = exchangeEntry.spliceDescriptor();
+            var flags = descriptor.toDescriptor().isFixed()
+                        ? (byte) (exchangeEntry.flags() | SQEntryFlags.FIXED_FILE.byteMask())
+                        : exchangeEntry.flags();
+            var spliceFlags = descriptor.fromDescriptor().isFixed()
+                              ? Bitmask.combine(descriptor.flags()) | SQEntry.SPLICE_F_FD_IN_FIXED
+                              : Bitmask.combine(descriptor.flags());
+
+            return sqEntry.userData(exchangeEntry.userData())
                           .opcode(Opcode.SPLICE)
-                          .flags(exchangeEntry.flags())
-                          .fd(exchangeEntry.spliceDescriptor().toDescriptor().descriptor())
-                          .len((int) exchangeEntry.spliceDescriptor().bytesToCopy().value())
-                          .off(exchangeEntry.spliceDescriptor().toOffset().value())
-                          .spliceFdIn(exchangeEntry.spliceDescriptor().fromDescriptor().descriptor())
-                          .spliceOffIn(exchangeEntry.spliceDescriptor().fromOffset().value())
-                          .spliceFlags(Bitmask.combine(exchangeEntry.spliceDescriptor().flags()));
+                          .flags(flags)
+                          .fd(descriptor.toDescriptor().descriptor())
+                          .len((int) descriptor.bytesToCopy().value())
+                          .off(descriptor.toOffset().value())
+                          .spliceFdIn(descriptor.fromDescriptor().descriptor())
+                          .spliceOffIn(descriptor.fromOffset().value())
+                          .spliceFlags(spliceFlags);
         }
     };
 //
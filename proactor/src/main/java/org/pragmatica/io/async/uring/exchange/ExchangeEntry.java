@@ -23,11 +23,17 @@ import org.pragmatica.io.async.common.OffsetT;
 import org.pragmatica.io.async.common.SizeT;
 import org.pragmatica.io.async.file.FileDescriptor;
 import org.pragmatica.io.async.file.SpliceDescriptor;
+import org.pragmatica.io.async.net.InetAddress;
 import org.pragmatica.io.async.net.ProtocolVersion;
+import org.pragmatica.io.async.net.SocketAddress;
 import org.pragmatica.io.async.uring.struct.offheap.*;
+import org.pragmatica.io.async.uring.struct.raw.CQEntryFlags;
 import org.pragmatica.io.async.uring.struct.raw.SQEntry;
 import org.pragmatica.io.async.uring.struct.raw.SQEntryFlags;
+import org.pragmatica.io.async.uring.struct.shape.StatxOffsets;
+import org.pragmatica.io.async.uring.struct.shape.TimeSpecOffsets;
 import org.pragmatica.io.async.util.OffHeapSlice;
+import org.pragmatica.io.async.util.allocator.BufferRing;
 import org.pragmatica.io.async.util.allocator.FixedBuffer;
 import org.pragmatica.lang.Option;
 import org.pragmatica.lang.Result;
@@ -40,15 +46,32 @@ import static org.pragmatica.lang.Result.success;
 
 /**
  * Internal representation of in-flight IO request.
+ * <p>
+ * Off-heap structures passed to the kernel are placed into the slot of {@link #SLOT_SIZE} bytes, provided by the pool. Slots of many entries
+ * are allocated as single slab, so entry does not own any off-heap memory.
  */
 public class ExchangeEntry<R> {
+    public static final int CACHE_LINE = 64;
+    // Space for transient structures (path, I/O vector, destination address) of the operation, larger ones are allocated
+    public static final int SCRATCH_SIZE = 256;
+
+    // Layout of the slot, structures used by most operations go first, file status is rarely used and goes last
+    private static final int DELAY_TIME_OFFSET = 0;
+    private static final int OPERATION_TIMEOUT_OFFSET = DELAY_TIME_OFFSET + TimeSpecOffsets.SIZE;
+    private static final int REMOTE_ADDRESS_OFFSET = OPERATION_TIMEOUT_OFFSET + TimeSpecOffsets.SIZE;
+    private static final int SCRATCH_OFFSET = alignToLong(REMOTE_ADDRESS_OFFSET + OffHeapSocketAddress.SIZE);
+    private static final int FILE_STAT_OFFSET = alignToCacheLine(SCRATCH_OFFSET + SCRATCH_SIZE);
+    public static final int SLOT_SIZE = alignToCacheLine(FILE_STAT_OFFSET + StatxOffsets.SIZE);
+
     private final int key;
-    private final OffHeapSocketAddress remoteAddress = OffHeapSocketAddress.v4();
-    private final OffHeapTimeSpec delayTime = OffHeapTimeSpec.uninitialized();
-    private final OffHeapFileStat fileStat = OffHeapFileStat.fileStat();
-    private final OffHeapTimeSpec operationTimeout = OffHeapTimeSpec.uninitialized();
+    private final OffHeapSocketAddress remoteAddress;
+    private final OffHeapTimeSpec delayTime;
+    private final OffHeapFileStat fileStat;
+    private final OffHeapTimeSpec operationTimeout;
+    private final long scratch;
 
     private FixedBuffer fixedBuffer;
+    private BufferRing bufferRing;
     private OffHeapSlice buffer;
     private OffHeapSocketAddress destinationAddress;
     private OffHeapCString rawPath;
@@ -63,6 +86,9 @@ public class ExchangeEntry<R> {
     private long len;
     private int openMode;
     private byte flags;
+    private byte linkFlags;
+    private byte opcode;
+    private ExchangeEntry<?> next;
     private int fsyncFlags;
     private int acceptFlags;
     private int allocFlags;
@@ -70,24 +96,54 @@ public class ExchangeEntry<R> {
     private int msgFlags;
     private int statFlags;
     private int statMask;
+    private int fileIndex;
+    private int ring;
+    private boolean multishot;
+    private int generation;
+    private long cancelTarget;
 
-    private ExchangeEntry(final int key) {
+    private ExchangeEntry(final int key, final long slot) {
         this.key = key;
+        this.delayTime = OffHeapTimeSpec.at(slot + DELAY_TIME_OFFSET);
+        this.operationTimeout = OffHeapTimeSpec.at(slot + OPERATION_TIMEOUT_OFFSET);
+        this.remoteAddress = OffHeapSocketAddress.at(slot + REMOTE_ADDRESS_OFFSET);
+        this.fileStat = OffHeapFileStat.at(slot + FILE_STAT_OFFSET);
+        this.scratch = slot + SCRATCH_OFFSET;
+    }
+
+    /**
+     * Create entry with specified key, which uses off-heap slot at specified address. Slot must be {@link #SLOT_SIZE} bytes long and should be
+     * aligned to {@link #CACHE_LINE}. Slot memory remains owned by the caller and must outlive the entry.
+     */
+    public static <R> ExchangeEntry<R> exchangeEntry(final int key, final long slot) {
+        return new ExchangeEntry<>(key, slot);
+    }
+
+    private static int alignToCacheLine(int size) {
+        return (size + CACHE_LINE - 1) & -CACHE_LINE;
     }
 
-    public static <R> ExchangeEntry<R> exchangeEntry(final int key) {
-        return new ExchangeEntry<>(key);
+    private static int alignToLong(int size) {
+        return (size + Long.BYTES - 1) & -Long.BYTES;
     }
 
     private void cleanup() {
+        // Any stale reference to this entry (e.g. cancellation handle) must not match the next operation
+        generation++;
         operation = null;
         completion = null;
         fixedBuffer = null;
+        bufferRing = null;
         buffer = null;
         destinationAddress = null;
         spliceDescriptor = null;
         descriptor = null;
         offset = null;
+        fileIndex = 0;
+        multishot = false;
+        flags = 0;
+        linkFlags = 0;
+        next = null;
 
         if (ioVector != null) {
             ioVector.dispose();
@@ -101,17 +157,34 @@ public class ExchangeEntry<R> {
     }
 
     public void close() {
+        // Off-heap slot is released by the owner of the slab
         cleanup();
-        operationTimeout.dispose();
-        remoteAddress.dispose();
-        delayTime.dispose();
-        fileStat.dispose();
     }
 
     public int key() {
         return key;
     }
 
+    /**
+     * Value passed to the kernel and returned back with completion. Lower 32 bits contain the key of the entry, upper 32 bits contain
+     * generation, which distinguishes subsequent operations which use the same entry.
+     */
+    public long userData() {
+        return ((long) generation << 32) | key;
+    }
+
+    /**
+     * User data of the operation which should be cancelled.
+     */
+    public long cancelTarget() {
+        return cancelTarget;
+    }
+
+    public ExchangeEntry<R> cancelTarget(long cancelTarget) {
+        this.cancelTarget = cancelTarget;
+        return this;
+    }
+
     public AsyncOperation<R> operation() {
         return operation;
     }
@@ -122,29 +195,55 @@ public class ExchangeEntry<R> {
     }
 
     public SQEntry fill(SQEntry entry) {
-        entry.headPad(0L) // 0-7
-             .lenPad(0L)  // 24-31
-             .bufPad(0L); // 40-47
+        // Entry resides in the kernel submission queue and still contains data from the previous use
+        entry.clear();
+        operation().fillSubmissionEntry(this, entry);
+        opcode = entry.opcode();
 
-        return operation().fillSubmissionEntry(this, entry);
+        return entry;
+    }
+
+    /**
+     * Opcode of the last submitted operation. Value remains valid until entry is submitted again.
+     */
+    public byte opcode() {
+        return opcode;
     }
 
     //TODO: test timeouts
     @SuppressWarnings("unchecked")
     public void fillTimeout(SQEntry entry) {
-        entry.headPad(0L) // 0-7
-             .lenPad(0L)  // 24-31
-             .bufPad(0L); // 40-47
+        entry.clear();
         AsyncOperation.LINK_TIMEOUT.fillSubmissionEntry((ExchangeEntry<Unit>) this, entry);
     }
 
     public ExchangeEntry<R> processCompletion(int res, int flags, Proactor proactor) {
-        var result = operation().parseCompletion(this, res, flags);
-        completion.accept(result, proactor);
-        cleanup();
+        if (CQEntryFlags.MORE.isSet(flags)) {
+            // Multishot operation remains armed and entry remains in use
+            completion.accept(operation().parseCompletion(this, res, flags), proactor);
+            return this;
+        }
+
+        // Entry is released even if callback fails, so it must be cleaned up in any case
+        try {
+            var result = operation().parseCompletion(this, res, flags);
+            completion.accept(result, proactor);
+
+            if (multishot && result.isSuccess()) {
+                // Kernel stopped operation without error, let caller know that it's no longer armed
+                completion.accept(SystemError.ECANCELED.result(), proactor);
+            }
+        } finally {
+            cleanup();
+        }
+
         return this;
     }
 
+    public BiConsumer<Result<R>, Proactor> completion() {
+        return completion;
+    }
+
     public ExchangeEntry<R> completion(BiConsumer<Result<R>, Proactor> completion) {
         this.completion = completion;
         return this;
@@ -159,6 +258,20 @@ public class ExchangeEntry<R> {
         return this;
     }
 
+    /**
+     * Set I/O vector for reading into provided buffers. Vector is placed into the scratch space of the entry, if it fits there.
+     */
+    public ExchangeEntry<R> readBuffers(OffHeapSlice... buffers) {
+        return ioVector(OffHeapIoVector.withReadBuffers(scratch, SCRATCH_SIZE, buffers));
+    }
+
+    /**
+     * Set I/O vector for writing from provided buffers. Vector is placed into the scratch space of the entry, if it fits there.
+     */
+    public ExchangeEntry<R> writeBuffers(OffHeapSlice... buffers) {
+        return ioVector(OffHeapIoVector.withWriteBuffers(scratch, SCRATCH_SIZE, buffers));
+    }
+
     public FixedBuffer fixedBuffer() {
         return fixedBuffer;
     }
@@ -168,6 +281,15 @@ public class ExchangeEntry<R> {
         return this;
     }
 
+    public BufferRing bufferRing() {
+        return bufferRing;
+    }
+
+    public ExchangeEntry<R> bufferRing(BufferRing bufferRing) {
+        this.bufferRing = bufferRing;
+        return this;
+    }
+
     public OffsetT offset() {
         return offset;
     }
@@ -205,7 +327,93 @@ public class ExchangeEntry<R> {
     }
 
     public byte flags() {
-        return flags;
+        return (descriptor != null && descriptor.isFixed())
+               ? (byte) (flags | linkFlags | SQEntryFlags.FIXED_FILE.byteMask())
+               : (byte) (flags | linkFlags);
+    }
+
+    /**
+     * Flags which link this entry (or its timeout, if present) to the next entry in the chain.
+     */
+    public byte linkFlags() {
+        return linkFlags;
+    }
+
+    /**
+     * Next entry which must be submitted along with this one.
+     */
+    public ExchangeEntry<?> next() {
+        return next;
+    }
+
+    /**
+     * Append entry which must be submitted along with this one. Entries are linked into chain if link flag is other than
+     * {@link SQEntryFlags#NONE}.
+     */
+    public ExchangeEntry<R> next(ExchangeEntry<?> next, SQEntryFlags link) {
+        this.next = next;
+        this.linkFlags = link.byteMask();
+        return this;
+    }
+
+    /**
+     * Number of submission queue entries necessary to submit this entry along with all entries appended to it.
+     */
+    public int slots() {
+        int count = 0;
+
+        for (ExchangeEntry<?> entry = this; entry != null; entry = entry.next) {
+            count += entry.sqEntries();
+        }
+
+        return count;
+    }
+
+    /**
+     * Number of submission queue entries necessary to submit this entry alone.
+     */
+    public int sqEntries() {
+        return hasTimeout() ? 2 : 1;
+    }
+
+    /**
+     * Slot in the registered file table where new descriptor should be installed. Zero means that regular descriptor should be created.
+     */
+    public int fileIndex() {
+        return fileIndex;
+    }
+
+    public boolean isDirect() {
+        return fileIndex != 0;
+    }
+
+    /**
+     * Index of the pool instance which owns registered file table of the direct operation.
+     */
+    public int ring() {
+        return ring;
+    }
+
+    /**
+     * Install descriptor created by the operation into the free slot of the registered file table of the instance with specified index.
+     */
+    public ExchangeEntry<R> direct(int ring) {
+        this.fileIndex = SQEntry.IORING_FILE_INDEX_ALLOC;
+        this.ring = ring;
+        return this;
+    }
+
+    /**
+     * Operation is multishot, i.e. it remains armed and produces completions until it fails or cancelled. Completion is invoked for each
+     * result. Last invocation always carries failure, {@link SystemError#ECANCELED} if operation was stopped without error.
+     */
+    public boolean isMultishot() {
+        return multishot;
+    }
+
+    public ExchangeEntry<R> multishot() {
+        this.multishot = true;
+        return this;
     }
 
     public int acceptFlags() {
@@ -226,6 +434,13 @@ public class ExchangeEntry<R> {
         return this;
     }
 
+    /**
+     * Set destination address. Address is placed into the scratch space of the entry.
+     */
+    public <T extends InetAddress> ExchangeEntry<R> destinationAddress(SocketAddress<T> address) {
+        return destinationAddress(OffHeapSocketAddress.at(scratch).assign(address));
+    }
+
     public OffHeapTimeSpec delayTime() {
         return delayTime;
     }
@@ -271,6 +486,13 @@ public class ExchangeEntry<R> {
         return this;
     }
 
+    /**
+     * Set path of the operation. Path is placed into the scratch space of the entry, if it fits there.
+     */
+    public ExchangeEntry<R> rawPath(String path) {
+        return rawPath(OffHeapCString.cstring(path, scratch, SCRATCH_SIZE));
+    }
+
     public int openFlags() {
         return openFlags;
     }
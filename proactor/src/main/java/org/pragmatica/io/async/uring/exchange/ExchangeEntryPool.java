@@ -1,6 +1,7 @@
 package org.pragmatica.io.async.uring.exchange;
 
 import org.pragmatica.io.async.Proactor;
+import org.pragmatica.io.async.ProactorConfig;
 
 public interface ExchangeEntryPool {
     <T> ExchangeEntry<T> acquire(AsyncOperation<T> operation);
@@ -11,7 +12,26 @@ public interface ExchangeEntryPool {
 
     void completeRequest(long key, int res, int flags, Proactor proactor);
 
+    /**
+     * Bind pool to the calling thread. Must be invoked by the ring worker thread, which then can release and reuse entries without atomic
+     * operations.
+     */
+    void attach();
+
+    /**
+     * Make entries released by the worker thread available to other threads. Invoked by the worker thread at the end of each batch of
+     * completions.
+     */
+    void flush();
+
     static ExchangeEntryPool exchangeEntryPool() {
-        return new HybridExchangeEntryPool();
+        return exchangeEntryPool(ProactorConfig.DEFAULT_EXCHANGE_ENTRIES);
+    }
+
+    /**
+     * Create pool with specified initial number of entries. Pool grows on demand.
+     */
+    static ExchangeEntryPool exchangeEntryPool(int initialSize) {
+        return new StripedExchangeEntryPool(initialSize);
     }
 }
@@ -15,7 +15,7 @@ public enum Opcode {
     TIMEOUT(11),              //Implemented
     TIMEOUT_REMOVE(12),
     ACCEPT(13),               //Implemented
-    ASYNC_CANCEL(14),
+    ASYNC_CANCEL(14),         //Implemented
     LINK_TIMEOUT(15),         //Implemented
     CONNECT(16),              //Implemented
     FALLOCATE(17),            //Implemented
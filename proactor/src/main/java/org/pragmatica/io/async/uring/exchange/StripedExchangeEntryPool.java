@@ -0,0 +1,314 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.pragmatica.io.async.uring.exchange;
+
+import org.pragmatica.io.async.Proactor;
+import org.pragmatica.io.async.uring.struct.raw.CQEntryFlags;
+import org.pragmatica.io.async.util.raw.RawMemory;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static org.pragmatica.io.async.uring.exchange.ExchangeEntry.exchangeEntry;
+
+/**
+ * Pool of exchange entries owned by single ring.
+ * <p>
+ * Entries are acquired by any thread, but released (almost) always by the ring worker thread. To keep both paths free of contended atomic
+ * operations, free entries travel between threads in small batches (magazines):
+ * <ul>
+ *     <li>Worker thread collects released entries into its own magazine without atomic operations and reuses them directly for operations
+ *     submitted from completion callbacks. Full magazine is published to the shared depot with single CAS.</li>
+ *     <li>Other threads take whole magazine from the depot and park it in the stripe selected by thread identifier. Subsequent acquisitions
+ *     by the same thread are served from the stripe, which stays in the cache of the core running that thread.</li>
+ * </ul>
+ * Stripes are used instead of thread locals, because entries cached by terminated (virtual) threads would be lost for the pool.
+ * <p>
+ * Only newly created magazines are pushed to the depot, so CAS on the depot head is not prone to ABA problem.
+ * <p>
+ * Entries are stored in fixed size segments, so pool grows by appending single segment, without copying or re-populating existing entries.
+ * Lookup by key remains O(1): upper bits of the key select segment and lower bits select entry within it. Off-heap slots of all entries of the
+ * segment are allocated as single cache line aligned slab, see {@link ExchangeEntry#SLOT_SIZE}.
+ */
+final class StripedExchangeEntryPool implements ExchangeEntryPool {
+    static final int MAGAZINE_SIZE = 16;
+    static final int SEGMENT_BITS = 8;
+    static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+    private static final int MIN_DIRECTORY_SIZE = 16;
+    // Stripes are placed into separate cache lines
+    private static final int STRIPE_STRIDE = 16;
+    private static final int STRIPES = ceilingPowerOfTwo(Runtime.getRuntime().availableProcessors());
+
+    private static final class Magazine {
+        private final ExchangeEntry<?>[] entries = new ExchangeEntry<?>[MAGAZINE_SIZE];
+        private int count;
+        private Magazine next;
+
+        boolean isEmpty() {
+            return count == 0;
+        }
+
+        boolean isFull() {
+            return count == MAGAZINE_SIZE;
+        }
+
+        void put(ExchangeEntry<?> entry) {
+            entries[count++] = entry;
+        }
+
+        ExchangeEntry<?> take() {
+            var entry = entries[--count];
+            entries[count] = null;
+            return entry;
+        }
+
+        Magazine copy() {
+            var magazine = new Magazine();
+
+            System.arraycopy(entries, 0, magazine.entries, 0, count);
+            magazine.count = count;
+
+            return magazine;
+        }
+    }
+
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+    @SuppressWarnings("FieldMayBeFinal")
+    private volatile Magazine depot = null;
+
+    private static final long DEPOT_OFFSET = RawMemory.fieldOffset(StripedExchangeEntryPool.class, "depot");
+
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+    private final AtomicReferenceArray<Magazine> stripes = new AtomicReferenceArray<>(STRIPES * STRIPE_STRIDE);
+    private final Object lock = new Object();
+    // Directory of segments, only references are copied when it is full
+    private volatile ExchangeEntry<?>[][] segments;
+    // Guarded by lock
+    private int segmentCount;
+    private long[] slabs;
+
+    // Written once by the worker thread, other threads never see their own identity here, so plain field is sufficient
+    private Thread owner;
+    // Accessed only by the worker thread
+    private Magazine released = new Magazine();
+
+    StripedExchangeEntryPool(int initialSize) {
+        var count = Math.max(1, (initialSize + SEGMENT_MASK) >>> SEGMENT_BITS);
+
+        segments = new ExchangeEntry<?>[Math.max(MIN_DIRECTORY_SIZE, ceilingPowerOfTwo(count))][];
+        slabs = new long[segments.length];
+
+        synchronized (lock) {
+            for (int i = 0; i < count; i++) {
+                appendSegment();
+            }
+        }
+    }
+
+    private static int ceilingPowerOfTwo(int value) {
+        return 1 << (32 - Integer.numberOfLeadingZeros(Math.max(1, value) - 1));
+    }
+
+    private void appendSegment() {
+        var index = segmentCount;
+        var segment = new ExchangeEntry<?>[SEGMENT_SIZE];
+        var slab = RawMemory.allocate((long) SEGMENT_SIZE * ExchangeEntry.SLOT_SIZE + ExchangeEntry.CACHE_LINE);
+        var base = (slab + ExchangeEntry.CACHE_LINE - 1) & -ExchangeEntry.CACHE_LINE;
+
+        for (int i = 0; i < SEGMENT_SIZE; i++) {
+            segment[i] = exchangeEntry((index << SEGMENT_BITS) | i, base + (long) i * ExchangeEntry.SLOT_SIZE);
+        }
+
+        var directory = segments;
+
+        if (index == directory.length) {
+            directory = Arrays.copyOf(directory, directory.length * 2);
+            slabs = Arrays.copyOf(slabs, directory.length);
+        }
+
+        slabs[index] = slab;
+        directory[index] = segment;
+        // Segment must be visible before its entries can be acquired and submitted
+        segments = directory;
+        segmentCount++;
+
+        publish(segment);
+    }
+
+    private void publish(ExchangeEntry<?>[] segment) {
+        var magazine = new Magazine();
+
+        // Reverse order, so entries with lower keys are used first
+        for (int i = segment.length - 1; i >= 0; i--) {
+            magazine.put(segment[i]);
+
+            if (magazine.isFull()) {
+                push(magazine);
+                magazine = new Magazine();
+            }
+        }
+
+        if (!magazine.isEmpty()) {
+            push(magazine);
+        }
+    }
+
+    @Override
+    public void attach() {
+        owner = Thread.currentThread();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> ExchangeEntry<T> lookup(int key) {
+        return (ExchangeEntry<T>) segments[key >>> SEGMENT_BITS][key & SEGMENT_MASK];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> ExchangeEntry<T> acquire(AsyncOperation<T> operation) {
+        return ((ExchangeEntry<T>) take()).operation(operation);
+    }
+
+    private ExchangeEntry<?> take() {
+        if (Thread.currentThread() == owner && !released.isEmpty()) {
+            return released.take();
+        }
+
+        var index = ((int) Thread.currentThread().threadId() & (STRIPES - 1)) * STRIPE_STRIDE;
+        var magazine = stripes.getAndSet(index, null);
+
+        if (magazine == null || magazine.isEmpty()) {
+            magazine = refill();
+        }
+
+        var entry = magazine.take();
+
+        if (!magazine.isEmpty() && !stripes.compareAndSet(index, null, magazine)) {
+            // Another thread mapped to the same stripe parked its magazine meanwhile
+            push(magazine.copy());
+        }
+
+        return entry;
+    }
+
+    private Magazine refill() {
+        while (true) {
+            var magazine = pop();
+
+            if (magazine != null) {
+                return magazine;
+            }
+
+            grow();
+        }
+    }
+
+    private void grow() {
+        synchronized (lock) {
+            // Another thread might already add new entries
+            if (depot == null) {
+                appendSegment();
+            }
+        }
+    }
+
+    private void release(ExchangeEntry<?> entry) {
+        if (Thread.currentThread() != owner) {
+            // Rare case, operation rejected before submission
+            var magazine = new Magazine();
+
+            magazine.put(entry);
+            push(magazine);
+            return;
+        }
+
+        released.put(entry);
+
+        if (released.isFull()) {
+            push(released);
+            released = new Magazine();
+        }
+    }
+
+    @Override
+    public void flush() {
+        // Partially filled magazine is handed over only when other threads ran out of free entries
+        if (!released.isEmpty() && depot == null) {
+            push(released);
+            released = new Magazine();
+        }
+    }
+
+    private Magazine pop() {
+        Magazine oldHead;
+        Magazine newHead;
+
+        do {
+            oldHead = depot;
+
+            if (oldHead == null) {
+                return null;
+            }
+
+            newHead = oldHead.next;
+        } while (!RawMemory.compareAndSetReference(this, DEPOT_OFFSET, oldHead, newHead));
+
+        return oldHead;
+    }
+
+    private void push(Magazine newHead) {
+        Magazine oldHead;
+
+        do {
+            oldHead = depot;
+            newHead.next = oldHead;
+        } while (!RawMemory.compareAndSetReference(this, DEPOT_OFFSET, oldHead, newHead));
+    }
+
+    @Override
+    public void clear() {
+        synchronized (lock) {
+            var directory = segments;
+
+            for (int i = 0; i < segmentCount; i++) {
+                for (var entry : directory[i]) {
+                    entry.close();
+                }
+
+                RawMemory.dispose(slabs[i]);
+                slabs[i] = 0L;
+            }
+
+            segmentCount = 0;
+        }
+    }
+
+    @Override
+    public void completeRequest(long key, int res, int flags, Proactor proactor) {
+        var entry = lookup((int) key);
+
+        try {
+            entry.processCompletion(res, flags, proactor);
+        } finally {
+            if (!CQEntryFlags.MORE.isSet(flags)) {
+                release(entry);
+            }
+        }
+    }
+}
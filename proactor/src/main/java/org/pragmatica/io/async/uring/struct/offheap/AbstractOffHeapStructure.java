@@ -32,6 +32,15 @@ public abstract class AbstractOffHeapStructure<T extends RawStructure<T>>
         super(RawMemory.allocate(size), size);
     }
 
+    /**
+     * Create structure placed into the memory owned by someone else, for example, slab shared by many structures. Such a structure never
+     * releases memory.
+     */
+    protected AbstractOffHeapStructure(long address, int size) {
+        super(address, size);
+        released = true;
+    }
+
     @Override
     public void dispose() {
         if (released) {
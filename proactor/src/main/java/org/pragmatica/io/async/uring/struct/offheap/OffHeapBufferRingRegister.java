@@ -0,0 +1,37 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.pragmatica.io.async.uring.struct.offheap;
+
+import org.pragmatica.io.async.uring.struct.shape.BufferRingRegisterOffsets;
+
+import static org.pragmatica.io.async.uring.struct.shape.BufferRingRegisterOffsets.*;
+
+/**
+ * Container for data equivalent to {@code struct io_uring_buf_reg}.
+ */
+public class OffHeapBufferRingRegister extends AbstractOffHeapStructure<OffHeapBufferRingRegister> {
+    private OffHeapBufferRingRegister() {
+        super(BufferRingRegisterOffsets.SIZE);
+        clear();
+    }
+
+    public static OffHeapBufferRingRegister bufferRing(long address, int entries, short groupId) {
+        return new OffHeapBufferRingRegister().putLong(ring_addr, address)
+                                              .putInt(ring_entries, entries)
+                                              .putShort(bgid, groupId);
+    }
+}
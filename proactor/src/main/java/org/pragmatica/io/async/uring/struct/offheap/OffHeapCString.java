@@ -30,7 +30,29 @@ public class OffHeapCString extends AbstractOffHeapStructure<OffHeapCString> {
         RawMemory.putByteArray(address(), input);
     }
 
+    private OffHeapCString(final long address, final byte[] input) {
+        super(address, input.length + 1);
+        clear();
+        RawMemory.putByteArray(address(), input);
+    }
+
     public static OffHeapCString cstring(final String string) {
         return new OffHeapCString(string.getBytes(StandardCharsets.UTF_8));
     }
+
+    /**
+     * Create string placed into provided scratch memory if it fits there, otherwise string is allocated. Scratch memory remains owned by the
+     * caller.
+     *
+     * @param string   Input string
+     * @param scratch  Address of the scratch memory
+     * @param capacity Size of the scratch memory
+     */
+    public static OffHeapCString cstring(final String string, final long scratch, final int capacity) {
+        var input = string.getBytes(StandardCharsets.UTF_8);
+
+        return input.length < capacity
+               ? new OffHeapCString(scratch, input)
+               : new OffHeapCString(input);
+    }
 }
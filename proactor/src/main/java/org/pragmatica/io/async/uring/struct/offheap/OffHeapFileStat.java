@@ -32,10 +32,23 @@ public class OffHeapFileStat extends AbstractOffHeapStructure<OffHeapFileStat> {
         shape = RawStatx.at(address());
     }
 
+    private OffHeapFileStat(long address) {
+        super(address, StatxOffsets.SIZE);
+        clear();
+        shape = RawStatx.at(address());
+    }
+
     public static OffHeapFileStat fileStat() {
         return new OffHeapFileStat();
     }
 
+    /**
+     * Create file status placed at specified memory location. Memory remains owned by the caller.
+     */
+    public static OffHeapFileStat at(long address) {
+        return new OffHeapFileStat(address);
+    }
+
     public FileStat extract() {
         return shape.detach();
     }
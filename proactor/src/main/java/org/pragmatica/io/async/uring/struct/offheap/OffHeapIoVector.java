@@ -44,6 +44,13 @@ public class OffHeapIoVector extends AbstractOffHeapStructure<OffHeapIoVector> {
         shape = IoVector.at(address());
     }
 
+    private OffHeapIoVector(long address, int count) {
+        super(address, count * IoVectorOffsets.SIZE);
+        this.count = count;
+        clear();
+        shape = IoVector.at(address());
+    }
+
     private void addBuffer(Mode mode, OffHeapSlice buffer) {
         shape.base(buffer.address())
              .len(mode == Mode.READ ? buffer.size() : buffer.used())
@@ -62,9 +69,35 @@ public class OffHeapIoVector extends AbstractOffHeapStructure<OffHeapIoVector> {
         return withBuffers(Mode.WRITE, buffers);
     }
 
+    /**
+     * Create vector of read buffers placed into provided scratch memory if it fits there, otherwise vector is allocated. Scratch memory
+     * remains owned by the caller.
+     */
+    public static OffHeapIoVector withReadBuffers(long scratch, int capacity, OffHeapSlice... buffers) {
+        return withBuffers(Mode.READ, buffers, scratch, capacity);
+    }
+
+    /**
+     * Create vector of write buffers placed into provided scratch memory if it fits there, otherwise vector is allocated. Scratch memory
+     * remains owned by the caller.
+     */
+    public static OffHeapIoVector withWriteBuffers(long scratch, int capacity, OffHeapSlice... buffers) {
+        return withBuffers(Mode.WRITE, buffers, scratch, capacity);
+    }
+
     private static OffHeapIoVector withBuffers(Mode mode, OffHeapSlice[] buffers) {
-        var vector = new OffHeapIoVector(buffers.length);
+        return fill(new OffHeapIoVector(buffers.length), mode, buffers);
+    }
+
+    private static OffHeapIoVector withBuffers(Mode mode, OffHeapSlice[] buffers, long scratch, int capacity) {
+        var vector = (long) buffers.length * IoVectorOffsets.SIZE <= capacity
+                     ? new OffHeapIoVector(scratch, buffers.length)
+                     : new OffHeapIoVector(buffers.length);
+
+        return fill(vector, mode, buffers);
+    }
 
+    private static OffHeapIoVector fill(OffHeapIoVector vector, Mode mode, OffHeapSlice[] buffers) {
         for (var buffer : buffers) {
             vector.addBuffer(mode, buffer);
         }
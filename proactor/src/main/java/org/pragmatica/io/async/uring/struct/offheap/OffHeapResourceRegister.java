@@ -0,0 +1,41 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.pragmatica.io.async.uring.struct.offheap;
+
+import org.pragmatica.io.async.uring.struct.shape.ResourceRegisterOffsets;
+
+import static org.pragmatica.io.async.uring.struct.shape.ResourceRegisterOffsets.*;
+
+/**
+ * Container for data equivalent to {@code struct io_uring_rsrc_register}.
+ */
+public class OffHeapResourceRegister extends AbstractOffHeapStructure<OffHeapResourceRegister> {
+    public static final int REGISTER_SPARSE = 1;
+
+    private OffHeapResourceRegister() {
+        super(ResourceRegisterOffsets.SIZE);
+        clear();
+    }
+
+    /**
+     * Create registration of empty (sparse) table with specified number of slots.
+     */
+    public static OffHeapResourceRegister sparse(int count) {
+        return new OffHeapResourceRegister().putInt(nr, count)
+                                            .putInt(flags, REGISTER_SPARSE);
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.pragmatica.io.async.uring.struct.offheap;
+
+import org.pragmatica.io.async.uring.struct.shape.ResourceUpdateOffsets;
+
+import static org.pragmatica.io.async.uring.struct.shape.ResourceUpdateOffsets.*;
+
+/**
+ * Container for data equivalent to {@code struct io_uring_rsrc_update2}.
+ */
+public class OffHeapResourceUpdate extends AbstractOffHeapStructure<OffHeapResourceUpdate> {
+    private OffHeapResourceUpdate() {
+        super(ResourceUpdateOffsets.SIZE);
+        clear();
+    }
+
+    /**
+     * Create update of {@code count} consecutive table slots starting at {@code start}, new values are taken from array located at
+     * {@code address}.
+     */
+    public static OffHeapResourceUpdate update(int start, long address, int count) {
+        return new OffHeapResourceUpdate().putInt(offset, start)
+                                          .putLong(data, address)
+                                          .putInt(nr, count);
+    }
+}
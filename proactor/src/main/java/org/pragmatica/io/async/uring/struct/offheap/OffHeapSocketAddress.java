@@ -19,6 +19,7 @@ package org.pragmatica.io.async.uring.struct.offheap;
 import org.pragmatica.io.async.net.InetAddress;
 import org.pragmatica.io.async.net.InetAddress.Inet4Address;
 import org.pragmatica.io.async.net.InetAddress.Inet6Address;
+import org.pragmatica.io.async.net.InetPort;
 import org.pragmatica.io.async.net.ProtocolVersion;
 import org.pragmatica.io.async.net.SocketAddress;
 import org.pragmatica.io.async.uring.struct.raw.RawSocketAddress;
@@ -33,7 +34,7 @@ import org.pragmatica.lang.Result;
  * The formatting is designed to handle IPv4 and IPv6 connection information with single API.
  */
 public class OffHeapSocketAddress extends AbstractOffHeapStructure<OffHeapSocketAddress> {
-    private static final int SIZE = 128 + 4;    //Equal to sizeof(struct sockaddr_storage) + sizeof(socklen_t)
+    public static final int SIZE = 128 + 4;    //Equal to sizeof(struct sockaddr_storage) + sizeof(socklen_t)
     private static final RawProperty sockaddrLen = RawProperty.raw(0, 4);
 
     @SuppressWarnings("rawtypes")
@@ -46,6 +47,11 @@ public class OffHeapSocketAddress extends AbstractOffHeapStructure<OffHeapSocket
         protocolVersion(version);
     }
 
+    private OffHeapSocketAddress(long address) {
+        super(address, SIZE);
+        protocolVersion(ProtocolVersion.IPV4);
+    }
+
     public final void protocolVersion(ProtocolVersion version) {
         this.shape = switch (version) {
             case IPV4 -> shapeV4;
@@ -66,6 +72,16 @@ public class OffHeapSocketAddress extends AbstractOffHeapStructure<OffHeapSocket
         return shape.extract();
     }
 
+    /**
+     * Unspecified (any) address of the configured protocol version.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends InetAddress> SocketAddress<T> unspecified() {
+        return (SocketAddress<T>) (shape == shapeV4
+                                   ? SocketAddress.socketAddress(InetPort.inetPort(0), Inet4Address.INADDR_ANY)
+                                   : SocketAddress.socketAddress(InetPort.inetPort(0), Inet6Address.INADDR_ANY));
+    }
+
     public long sizePtr() {
         return address();
     }
@@ -97,6 +113,14 @@ public class OffHeapSocketAddress extends AbstractOffHeapStructure<OffHeapSocket
         return new OffHeapSocketAddress(ProtocolVersion.IPV6);
     }
 
+    /**
+     * Create IPv4 socket address placed at specified memory location. Memory must be at least {@link #SIZE} bytes long and remains owned by
+     * the caller.
+     */
+    public static OffHeapSocketAddress at(long address) {
+        return new OffHeapSocketAddress(address);
+    }
+
     public static <T extends InetAddress> OffHeapSocketAddress unsafeSocketAddress(SocketAddress<T> address) {
         return switch (address.address()) {
             case Inet4Address __1 -> new OffHeapSocketAddress(ProtocolVersion.IPV4).assign(address);
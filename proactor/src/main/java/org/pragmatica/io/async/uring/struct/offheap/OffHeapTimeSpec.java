@@ -30,6 +30,10 @@ public class OffHeapTimeSpec extends AbstractOffHeapStructure<OffHeapTimeSpec> {
         super(TimeSpecOffsets.SIZE);
     }
 
+    private OffHeapTimeSpec(long address) {
+        super(address, TimeSpecOffsets.SIZE);
+    }
+
     public OffHeapTimeSpec setSecondsNanos(long seconds, long nanos) {
         return putLong(tv_sec, seconds).putLong(tv_nsec, nanos);
     }
@@ -43,6 +47,13 @@ public class OffHeapTimeSpec extends AbstractOffHeapStructure<OffHeapTimeSpec> {
         return new OffHeapTimeSpec();
     }
 
+    /**
+     * Create uninitialized time spec placed at specified memory location. Memory remains owned by the caller.
+     */
+    public static OffHeapTimeSpec at(long address) {
+        return new OffHeapTimeSpec(address);
+    }
+
     public static OffHeapTimeSpec forSecondsNanos(long seconds, long nanos) {
         return new OffHeapTimeSpec()
             .putLong(tv_sec, seconds)
@@ -0,0 +1,59 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.pragmatica.io.async.uring.struct.offheap;
+
+import org.pragmatica.io.async.uring.struct.shape.UringParamsOffsets;
+
+import static org.pragmatica.io.async.uring.struct.shape.UringParamsOffsets.*;
+
+/**
+ * Container for data equivalent to {@code struct io_uring_params}.
+ */
+public class OffHeapUringParams extends AbstractOffHeapStructure<OffHeapUringParams> {
+    private OffHeapUringParams() {
+        super(UringParamsOffsets.SIZE);
+        clear();
+    }
+
+    public static OffHeapUringParams withFlags(int flags) {
+        return new OffHeapUringParams().putInt(UringParamsOffsets.flags, flags);
+    }
+
+    public OffHeapUringParams sqThreadCpu(int cpu) {
+        return putInt(sq_thread_cpu, cpu);
+    }
+
+    public OffHeapUringParams sqThreadIdle(int millis) {
+        return putInt(sq_thread_idle, millis);
+    }
+
+    public OffHeapUringParams wqFd(int fd) {
+        return putInt(wq_fd, fd);
+    }
+
+    public int sqEntries() {
+        return getInt(sq_entries);
+    }
+
+    public int cqEntries() {
+        return getInt(cq_entries);
+    }
+
+    public int features() {
+        return getInt(features);
+    }
+}
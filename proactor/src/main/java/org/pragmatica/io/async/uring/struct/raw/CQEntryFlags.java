@@ -0,0 +1,53 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.pragmatica.io.async.uring.struct.raw;
+
+import org.pragmatica.io.async.uring.Bitmask;
+
+/**
+ * Flags of completion queue entry.
+ */
+public enum CQEntryFlags implements Bitmask {
+    BUFFER(0x001),          /* upper 16 bits of the flags contain buffer ID */
+    MORE(0x002),            /* parent SQE will generate more CQE entries */
+    SOCK_NONEMPTY(0x004),   /* more data to read after socket recv */
+    NOTIF(0x008);           /* notification CQE, distinct from the request CQE */
+
+    public static final int BUFFER_SHIFT = 16;
+
+    private final int mask;
+
+    CQEntryFlags(final int mask) {
+        this.mask = mask;
+    }
+
+    @Override
+    public int mask() {
+        return mask;
+    }
+
+    public boolean isSet(int flags) {
+        return (flags & mask) != 0;
+    }
+
+    /**
+     * Extract ID of the provided buffer selected by the kernel for the operation.
+     */
+    public static int bufferId(int flags) {
+        return flags >>> BUFFER_SHIFT;
+    }
+}
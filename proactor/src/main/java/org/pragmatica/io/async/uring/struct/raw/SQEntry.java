@@ -27,6 +27,9 @@ public class SQEntry extends AbstractExternalRawStructure<SQEntry> {
     public static final int IORING_FSYNC_DATASYNC = 1;      /* sqe->fsync_flags */
     public static final int IORING_TIMEOUT_ABS = 1;         /* sqe->timeout_flags */
     public static final int SPLICE_F_FD_IN_FIXED = 1 << 31; /* sqe->splice_flags, extends splice(2) flags */
+    public static final int IORING_FILE_INDEX_ALLOC = ~0;   /* sqe->file_index, allocate free slot in the registered file table */
+    public static final short IORING_ACCEPT_MULTISHOT = 1;  /* sqe->ioprio, keep accepting connections until cancelled or failed */
+    public static final short IORING_RECV_MULTISHOT = 2;    /* sqe->ioprio, keep receiving data until cancelled or failed */
 
     private SQEntry(final long address) {
         super(address, SubmitQueueEntryOffsets.SIZE);
@@ -40,6 +43,10 @@ public class SQEntry extends AbstractExternalRawStructure<SQEntry> {
         return putByte(SubmitQueueEntryOffsets.opcode, opcode.opcode());
     }
 
+    public byte opcode() {
+        return getByte(SubmitQueueEntryOffsets.opcode);
+    }
+
     public SQEntry flags(final byte data) {
         return putByte(SubmitQueueEntryOffsets.flags, data);
     }
@@ -120,6 +127,10 @@ public class SQEntry extends AbstractExternalRawStructure<SQEntry> {
         return putInt(SubmitQueueEntryOffsets.splice_fd_in, data);
     }
 
+    public SQEntry fileIndex(final int data) {
+        return putInt(SubmitQueueEntryOffsets.file_index, data);
+    }
+
     public SQEntry off(final long data) {
         return putLong(SubmitQueueEntryOffsets.off, data);
     }
@@ -0,0 +1,32 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.pragmatica.io.async.uring.struct.shape;
+
+import org.pragmatica.io.async.util.raw.RawProperty;
+
+/**
+ * Offsets/Sizes of the fields of the {@code struct io_uring_buf}, the entry of the provided buffer ring.
+ * <p>
+ * Ring tail shares space with the {@code resv} field of the first entry.
+ */
+public interface BufferRingEntryOffsets {
+    int SIZE = 16;
+    RawProperty addr = RawProperty.raw(0, 8);
+    RawProperty len = RawProperty.raw(8, 4);
+    RawProperty bid = RawProperty.raw(12, 2);
+    RawProperty tail = RawProperty.raw(14, 2);
+}
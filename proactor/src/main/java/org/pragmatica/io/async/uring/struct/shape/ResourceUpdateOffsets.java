@@ -0,0 +1,32 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.pragmatica.io.async.uring.struct.shape;
+
+import org.pragmatica.io.async.util.raw.RawProperty;
+
+/**
+ * Offsets/Sizes of the fields of the {@link org.pragmatica.io.async.uring.struct.offheap.OffHeapResourceUpdate}
+ */
+public interface ResourceUpdateOffsets {
+    int SIZE = 32;
+    RawProperty offset = RawProperty.raw(0, 4);
+    RawProperty resv = RawProperty.raw(4, 4);
+    RawProperty data = RawProperty.raw(8, 8);
+    RawProperty tags = RawProperty.raw(16, 8);
+    RawProperty nr = RawProperty.raw(24, 4);
+    RawProperty resv2 = RawProperty.raw(28, 4);
+}
@@ -22,7 +22,7 @@ import org.pragmatica.io.async.util.raw.RawProperty;
  * Offsets/Sizes of the fields of the {@link org.pragmatica.io.async.uring.struct.raw.SQEntry}
  */
 public interface SubmitQueueEntryOffsets {
-    int SIZE = 48;
+    int SIZE = 64;
     RawProperty opcode = RawProperty.raw(0, 1);
     RawProperty flags = RawProperty.raw(1, 1);
     RawProperty ioprio = RawProperty.raw(2, 2);
@@ -51,5 +51,8 @@ public interface SubmitQueueEntryOffsets {
     RawProperty buf_group = RawProperty.raw(40, 2);
     RawProperty personality = RawProperty.raw(42, 2);
     RawProperty splice_fd_in = RawProperty.raw(44, 4);
+    RawProperty file_index = RawProperty.raw(44, 4);
     RawProperty buf_pad = RawProperty.raw(40, 8);
+    RawProperty addr3 = RawProperty.raw(48, 8);
+    RawProperty pad2 = RawProperty.raw(56, 8);
 }
\ No newline at end of file
@@ -0,0 +1,165 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.pragmatica.io.async.util.allocator;
+
+import org.jctools.queues.MpscArrayQueue;
+import org.pragmatica.io.async.SystemError;
+import org.pragmatica.io.async.uring.UringApi;
+import org.pragmatica.io.async.uring.struct.raw.CQEntryFlags;
+import org.pragmatica.io.async.uring.struct.shape.BufferRingEntryOffsets;
+import org.pragmatica.io.async.util.OffHeapSlice;
+import org.pragmatica.io.async.util.raw.RawMemory;
+import org.pragmatica.lang.Option;
+import org.pragmatica.lang.Result;
+
+
+/**
+ * Ring of buffers provided to the kernel ({@code IORING_REGISTER_PBUF_RING}).
+ * <p>
+ * Operations submitted with buffer selection get buffer picked by the kernel at the moment when data is available, so connections waiting for
+ * data do not hold any memory. ID of the selected buffer is reported in the flags of the completion.
+ * <p>
+ * Ring belongs to single {@link org.pragmatica.io.async.Proactor} instance. Buffers are returned to the ring with {@link ProvidedBuffer#release()},
+ * which can be invoked from any thread. Returned buffers become available to the kernel once worker thread invokes {@link #sync()}.
+ */
+public final class BufferRing {
+    public static final int MAX_ENTRIES = 1 << 15;
+
+    private final long memory;
+    private final long ringAddress;
+    private final OffHeapSlice arena;
+    private final ProvidedBuffer[] buffers;
+    private final MpscArrayQueue<ProvidedBuffer> returned;
+    private final int mask;
+    private final int bufferSize;
+    private final short groupId;
+    private int tail;
+
+    private BufferRing(short groupId, int entries, int bufferSize) {
+        var pageSize = RawMemory.pageSize();
+
+        // Kernel requires page aligned ring
+        this.memory = RawMemory.allocate((long) entries * BufferRingEntryOffsets.SIZE + pageSize);
+        this.ringAddress = (memory + pageSize - 1) & -pageSize;
+        this.arena = OffHeapSlice.fixedSize(entries * bufferSize);
+        this.buffers = new ProvidedBuffer[entries];
+        this.returned = new MpscArrayQueue<>(entries);
+        this.mask = entries - 1;
+        this.bufferSize = bufferSize;
+        this.groupId = groupId;
+
+        RawMemory.clear(ringAddress, (long) entries * BufferRingEntryOffsets.SIZE);
+
+        for (int i = 0; i < entries; i++) {
+            buffers[i] = new ProvidedBuffer(arena.slice(i * bufferSize, bufferSize), this, (short) i);
+            put(buffers[i]);
+        }
+
+        publish();
+    }
+
+    /**
+     * Create buffer ring and register it with the provided ring.
+     *
+     * @param api        Ring to register buffers with
+     * @param groupId    Buffer group ID used by the operations to select buffers from this ring
+     * @param entries    Number of buffers, must be power of two not greater than {@link #MAX_ENTRIES}
+     * @param bufferSize Size of each buffer, total size of all buffers must not exceed {@link Integer#MAX_VALUE}
+     */
+    public static Result<BufferRing> bufferRing(UringApi api, short groupId, int entries, int bufferSize) {
+        if (entries <= 0 || entries > MAX_ENTRIES || Integer.bitCount(entries) != 1 || bufferSize <= 0
+            || (long) entries * bufferSize > Integer.MAX_VALUE) {
+            return SystemError.EINVAL.result();
+        }
+
+        var ring = new BufferRing(groupId, entries, bufferSize);
+
+        return api.registerBufferRing(ring.ringAddress, entries, groupId)
+                  .onFailureDo(ring::close)
+                  .map(__ -> ring);
+    }
+
+    public short groupId() {
+        return groupId;
+    }
+
+    public int bufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Retrieve buffer selected by the kernel.
+     *
+     * @param flags Completion flags
+     * @param used  Number of bytes stored in the buffer
+     *
+     * @return selected buffer or empty option if no buffer was selected for the operation
+     */
+    public Option<ProvidedBuffer> take(int flags, int used) {
+        if (!CQEntryFlags.BUFFER.isSet(flags)) {
+            return Option.empty();
+        }
+
+        return Option.option(buffers[CQEntryFlags.bufferId(flags)].acquire(used));
+    }
+
+    /**
+     * Make returned buffers available to the kernel. Must be invoked only by the worker thread.
+     *
+     * @return number of buffers returned to the kernel
+     */
+    public int sync() {
+        int count = 0;
+        ProvidedBuffer buffer;
+
+        while ((buffer = returned.relaxedPoll()) != null) {
+            put(buffer);
+            count++;
+        }
+
+        if (count > 0) {
+            publish();
+        }
+
+        return count;
+    }
+
+    /**
+     * Release memory occupied by the ring. Must be invoked only after ring is shut down.
+     */
+    public void close() {
+        arena.close();
+        RawMemory.dispose(memory);
+    }
+
+    void giveBack(ProvidedBuffer buffer) {
+        // Queue capacity matches number of buffers, so there is always room for returned buffer
+        returned.offer(buffer);
+    }
+
+    private void put(ProvidedBuffer buffer) {
+        var entry = ringAddress + (long) (tail++ & mask) * BufferRingEntryOffsets.SIZE;
+
+        RawMemory.putLong(entry + BufferRingEntryOffsets.addr.offset(), buffer.address());
+        RawMemory.putInt(entry + BufferRingEntryOffsets.len.offset(), bufferSize);
+        RawMemory.putShort(entry + BufferRingEntryOffsets.bid.offset(), buffer.id());
+    }
+
+    private void publish() {
+        RawMemory.putShortRelease(ringAddress + BufferRingEntryOffsets.tail.offset(), (short) tail);
+    }
+}
@@ -20,66 +20,508 @@ package org.pragmatica.io.async.util.allocator;
 import org.pragmatica.io.async.SystemError;
 import org.pragmatica.io.async.uring.UringApi;
 import org.pragmatica.io.async.util.OffHeapSlice;
+import org.pragmatica.io.async.util.raw.RawMemory;
+import org.pragmatica.lang.Option;
 import org.pragmatica.lang.Result;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import static org.pragmatica.io.async.util.Units._1KiB;
 
 /**
- * Simple allocator which allocates provided memory arena as chunks of fixed size.
+ * Allocator of the fixed buffers from the memory registered with the rings.
  * <p>
- * Used algorithm is inherently susceptible to fragmentation. To prevent fragmentation, two strategies could be employed.
- * One is to always allocate same amounts of memory (usually aligned to default chunk size). Another is to allocate memory
- * once at startup.
+ * Memory is managed as a set of regions of equal size. Allocator starts with single region and, if configured with more than one region, adds new
+ * regions once existing ones are exhausted. Each region is registered with the ring as separate fixed buffer, so buffer allocated from the region
+ * carries index of the region (see {@link FixedBuffer#bufIndex()}). Single allocation can't span regions, so buffer size is limited by the region
+ * size.
  * <p>
- * Default chunk size is 16K, which should be good enough for most I/O buffers.
+ * Regions are split into chunks of {@link #CHUNK_SIZE} bytes. Buffers up to the chunk size are served from size classes (powers of two from
+ * {@link #MIN_BLOCK_SIZE} to {@link #CHUNK_SIZE}). Each class carves chunks into blocks of the class size and keeps released blocks in lock-free
+ * free lists, striped by thread, so allocation and release of such buffers don't take locks and scale with number of cores. Chunk carved for
+ * the size class remains assigned to it, only free whole chunks can be returned back for larger allocations.
+ * <p>
+ * Larger buffers are allocated as runs of adjacent chunks. Such allocations are slower and are susceptible to fragmentation, so it is
+ * recommended to allocate them once at startup.
  */
 public class ChunkedAllocator {
+    private static final Logger LOG = LoggerFactory.getLogger(ChunkedAllocator.class);
+
     public static final int CHUNK_SIZE = 16 * _1KiB;
+    public static final int MIN_BLOCK_SIZE = _1KiB;
+    public static final int MAX_REGIONS = 16 * _1KiB;   // IORING_MAX_REG_BUFFERS
+
+    private static final int MIN_BLOCK_BITS = Integer.numberOfTrailingZeros(MIN_BLOCK_SIZE);
+    private static final int REGION_BITS = Integer.numberOfTrailingZeros(MAX_REGIONS);
+    private static final int BLOCK_BITS = Integer.SIZE - MIN_BLOCK_BITS;
+    private static final long BLOCK_MASK = (1L << BLOCK_BITS) - 1;
+    private static final int CLASS_COUNT = Integer.numberOfTrailingZeros(CHUNK_SIZE) - MIN_BLOCK_BITS + 1;
+    private static final int CHUNK_CLASS = CLASS_COUNT - 1;
+    private static final int STRIPES = ceilingPowerOfTwo(Runtime.getRuntime().availableProcessors());
+
+    private final Region[] regions;
+    private final int regionSize;
+    private final SizeClass[] classes = new SizeClass[CLASS_COUNT];
+    private volatile int regionCount;
+    // Maximal number of regions, reduced if some ring can't register regions added later. Guarded by the lock.
+    private int regionLimit;
 
-    private final OffHeapSlice arena;
-    private final BitSet chunkMap;
-    private final int totalChunks;
+    private ChunkedAllocator(OffHeapSlice arena, int maxRegions) {
+        this.regions = new Region[maxRegions];
+        this.regionSize = arena.size();
+        this.regions[0] = new Region(arena, 0);
+        this.regionCount = 1;
+        this.regionLimit = maxRegions;
 
-    private ChunkedAllocator(OffHeapSlice arena) {
-        this.arena = arena;
-        this.totalChunks = arena.size() / CHUNK_SIZE;
-        this.chunkMap = new BitSet(totalChunks);
+        for (int i = 0; i < CLASS_COUNT; i++) {
+            classes[i] = new SizeClass(MIN_BLOCK_SIZE << i);
+        }
     }
 
+    /**
+     * Create allocator with single arena of the specified size.
+     */
     public static ChunkedAllocator allocator(int size) {
         return allocator(OffHeapSlice.fixedSize(size));
     }
 
+    /**
+     * Create allocator with single provided arena.
+     */
     public static ChunkedAllocator allocator(OffHeapSlice arena) {
-        return new ChunkedAllocator(arena);
+        return new ChunkedAllocator(arena, 1);
     }
 
-    public ChunkedAllocator register(UringApi api) {
-        api.registerBuffers(arena).onFailure(failure -> {
+    /**
+     * Create allocator which starts with single region of {@code regionSize} bytes and grows up to {@code maxRegions} regions on demand.
+     */
+    public static ChunkedAllocator allocator(int regionSize, int maxRegions) {
+        if (maxRegions < 1 || maxRegions > MAX_REGIONS) {
+            throw new IllegalArgumentException("Number of regions must be in range 1.." + MAX_REGIONS + ", got " + maxRegions);
+        }
+
+        return new ChunkedAllocator(OffHeapSlice.fixedSize(regionSize), maxRegions);
+    }
+
+    private static int ceilingPowerOfTwo(int value) {
+        return 1 << (32 - Integer.numberOfLeadingZeros(Math.max(1, value) - 1));
+    }
+
+    /**
+     * Register allocator memory with the ring.
+     * <p>
+     * If allocator can grow, ring gets sparse table of fixed buffers with the slot for each possible region and regions added later are
+     * registered by {@link Registration#sync()}. If kernel does not support sparse tables, only existing regions are registered and allocator
+     * stops growing, since buffers from regions added later could not be used with this ring.
+     * <p>
+     * Must be invoked before ring is attached to the worker thread.
+     */
+    public Registration register(UringApi api) {
+        if (regions.length > 1) {
+            int count = regionCount;
+            var result = api.registerBufferTable(regions.length)
+                            .flatMap(__ -> api.updateBuffers(0, arenas(0, count)));
+
+            if (result.isSuccess()) {
+                return new Registration(api, regions.length, count);
+            }
+
+            api.unregisterBuffers();
+        }
+
+        int count;
+
+        synchronized (regions) {
+            if (regionLimit > regionCount) {
+                LOG.warn("Sparse fixed buffer table is not supported, allocator is limited to {} region(s)", regionCount);
+            }
+
+            regionLimit = regionCount;
+            count = regionCount;
+        }
+
+        api.registerBuffers(arenas(0, count)).onFailure(failure -> {
             throw new IllegalStateException("FixedBuffer registration error: " + failure.message() + " " + this);
         });
-        return this;
+        return new Registration(api, count, count);
     }
 
     public void close() {
-        arena.close();
+        int count = regionCount;
+
+        for (int i = 0; i < count; i++) {
+            regions[i].arena.close();
+        }
     }
 
     public Result<FixedBuffer> allocate(int size) {
+        if (size > CHUNK_SIZE) {
+            return allocateRun(size);
+        }
+
+        var sizeClass = classOf(size);
+        var stripe = stripe();
+        var handle = classes[sizeClass].pop(stripe);
+
+        if (handle < 0) {
+            handle = refill(sizeClass, stripe);
+        }
+
+        if (handle < 0) {
+            return SystemError.ENOMEM.result();
+        }
+
+        var region = regions[region(handle)];
+
+        return Result.success(new FixedBuffer(region.arena.slice(offset(handle), size), this, region.index));
+    }
+
+    public void dispose(FixedBuffer buffer) {
+        var region = regions[buffer.bufIndex()];
+        var offset = (int) (buffer.address() - region.arena.address());
+
+        if (buffer.size() > CHUNK_SIZE) {
+            synchronized (regions) {
+                var from = offset / CHUNK_SIZE;
+
+                // BitSet.clear() does most of the necessary checks
+                region.chunkMap.clear(from, from + calculateNumChunks(buffer.size()));
+            }
+            return;
+        }
+
+        var handle = handle(region.index, offset);
+
+        classes[classOf(buffer.size())].push(stripe(), handle, handle);
+    }
+
+    public int regionCount() {
+        return regionCount;
+    }
+
+    /**
+     * Map of chunks of all regions, one line (up to 64 chunks) per row. Free chunks are shown as {@code '.'}, chunks allocated to larger
+     * buffers as {@code 'U'} and chunks carved into blocks of size classes as {@code 'S'}.
+     */
+    public String allocationMap() {
+        var builder = new StringBuilder();
+
+        synchronized (regions) {
+            int count = regionCount;
+
+            for (int i = 0; i < count; i++) {
+                if (!builder.isEmpty() && builder.charAt(builder.length() - 1) != '\n') {
+                    builder.append('\n');
+                }
+
+                regions[i].allocationMap(builder);
+            }
+        }
+
+        return builder.toString();
+    }
+
+    private Result<FixedBuffer> allocateRun(int size) {
         var numChunks = calculateNumChunks(size);
 
-        synchronized (chunkMap) {
+        synchronized (regions) {
+            var buffer = findRun(size, numChunks);
+
+            // Free whole chunks cached by the size class might fill the gaps
+            if (buffer.isEmpty() && reclaimChunks() > 0) {
+                buffer = findRun(size, numChunks);
+            }
+
+            if (buffer.isPresent()) {
+                return buffer.toResult(SystemError.ENOMEM);
+            }
+
+            if (size > regionSize) {
+                return SystemError.ENOMEM.result();
+            }
+
+            return addRegion()
+                .flatMap(region -> region.allocate(size, numChunks))
+                .toResult(SystemError.ENOMEM);
+        }
+    }
+
+    private Option<FixedBuffer> findRun(int size, int numChunks) {
+        int count = regionCount;
+
+        for (int i = 0; i < count; i++) {
+            var buffer = regions[i].allocate(size, numChunks);
+
+            if (buffer.isPresent()) {
+                return buffer;
+            }
+        }
+
+        return Option.empty();
+    }
+
+    // Must be invoked while holding the lock
+    private Option<Region> addRegion() {
+        int count = regionCount;
+
+        if (count == regionLimit) {
+            // no space left
+            return Option.empty();
+        }
+
+        var region = new Region(OffHeapSlice.fixedSize(regionSize), count);
+
+        regions[count] = region;
+        regionCount = count + 1;
+
+        return Option.option(region);
+    }
+
+    // Return free whole chunks cached by the largest size class back to the chunk map. Must be invoked while holding the lock.
+    private int reclaimChunks() {
+        var sizeClass = classes[CHUNK_CLASS];
+        int reclaimed = 0;
+
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            for (var handle = sizeClass.popStripe(stripe); handle >= 0; handle = sizeClass.popStripe(stripe)) {
+                regions[region(handle)].release(offset(handle) / CHUNK_SIZE);
+                reclaimed++;
+            }
+        }
+
+        return reclaimed;
+    }
+
+    // Carve new chunk into blocks of the size class, first block is returned to caller and the rest is added to the free list.
+    private long refill(int sizeClass, int stripe) {
+        synchronized (regions) {
+            // Other thread might already refill the class
+            var handle = classes[sizeClass].pop(stripe);
+
+            if (handle >= 0) {
+                return handle;
+            }
+
+            var chunk = takeChunk();
+
+            if (chunk < 0) {
+                return -1;
+            }
+
+            // Handles of adjacent blocks of the class differ by the block size in units of minimal block
+            var step = 1L << sizeClass;
+            var blocks = CHUNK_SIZE >> (MIN_BLOCK_BITS + sizeClass);
+
+            if (blocks > 1) {
+                var first = chunk + step;
+                var last = chunk + (blocks - 1) * step;
+
+                for (var block = first; block < last; block += step) {
+                    RawMemory.putLong(address(block), block + step);
+                }
+
+                classes[sizeClass].push(stripe, first, last);
+            }
+
+            return chunk;
+        }
+    }
+
+    // Find free chunk and assign it to size class, growing if necessary. Must be invoked while holding the lock.
+    private long takeChunk() {
+        int count = regionCount;
+
+        for (int i = 0; i < count; i++) {
+            var handle = regions[i].take();
+
+            if (handle >= 0) {
+                return handle;
+            }
+        }
+
+        if (reclaimChunks() > 0) {
+            return takeChunk();
+        }
+
+        return addRegion()
+            .map(Region::take)
+            .or(-1L);
+    }
+
+    // Block handle consists of region index and number of the block inside region, counted in units of the minimal block size
+    private static long handle(int region, int offset) {
+        return ((long) region << BLOCK_BITS) | (offset >>> MIN_BLOCK_BITS);
+    }
+
+    private static int region(long handle) {
+        return (int) (handle >>> BLOCK_BITS);
+    }
+
+    private static int offset(long handle) {
+        return (int) (handle & BLOCK_MASK) << MIN_BLOCK_BITS;
+    }
+
+    private long address(long handle) {
+        return regions[region(handle)].arena.address() + offset(handle);
+    }
+
+    private static int classOf(int size) {
+        // Smallest power of two which fits requested size
+        return Math.max(0, Integer.SIZE - Integer.numberOfLeadingZeros(Math.max(size, 1) - 1) - MIN_BLOCK_BITS);
+    }
+
+    private static int stripe() {
+        return (int) Thread.currentThread().threadId() & (STRIPES - 1);
+    }
+
+    private OffHeapSlice[] arenas(int from, int to) {
+        return Arrays.stream(regions, from, to)
+                     .map(region -> region.arena)
+                     .toArray(OffHeapSlice[]::new);
+    }
+
+    private static int calculateNumChunks(int size) {
+        return (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    }
+
+    @Override
+    public String toString() {
+        return "ChunkedAllocator(" + HexFormat.of().toHexDigits(regions[0].arena.address()) + ", " + regionCount + " regions)";
+    }
+
+    /**
+     * Free lists of blocks of single size class. Each stripe is a Treiber stack, link to the next free block is stored in the first bytes of the
+     * free block itself. Stack head contains handle of the top block and modification counter, which protects it from ABA problem.
+     */
+    private final class SizeClass {
+        // Handles fit into 36 bits: 14 bits of region index and 22 bits of block number, remaining 28 bits are used by counter. Region is
+        // smaller than 2GiB, so block number never has all bits set and such a value marks end of the list.
+        private static final int HANDLE_BITS = REGION_BITS + BLOCK_BITS;
+        private static final long HANDLE_MASK = (1L << HANDLE_BITS) - 1;
+        private static final long EMPTY = HANDLE_MASK;
+        // Heads of stripes are placed into separate cache lines
+        private static final int STRIDE = 8;
+
+        private final AtomicLongArray heads = new AtomicLongArray(STRIPES * STRIDE);
+        private final int blockSize;
+
+        private SizeClass(int blockSize) {
+            this.blockSize = blockSize;
+
+            for (int i = 0; i < STRIPES; i++) {
+                heads.set(i * STRIDE, EMPTY);
+            }
+        }
+
+        // Take block from the stripe of the calling thread, or from other stripe if that one is empty
+        long pop(int stripe) {
+            for (int i = 0; i < STRIPES; i++) {
+                var handle = popStripe((stripe + i) & (STRIPES - 1));
+
+                if (handle >= 0) {
+                    return handle;
+                }
+            }
+
+            return -1;
+        }
+
+        long popStripe(int stripe) {
+            var index = stripe * STRIDE;
+
+            while (true) {
+                var head = heads.get(index);
+                var top = head & HANDLE_MASK;
+
+                if (top == EMPTY) {
+                    return -1;
+                }
+
+                // Block might be taken and reused concurrently, then read value is garbage, but CAS fails because counter has changed
+                var next = RawMemory.getLong(address(top)) & HANDLE_MASK;
+
+                if (heads.compareAndSet(index, head, stamp(head, next))) {
+                    return top;
+                }
+            }
+        }
+
+        // Push chain of blocks already linked from first to last
+        void push(int stripe, long first, long last) {
+            var index = stripe * STRIDE;
+            var address = address(last);
+
+            while (true) {
+                var head = heads.get(index);
+                var top = head & HANDLE_MASK;
+
+                RawMemory.putLong(address, top);
+
+                if (heads.compareAndSet(index, head, stamp(head, first))) {
+                    return;
+                }
+            }
+        }
+
+        private static long stamp(long head, long top) {
+            return ((head >>> HANDLE_BITS) + 1) << HANDLE_BITS | top;
+        }
+
+        @Override
+        public String toString() {
+            return "SizeClass(" + blockSize + ")";
+        }
+    }
+
+    private final class Region {
+        private final OffHeapSlice arena;
+        private final BitSet chunkMap;
+        private final BitSet slabMap;
+        private final int totalChunks;
+        private final short index;
+
+        private Region(OffHeapSlice arena, int index) {
+            this.arena = arena;
+            this.index = (short) index;
+            this.totalChunks = arena.size() / CHUNK_SIZE;
+            this.chunkMap = new BitSet(totalChunks);
+            this.slabMap = new BitSet(totalChunks);
+        }
+
+        // Assign free chunk to size class, returns handle of the chunk
+        private long take() {
+            var chunk = chunkMap.nextClearBit(0);
+
+            if (chunk >= totalChunks) {
+                return -1;
+            }
+
+            chunkMap.set(chunk);
+            slabMap.set(chunk);
+
+            return handle(index, chunk * CHUNK_SIZE);
+        }
+
+        // Return chunk of size class back
+        private void release(int chunk) {
+            chunkMap.clear(chunk);
+            slabMap.clear(chunk);
+        }
+
+        private Option<FixedBuffer> allocate(int size, int numChunks) {
             var start = 0;
 
             while (start < totalChunks) {
                 var from = chunkMap.nextClearBit(start);
 
-                if (from == totalChunks) {
+                if (from >= totalChunks) {
                     // no space left
-                    return SystemError.ENOMEM.result();
+                    return Option.empty();
                 }
 
                 int freeChunks = checkFreeChunks(from, numChunks);
@@ -87,34 +529,30 @@ public class ChunkedAllocator {
                 if (freeChunks == numChunks) {
                     chunkMap.set(from, from + numChunks);
                     // found segment of necessary size
-                    return Result.success(new FixedBuffer(arena.slice(from * CHUNK_SIZE, size), this));
+                    return Option.option(new FixedBuffer(arena.slice(from * CHUNK_SIZE, size), ChunkedAllocator.this, index));
                 }
 
-                start += from + freeChunks + 1;
+                start = from + freeChunks + 1;
             }
 
-            return SystemError.ENOMEM.result();
+            return Option.empty();
         }
-    }
 
-    public void dispose(FixedBuffer buffer) {
-        var numChunks = calculateNumChunks(buffer.size());
-        var from = (int) ((buffer.address() - arena.address()) / CHUNK_SIZE);
-
-        synchronized (chunkMap) {
-            // BitSet.clear() does most of the necessary checks
-            chunkMap.clear(from, from + numChunks);
+        private int checkFreeChunks(int from, int numChunks) {
+            for (int i = 1; i < numChunks; i++) {
+                int index = from + i;
+                if (index >= totalChunks || chunkMap.get(index)) {
+                    return i;
+                }
+            }
+            return numChunks;
         }
-    }
-
-    public String allocationMap() {
-        var builder = new StringBuilder();
 
-        synchronized (chunkMap) {
+        private void allocationMap(StringBuilder builder) {
             var counter = 0;
 
             for (int i = 0; i < totalChunks; i++) {
-                builder.append(chunkMap.get(i) ? 'U':'.');
+                builder.append(slabMap.get(i) ? 'S' : chunkMap.get(i) ? 'U' : '.');
 
                 if (++counter == 64) {
                     builder.append('\n');
@@ -122,26 +560,46 @@ public class ChunkedAllocator {
                 }
             }
         }
-
-        return builder.toString();
     }
 
-    private static int calculateNumChunks(int size) {
-        return (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
-    }
+    /**
+     * Registration of the allocator memory with particular ring.
+     */
+    public final class Registration {
+        private final UringApi api;
+        private final int capacity;
+        private int registered;
 
-    private int checkFreeChunks(int from, int numChunks) {
-        for (int i = 1; i < numChunks; i++) {
-            int index = from + i;
-            if (index >= totalChunks || chunkMap.get(index)) {
-                return i;
-            }
+        private Registration(UringApi api, int capacity, int registered) {
+            this.api = api;
+            this.capacity = capacity;
+            this.registered = registered;
         }
-        return numChunks;
-    }
 
-    @Override
-    public String toString() {
-        return "ChunkedAllocator(" + HexFormat.of().toHexDigits(arena.address()) + ")";
+        /**
+         * Register regions added since last invocation. Must be invoked by the ring worker thread after pending operation is taken from the
+         * backlog and before it is passed to the kernel (see {@link UringApi#submissionBarrier(Runnable)}), so operations which use buffers
+         * from new regions are submitted only after regions are registered.
+         */
+        public void sync() {
+            int count = regionCount;
+
+            if (count == registered) {
+                return;
+            }
+
+            int limit = Math.min(count, capacity);
+
+            if (limit > registered) {
+                api.updateBuffers(registered, arenas(registered, limit))
+                   .onFailure(failure -> LOG.error("Unable to register fixed buffers: {}", failure.message()));
+            }
+
+            if (count > limit) {
+                LOG.warn("Fixed buffer table is full, regions {}..{} are not available for the ring", limit, count - 1);
+            }
+
+            registered = count;
+        }
     }
 }
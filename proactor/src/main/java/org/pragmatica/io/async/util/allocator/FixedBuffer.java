@@ -25,10 +25,19 @@ import org.pragmatica.io.async.util.OffHeapSlice;
 public class FixedBuffer implements OffHeapSlice {
     private final OffHeapSlice slice;
     private final ChunkedAllocator owner;
+    private final short bufIndex;
 
-    FixedBuffer(OffHeapSlice slice, ChunkedAllocator owner) {
+    FixedBuffer(OffHeapSlice slice, ChunkedAllocator owner, short bufIndex) {
         this.slice = slice;
         this.owner = owner;
+        this.bufIndex = bufIndex;
+    }
+
+    /**
+     * Index of the registered buffer which contains this buffer. Passed to the kernel with every operation which uses this buffer.
+     */
+    public short bufIndex() {
+        return bufIndex;
     }
 
     public void dispose() {
@@ -0,0 +1,109 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.pragmatica.io.async.util.allocator;
+
+import org.pragmatica.io.async.util.OffHeapSlice;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Buffer from the {@link BufferRing}, selected by the kernel for the operation.
+ * <p>
+ * Buffer must be returned to the ring with {@link #release()} once its content is no longer necessary. Buffer content must not be accessed
+ * after release.
+ */
+public class ProvidedBuffer implements OffHeapSlice {
+    private final OffHeapSlice slice;
+    private final BufferRing owner;
+    private final short id;
+    private final AtomicBoolean acquired = new AtomicBoolean(false);
+
+    ProvidedBuffer(OffHeapSlice slice, BufferRing owner, short id) {
+        this.slice = slice;
+        this.owner = owner;
+        this.id = id;
+    }
+
+    /**
+     * Buffer ID, as reported by the kernel.
+     */
+    public short id() {
+        return id;
+    }
+
+    ProvidedBuffer acquire(int used) {
+        slice.used(Math.max(used, 0));
+        acquired.set(true);
+        return this;
+    }
+
+    /**
+     * Return buffer to the ring. Repeated invocations are ignored, even if they race.
+     */
+    public void release() {
+        if (acquired.compareAndSet(true, false)) {
+            owner.giveBack(this);
+        }
+    }
+
+    @Override
+    public long address() {
+        return slice.address();
+    }
+
+    @Override
+    public int size() {
+        return slice.size();
+    }
+
+    @Override
+    public ProvidedBuffer clear() {
+        slice.clear();
+        return this;
+    }
+
+    @Override
+    public int used() {
+        return slice.used();
+    }
+
+    @Override
+    public ProvidedBuffer used(int used) {
+        slice.used(used);
+        return this;
+    }
+
+    @Override
+    public OffHeapSlice slice(int offset, int length) {
+        return slice.slice(offset, length);
+    }
+
+    @Override
+    public byte[] export() {
+        return slice.export();
+    }
+
+    @Override
+    public String hexDump() {
+        return slice.hexDump();
+    }
+
+    @Override
+    public void close() {
+        release();
+    }
+}
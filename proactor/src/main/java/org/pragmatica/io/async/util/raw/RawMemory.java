@@ -68,6 +68,14 @@ public final class RawMemory {
         return instance.getIntVolatile(null, address);
     }
 
+    public static int getIntAcquire(long address) {
+        return instance.getIntAcquire(null, address);
+    }
+
+    public static void fullFence() {
+        instance.fullFence();
+    }
+
     public static short getShort(long address) {
         return instance.getShort(null, address);
     }
@@ -106,6 +114,10 @@ public final class RawMemory {
         instance.putIntVolatile(null, address, value);
     }
 
+    public static void putIntRelease(long address, int value) {
+        instance.putIntRelease(null, address, value);
+    }
+
     public static void putShort(long address, short value) {
         instance.putShort(null, address, value);
     }
@@ -114,6 +126,10 @@ public final class RawMemory {
         instance.putShortVolatile(null, address, value);
     }
 
+    public static void putShortRelease(long address, short value) {
+        instance.putShortRelease(null, address, value);
+    }
+
     public static void putByte(long address, byte value) {
         instance.putByte(null, address, value);
     }
@@ -140,6 +156,10 @@ public final class RawMemory {
         instance.freeMemory(address);
     }
 
+    public static int pageSize() {
+        return instance.pageSize();
+    }
+
     public static void clear(long address, long size) {
         instance.setMemory(address, size, (byte) 0);
     }
@@ -6,72 +6,107 @@
 #include <asm-generic/socket.h>
 #include <netinet/in.h>
 #include <linux/stat.h>
+#include <signal.h>
+#include <unistd.h>
+#include <sys/eventfd.h>
 
 #include <liburing.h>
 #include <syscall.h>
 
 
 #define RING_PTR        ((struct io_uring *) base_address)
-#define CQE_BATCH_PTR   ((struct io_uring_cqe **) completions_address)
-#define CQE_ARRAY_PTR   ((struct io_uring_cqe *) completions_address)
-#define COUNT           ((unsigned) count)
 
-#define SQ_ENTRY_SIZE       48
-#define SUBMIT_IMMEDIATE    0x01
-#define SUBMIT_WAIT         0x02
+#define NANOS_IN_SECOND     1000000000L
 
-/* Initialize the ring */
-int ring_open(int num_entries, long base_address, int flags) {
-    return io_uring_queue_init((unsigned) num_entries, RING_PTR, (unsigned) flags);
-}
+#define RING_FD(flags)  (((flags) & IORING_ENTER_REGISTERED_RING) ? RING_PTR->enter_ring_fd : RING_PTR->ring_fd)
 
-/* Shutdown the ring */
-void ring_close(long base_address) {
-    io_uring_queue_exit(RING_PTR);
+/* Initialize the ring using setup parameters prepared by the caller. Parameters are updated with actual values on return */
+int ring_open(int num_entries, long base_address, long params_address) {
+    return io_uring_queue_init_params((unsigned) num_entries, RING_PTR, (struct io_uring_params *) params_address);
 }
 
-int ring_copy_cqes(long base_address, long completions_address, int count) {
-    struct io_uring *ring = RING_PTR;
-    struct io_uring_cqe *cqe = CQE_ARRAY_PTR;
-
-    unsigned ready = io_uring_cq_ready(ring);
+/* Register empty file table of specified size */
+int ring_register_files_sparse(long base_address, int count) {
+    int rc = io_uring_register_files_sparse(RING_PTR, (unsigned) count);
 
-    if (!ready) {
-        return 0;
-    }
+    return (rc < 0) ? rc : 0;
+}
 
-    unsigned head = *ring->cq.khead;
-    unsigned mask = ring->cq.ring_mask;
+/* Retrieve ring file descriptor, necessary to share backend with other rings */
+int ring_fd(long base_address) {
+    return RING_PTR->ring_fd;
+}
 
-    count = count > ready ? ready : count;
+/* Register ring file descriptor for the calling thread, returns registered index which should be used with IORING_ENTER_REGISTERED_RING */
+int ring_register_ring_fd(long base_address) {
+    int rc = io_uring_register_ring_fd(RING_PTR);
 
-    unsigned last = head + count;
+    return (rc < 0) ? rc : RING_PTR->enter_ring_fd;
+}
 
-    for (;head != last; head++) {
-        *cqe++ = ring->cq.cqes[head & mask];
-    }
+/* Unregister ring file descriptor, must be called by the same thread which registered it */
+int ring_unregister_ring_fd(long base_address) {
+    int rc = io_uring_unregister_ring_fd(RING_PTR);
 
-    io_uring_cq_advance(ring, count);
+    return (rc < 0) ? rc : 0;
+}
 
-    return count;
+/* Shutdown the ring */
+void ring_close(long base_address) {
+    io_uring_queue_exit(RING_PTR);
 }
 
-int ring_direct_submit(long base_address, long submission_entries, int count, int flags) {
-    unsigned char* filled_entries = (unsigned char*) submission_entries;
+/* Export addresses of the submission queue ring fields, so entries can be filled directly from Java side */
+void ring_sq_layout(long base_address, long layout_address) {
+    struct io_uring *ring = RING_PTR;
+    long *layout = (long *) layout_address;
+
+    layout[0] = (long) ring->sq.khead;
+    layout[1] = (long) ring->sq.ktail;
+    layout[2] = (long) ring->sq.kring_mask;
+    layout[3] = (long) ring->sq.kring_entries;
+    layout[4] = (long) ring->sq.kflags;
+    layout[5] = (long) ring->sq.array;
+    layout[6] = (long) ring->sq.sqes;
+}
 
-    for (int i = 0; i < count; i++, filled_entries += SQ_ENTRY_SIZE) {
-        struct io_uring_sqe* entry = io_uring_get_sqe(RING_PTR);
+/* Export addresses of the completion queue ring fields, so entries can be consumed directly from Java side */
+void ring_cq_layout(long base_address, long layout_address) {
+    struct io_uring *ring = RING_PTR;
+    long *layout = (long *) layout_address;
+
+    layout[0] = (long) ring->cq.khead;
+    layout[1] = (long) ring->cq.ktail;
+    layout[2] = (long) ring->cq.kring_mask;
+    layout[3] = (long) ring->cq.kring_entries;
+    layout[4] = (long) ring->cq.koverflow;
+    layout[5] = (long) ring->cq.cqes;
+}
 
-        memcpy(entry, filled_entries, SQ_ENTRY_SIZE);
-    }
+/* Submit entries already placed into submission queue and/or wait for completions */
+int ring_enter(long base_address, int to_submit, int min_complete, int flags) {
+    int rc = syscall(__NR_io_uring_enter, RING_FD(flags), (unsigned) to_submit, (unsigned) min_complete, (unsigned) flags, NULL, 0);
 
-    if (flags & SUBMIT_IMMEDIATE) {
-        int wait_cnt = (flags & SUBMIT_WAIT) ? count : 0;
+    return (rc < 0) ? -errno : rc;
+}
 
-        return io_uring_submit_and_wait(RING_PTR, wait_cnt);
-    }
+/* Wait for at least one completion, but no longer than specified timeout */
+int ring_wait(long base_address, int flags, long timeout_nanos) {
+    struct __kernel_timespec ts = {
+        .tv_sec = timeout_nanos / NANOS_IN_SECOND,
+        .tv_nsec = timeout_nanos % NANOS_IN_SECOND
+    };
+    struct io_uring_getevents_arg arg = {
+        .sigmask = 0,
+        .sigmask_sz = _NSIG / 8,
+        .pad = 0,
+        .ts = (unsigned long) &ts
+    };
+
+    int rc = syscall(__NR_io_uring_enter, RING_FD(flags), 0, 1,
+                     (unsigned) flags | IORING_ENTER_GETEVENTS | IORING_ENTER_EXT_ARG, &arg, sizeof(arg));
 
-    return 0;
+    return (rc < 0) ? -errno : rc;
 }
 
 /* Perform register operation */
@@ -81,6 +116,27 @@ int ring_register(long base_address, int opcode, long arg, long nr_args) {
     return (rc < 0) ? -errno : rc;
 }
 
+//-----------------------------------------------------
+// Wakeup API
+//-----------------------------------------------------
+
+/* Create event descriptor used to wake up ring waiting for completions */
+int ring_eventfd_open(void) {
+    int fd = eventfd(0, EFD_CLOEXEC);
+
+    return (fd < 0) ? -errno : fd;
+}
+
+/* Signal event descriptor */
+int ring_eventfd_signal(int fd) {
+    return eventfd_write(fd, 1) ? -errno : 0;
+}
+
+/* Close event descriptor */
+void ring_eventfd_close(int fd) {
+    close(fd);
+}
+
 //-----------------------------------------------------
 // Socket API
 //-----------------------------------------------------
@@ -132,6 +188,15 @@ int ring_socket(int domain, int socket_type, int socket_options) {
     return sock;
 }
 
+/* Retrieve address of the peer connected to the socket */
+int ring_peer_name(int sock, long address, long len_address) {
+    if (getpeername((int) sock, (struct sockaddr *) address, (socklen_t *) len_address)) {
+        return get_errno();
+    }
+
+    return 0;
+}
+
 /* Configure socket for listen operation */
 int ring_listen(int sock, long address, int len, int queue_depth) {
     if(bind((int) sock, (struct sockaddr *)address, len)) {
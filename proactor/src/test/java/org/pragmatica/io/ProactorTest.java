@@ -19,23 +19,42 @@ package org.pragmatica.io;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.pragmatica.io.async.LinkMode;
+import org.pragmatica.io.async.SystemError;
 import org.pragmatica.io.async.Timeout;
 import org.pragmatica.io.async.common.OffsetT;
 import org.pragmatica.io.async.common.SizeT;
 import org.pragmatica.io.async.file.FileDescriptor;
 import org.pragmatica.io.async.file.FilePermission;
 import org.pragmatica.io.async.file.OpenFlags;
+import org.pragmatica.io.async.file.stat.FileStat;
+import org.pragmatica.io.async.file.stat.StatFlag;
+import org.pragmatica.io.async.file.stat.StatMask;
 import org.pragmatica.io.async.net.*;
+import org.pragmatica.io.async.uring.exchange.Opcode;
 import org.pragmatica.io.async.util.OffHeapSlice;
+import org.pragmatica.io.async.util.allocator.ProvidedBuffer;
 import org.pragmatica.lang.*;
 
+import jdk.jfr.consumer.RecordingStream;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
 import java.net.UnknownHostException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.util.EnumSet;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.pragmatica.io.async.Proactor.proactor;
 import static org.pragmatica.io.async.util.Units._1KiB;
@@ -67,6 +86,114 @@ class ProactorTest {
                    .onSuccess(duration -> assertTrue(duration.compareTo(Duration.ofMillis(10)) > 0));
     }
 
+    @Test
+    void descriptorIsBoundToHomeProactor() {
+        var fd = FileDescriptor.socket(42);
+        var home = proactor(fd);
+
+        for (int i = 0; i < 100; i++) {
+            assertSame(home, proactor(fd));
+        }
+
+        var address = SocketAddress.socketAddress(InetPort.inetPort(80), InetAddress.Inet4Address.INADDR_ANY);
+
+        assertSame(home, ConnectionContext.connection(fd, address).proactor());
+    }
+
+    @Test
+    void metricsReflectProcessedOperations() {
+        var proactor = proactor();
+        var metrics = proactor.metrics();
+        var submissions = metrics.submissions(Opcode.NOP);
+        var completions = metrics.completions(Opcode.NOP);
+        var nopResult = new AtomicReference<Result<Unit>>();
+
+        proactor.nop(nopResult::set);
+        waitForResult(nopResult);
+
+        assertTrue(metrics.submissions(Opcode.NOP) > submissions);
+        assertTrue(metrics.completions(Opcode.NOP) > completions);
+        assertTrue(metrics.loopIterations() > 0);
+        assertTrue(metrics.submitBatches() > 0);
+        assertTrue(metrics.latency(Opcode.NOP).count() > 0);
+    }
+
+    @Test
+    void completionsAreRecordedByFlightRecorder() throws InterruptedException {
+        var recorded = new CountDownLatch(1);
+
+        try (var stream = new RecordingStream()) {
+            stream.enable("org.pragmatica.io.Completion").withThreshold(Duration.ZERO);
+            stream.onEvent("org.pragmatica.io.Completion", event -> {
+                if ("NOP".equals(event.getString("operation"))) {
+                    recorded.countDown();
+                }
+            });
+            stream.startAsync();
+
+            var nopResult = new AtomicReference<Result<Unit>>();
+
+            proactor().nop(nopResult::set);
+            waitForResult(nopResult);
+
+            assertTrue(recorded.await(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void operationCanBeCancelled() {
+        var delayResult = new AtomicReference<Result<Duration>>();
+        var operation = proactor().delay(delayResult::set, Timeout.timeout(10).seconds());
+
+        operation.cancel();
+        waitForResult(delayResult);
+
+        assertEquals(SystemError.ECANCELED.result(), delayResult.get());
+    }
+
+    @Test
+    void operationIsCancelledWhenTimeoutExpires() throws IOException {
+        var proactor = proactor();
+
+        try (var server = new ServerSocket(0, 1, java.net.InetAddress.getLoopbackAddress())) {
+            var address = InetAddress.inet4Address(server.getInetAddress().getAddress())
+                                     .fold(ProactorTest::throwIfError,
+                                           inetAddress -> SocketAddress.socketAddress(InetPort.inetPort(server.getLocalPort()), inetAddress));
+
+            var socketResult = new AtomicReference<Result<FileDescriptor>>();
+            proactor.socket(socketResult::set, AddressFamily.INET, SocketType.STREAM, SocketFlag.none(), SocketOption.reuseAll());
+
+            waitForResult(socketResult);
+            var fd = socketResult.get().fold(ProactorTest::throwIfError, Functions::id);
+
+            var connectResult = new AtomicReference<Result<FileDescriptor>>();
+            proactor.connect(connectResult::set, fd, address, option(Timeout.timeout(1).seconds()));
+
+            waitForResult(connectResult);
+            connectResult.get().onFailure(ProactorTest::fail);
+
+            var buffer = OffHeapSlice.fixedSize(_1KiB);
+
+            try (var ignored = server.accept()) {
+                // Peer sends nothing, so receive is stopped by timeout
+                for (int i = 0; i < 3; i++) {
+                    var recvResult = new AtomicReference<Result<SizeT>>();
+                    proactor.recv(recvResult::set, fd, buffer, EnumSet.noneOf(MessageFlags.class), option(Timeout.timeout(10).millis()));
+
+                    waitForResult(recvResult);
+                    assertEquals(SystemError.ECANCELED.result(), recvResult.get());
+                }
+            } finally {
+                buffer.close();
+
+                var closeResult = new AtomicReference<Result<Unit>>();
+                proactor.close(closeResult::set, fd, empty());
+
+                waitForResult(closeResult);
+            }
+        }
+    }
+
     @Test
     void fileCanBeOpenedReadAndClosed() {
         var fileDescriptor = new AtomicReference<Result<FileDescriptor>>();
@@ -108,6 +235,340 @@ class ProactorTest {
         waitForResult(closeResult);
     }
 
+    @Test
+    void fileCanBeOpenedDirectlyReadAndClosed() {
+        // Fixed descriptor is valid only within the proactor which created it
+        var proactor = proactor();
+        var fileDescriptor = new AtomicReference<Result<FileDescriptor>>();
+
+        proactor.openDirect((result, __) -> fileDescriptor.set(result),
+                            Path.of("src/test/resources/english-wiki.test.data"),
+                            EnumSet.of(OpenFlags.READ_ONLY),
+                            EnumSet.noneOf(FilePermission.class),
+                            empty());
+
+        waitForResult(fileDescriptor);
+
+        var fd = fileDescriptor.get().fold(ProactorTest::throwIfError, Functions::id);
+        assertTrue(fd.isFixed());
+        assertSame(proactor, proactor(fd));
+
+        var readResult = new AtomicReference<Result<SizeT>>();
+        var buffer = OffHeapSlice.fixedSize(_1KiB);
+
+        try {
+            proactor.readVector(readResult::set, fd, buffer);
+            waitForResult(readResult);
+
+            readResult.get()
+                      .onSuccess(sz -> assertTrue(sz.value() > 0))
+                      .onFailure(ProactorTest::fail);
+        } finally {
+            buffer.close();
+        }
+
+        var closeResult = new AtomicReference<Result<Unit>>();
+        proactor.close(closeResult::set, fd, empty());
+
+        waitForResult(closeResult);
+        closeResult.get()
+                   .onFailure(ProactorTest::fail);
+    }
+
+    @Test
+    void statOfFixedDescriptorIsRejected() {
+        var statResult = new AtomicReference<Result<FileStat>>();
+
+        proactor().stat(statResult::set, FileDescriptor.fixedFile(0, 0), EnumSet.noneOf(StatFlag.class), StatMask.basic(), empty());
+
+        assertEquals(SystemError.EBADF.result(), statResult.get());
+    }
+
+    @Test
+    void linkedOperationsAreSubmittedAsChain() {
+        var proactor = proactor();
+        var fileDescriptor = new AtomicReference<Result<FileDescriptor>>();
+
+        proactor.open(fileDescriptor::set,
+                      Path.of("src/test/resources/english-wiki.test.data"),
+                      EnumSet.of(OpenFlags.READ_ONLY),
+                      EnumSet.noneOf(FilePermission.class),
+                      empty());
+
+        waitForResult(fileDescriptor);
+
+        var fd = fileDescriptor.get().fold(ProactorTest::throwIfError, Functions::id);
+        var readResult = new AtomicReference<Result<SizeT>>();
+        var closeResult = new AtomicReference<Result<Unit>>();
+        var chainResult = new AtomicReference<Result<Unit>>();
+        var buffer = OffHeapSlice.fixedSize(_1KiB);
+
+        try {
+            proactor.chain(chainResult::set, steps -> {
+                steps.read(readResult::set, fd, buffer, OffsetT.ZERO, empty());
+                steps.close(closeResult::set, fd, empty());
+            });
+
+            waitForResult(chainResult);
+
+            chainResult.get().onFailure(ProactorTest::fail);
+            readResult.get()
+                      .onFailure(ProactorTest::fail)
+                      .onSuccess(size -> assertEquals(_1KiB, size.value()));
+            closeResult.get().onFailure(ProactorTest::fail);
+        } finally {
+            buffer.close();
+        }
+    }
+
+    @Test
+    void failureCancelsRestOfChain() {
+        var readResult = new AtomicReference<Result<SizeT>>();
+        var nopResult = new AtomicReference<Result<Unit>>();
+        var chainResult = new AtomicReference<Result<Unit>>();
+        var buffer = OffHeapSlice.fixedSize(_1KiB);
+
+        try {
+            proactor().chain(chainResult::set, steps -> {
+                steps.read(readResult::set, FileDescriptor.file(-1), buffer, OffsetT.ZERO, empty());
+                steps.nop(nopResult::set);
+            });
+
+            waitForResult(chainResult);
+
+            assertEquals(SystemError.EBADF.result(), readResult.get());
+            assertEquals(SystemError.ECANCELED.result(), nopResult.get());
+            assertEquals(SystemError.EBADF.result(), chainResult.get());
+        } finally {
+            buffer.close();
+        }
+    }
+
+    @Test
+    void multishotOperationIsRejectedInChain() {
+        var acceptResult = new AtomicReference<Result<ConnectionContext<InetAddress.Inet4Address>>>();
+        var nopResult = new AtomicReference<Result<Unit>>();
+        var chainResult = new AtomicReference<Result<Unit>>();
+
+        proactor().chain(chainResult::set, steps -> {
+            steps.nop(nopResult::set);
+            steps.acceptMultishot((result, __) -> acceptResult.set(result), FileDescriptor.socket(-1), SocketFlag.closeOnExec(),
+                                  InetAddress.Inet4Address.INADDR_ANY);
+        });
+
+        waitForResult(chainResult);
+
+        assertEquals(SystemError.EINVAL.result(), acceptResult.get());
+        assertEquals(Unit.unitResult(), nopResult.get());
+        assertEquals(SystemError.EINVAL.result(), chainResult.get());
+    }
+
+    @Test
+    void batchLargerThanSubmissionQueueIsSubmitted() throws InterruptedException {
+        var count = 1000;
+        var latch = new CountDownLatch(count);
+        var failures = new AtomicInteger();
+
+        proactor().batch(batch -> {
+            for (int i = 0; i < count; i++) {
+                batch.nop(result -> {
+                    result.onFailureDo(failures::incrementAndGet);
+                    latch.countDown();
+                });
+            }
+        });
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(0, failures.get());
+    }
+
+    @Test
+    void operationsBeyondBacklogAreRejected() throws InterruptedException {
+        var proactor = proactor();
+        var count = proactor.maxBacklog() * 4;
+        var latch = new CountDownLatch(count);
+        var unexpected = new AtomicInteger();
+
+        for (int i = 0; i < count; i++) {
+            proactor.nop(result -> {
+                if (result.isFailure() && !result.equals(SystemError.EAGAIN.result())) {
+                    unexpected.incrementAndGet();
+                }
+                latch.countDown();
+            });
+        }
+
+        // Every operation is completed, either successfully or with EAGAIN if backlog was full
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(0, unexpected.get());
+    }
+
+    @Test
+    void chainCanBePartOfBatch() {
+        var nopResult = new AtomicReference<Result<Unit>>();
+        var chainResult = new AtomicReference<Result<Unit>>();
+        var delayResult = new AtomicReference<Result<Duration>>();
+
+        proactor().batch(batch -> {
+            batch.nop(nopResult::set);
+            batch.chain(chainResult::set, LinkMode.HARD, steps -> {
+                steps.delay(delayResult::set, Timeout.timeout(1).millis());
+                steps.nop(__ -> {});
+            });
+        });
+
+        waitForResult(chainResult);
+        waitForResult(nopResult);
+
+        chainResult.get().onFailure(ProactorTest::fail);
+        assertTrue(delayResult.get().isSuccess());
+        assertTrue(nopResult.get().isSuccess());
+    }
+
+    @Test
+    void dataCanBeReceivedIntoProvidedBuffer() throws IOException {
+        var proactor = proactor();
+
+        try (var server = new ServerSocket(0, 1, java.net.InetAddress.getLoopbackAddress())) {
+            var address = InetAddress.inet4Address(server.getInetAddress().getAddress())
+                                     .fold(ProactorTest::throwIfError,
+                                           inetAddress -> SocketAddress.socketAddress(InetPort.inetPort(server.getLocalPort()), inetAddress));
+
+            var socketResult = new AtomicReference<Result<FileDescriptor>>();
+            proactor.socket(socketResult::set, AddressFamily.INET, SocketType.STREAM, SocketFlag.none(), SocketOption.reuseAll());
+
+            waitForResult(socketResult);
+            var fd = socketResult.get().fold(ProactorTest::throwIfError, Functions::id);
+
+            var connectResult = new AtomicReference<Result<FileDescriptor>>();
+            proactor.connect(connectResult::set, fd, address, option(Timeout.timeout(1).seconds()));
+
+            waitForResult(connectResult);
+            connectResult.get().onFailure(ProactorTest::fail);
+
+            try (var peer = server.accept()) {
+                peer.getOutputStream().write("Hello, ring!".getBytes(StandardCharsets.US_ASCII));
+                peer.getOutputStream().flush();
+
+                var recvResult = new AtomicReference<Result<ProvidedBuffer>>();
+                proactor.recv(recvResult::set, fd, EnumSet.noneOf(MessageFlags.class), option(Timeout.timeout(1).seconds()));
+
+                waitForResult(recvResult);
+                recvResult.get()
+                          .onFailure(ProactorTest::fail)
+                          .onSuccess(buffer -> {
+                              assertEquals("Hello, ring!", new String(buffer.export(), StandardCharsets.US_ASCII));
+                              buffer.release();
+                          });
+            } finally {
+                var closeResult = new AtomicReference<Result<Unit>>();
+                proactor.close(closeResult::set, fd, empty());
+
+                waitForResult(closeResult);
+            }
+        }
+    }
+
+    @Test
+    void streamOfDataCanBeReceivedWithSingleSubmission() throws IOException, InterruptedException {
+        var proactor = proactor();
+
+        try (var server = new ServerSocket(0, 1, java.net.InetAddress.getLoopbackAddress())) {
+            var address = InetAddress.inet4Address(server.getInetAddress().getAddress())
+                                     .fold(ProactorTest::throwIfError,
+                                           inetAddress -> SocketAddress.socketAddress(InetPort.inetPort(server.getLocalPort()), inetAddress));
+
+            var socketResult = new AtomicReference<Result<FileDescriptor>>();
+            proactor.socket(socketResult::set, AddressFamily.INET, SocketType.STREAM, SocketFlag.none(), SocketOption.reuseAll());
+
+            waitForResult(socketResult);
+            var fd = socketResult.get().fold(ProactorTest::throwIfError, Functions::id);
+
+            var connectResult = new AtomicReference<Result<FileDescriptor>>();
+            proactor.connect(connectResult::set, fd, address, option(Timeout.timeout(1).seconds()));
+
+            waitForResult(connectResult);
+            connectResult.get().onFailure(ProactorTest::fail);
+
+            var received = new LinkedBlockingQueue<Result<ProvidedBuffer>>();
+            var peer = server.accept();
+
+            try {
+                proactor.recvMultishot((result, __) -> received.add(result), fd, EnumSet.noneOf(MessageFlags.class));
+
+                for (int i = 0; i < 2; i++) {
+                    var message = "Message " + i;
+
+                    peer.getOutputStream().write(message.getBytes(StandardCharsets.US_ASCII));
+                    peer.getOutputStream().flush();
+
+                    var result = received.poll(1, TimeUnit.SECONDS);
+
+                    assertNotNull(result);
+                    result.onFailure(ProactorTest::fail)
+                          .onSuccess(buffer -> {
+                              assertEquals(message, new String(buffer.export(), StandardCharsets.US_ASCII));
+                              buffer.release();
+                          });
+                }
+
+                // Closing peer terminates the stream
+                peer.close();
+
+                var last = received.poll(1, TimeUnit.SECONDS);
+
+                assertNotNull(last);
+                assertTrue(last.isFailure());
+            } finally {
+                peer.close();
+
+                var closeResult = new AtomicReference<Result<Unit>>();
+                proactor.close(closeResult::set, fd, empty());
+
+                waitForResult(closeResult);
+            }
+        }
+    }
+
+    @Test
+    void multipleConnectionsCanBeAcceptedWithSingleSubmission() throws IOException, InterruptedException {
+        var proactor = proactor();
+        var address = InetAddress.inet4Address(new byte[]{127, 0, 0, 1})
+                                 .fold(ProactorTest::throwIfError,
+                                       inetAddress -> SocketAddress.socketAddress(InetPort.inetPort(27200), inetAddress));
+
+        var listenResult = new AtomicReference<Result<ListenContext<InetAddress.Inet4Address>>>();
+        proactor.listen(listenResult::set, address, SocketType.STREAM, SocketFlag.closeOnExec(), SizeT.sizeT(16), SocketOption.reuseAll());
+
+        waitForResult(listenResult);
+        var listener = listenResult.get().fold(ProactorTest::throwIfError, ListenContext::socket);
+        var accepted = new LinkedBlockingQueue<Result<ConnectionContext<InetAddress.Inet4Address>>>();
+
+        proactor.acceptMultishot((result, __) -> accepted.add(result), listener, SocketFlag.closeOnExec(), InetAddress.Inet4Address.INADDR_ANY);
+
+        try {
+            for (int i = 0; i < 3; i++) {
+                try (var client = new Socket(java.net.InetAddress.getLoopbackAddress(), 27200)) {
+                    var result = accepted.poll(1, TimeUnit.SECONDS);
+
+                    assertNotNull(result);
+                    result.onFailure(ProactorTest::fail)
+                          .onSuccess(connection -> {
+                              assertEquals(client.getLocalPort(), Short.toUnsignedInt(connection.address().port().port()));
+
+                              var closeResult = new AtomicReference<Result<Unit>>();
+                              proactor.close(closeResult::set, connection.socket(), empty());
+                              waitForResult(closeResult);
+                          });
+                }
+            }
+        } finally {
+            var closeResult = new AtomicReference<Result<Unit>>();
+            proactor.close(closeResult::set, listener, empty());
+            waitForResult(closeResult);
+        }
+    }
+
     @Disabled
     @Test
     void externalHostCanBeConnectedAndRead() throws UnknownHostException {
@@ -0,0 +1,67 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.pragmatica.io.async;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runner for the JMH benchmarks of this module. All benchmarks use the same throughput settings, so results of different runs are comparable.
+ */
+public final class BenchmarkRunner {
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * Run all benchmarks of the class. Number of threads is defined by the benchmark annotations.
+     */
+    public static void run(Class<?> benchmark) throws RunnerException {
+        new Runner(options(benchmark).build()).run();
+    }
+
+    /**
+     * Run all benchmarks of the class with 1, 2, 4, etc. threads, up to {@code maxThreads}.
+     */
+    public static void runScaling(Class<?> benchmark, int maxThreads) throws RunnerException {
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            System.err.printf("Running %s with %d threads\n", benchmark.getSimpleName(), threads);
+
+            new Runner(options(benchmark).threads(threads).build()).run();
+        }
+    }
+
+    private static ChainedOptionsBuilder options(Class<?> benchmark) {
+        return new OptionsBuilder()
+            .include(benchmark.getName() + ".*")
+            .mode(Mode.Throughput)
+            .timeUnit(TimeUnit.MICROSECONDS)
+            .warmupTime(TimeValue.seconds(1))
+            .warmupIterations(3)
+            .measurementIterations(5)
+            .measurementTime(TimeValue.seconds(2))
+            .forks(1)
+            .jvmArgsAppend("--enable-preview")
+            .shouldFailOnError(true);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.pragmatica.io.async;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IdleStrategyTest {
+    @Test
+    void backoffBlocksOnlyAfterSpinningAndYielding() {
+        var waits = new AtomicInteger();
+        IdleStrategy.Waiter waiter = __ -> waits.incrementAndGet();
+        var strategy = IdleStrategy.backoff(2, 3, Timeout.timeout(1).millis());
+
+        for (int i = 0; i < 5; i++) {
+            strategy.idle(0, waiter);
+        }
+        assertEquals(0, waits.get());
+
+        strategy.idle(0, waiter);
+        strategy.idle(0, waiter);
+        assertEquals(2, waits.get());
+    }
+
+    @Test
+    void backoffIsResetByWork() {
+        var waits = new AtomicInteger();
+        IdleStrategy.Waiter waiter = __ -> waits.incrementAndGet();
+        var strategy = IdleStrategy.backoff(1, 1, Timeout.timeout(1).millis());
+
+        strategy.idle(0, waiter);
+        strategy.idle(0, waiter);
+        strategy.idle(1, waiter);
+        strategy.idle(0, waiter);
+        strategy.idle(0, waiter);
+        assertEquals(0, waits.get());
+
+        strategy.idle(0, waiter);
+        assertEquals(1, waits.get());
+    }
+
+    @Test
+    void spinningAndYieldingStrategiesNeverBlock() {
+        var waits = new AtomicInteger();
+        IdleStrategy.Waiter waiter = __ -> waits.incrementAndGet();
+
+        for (int i = 0; i < 10; i++) {
+            IdleStrategy.busySpin().idle(0, waiter);
+            IdleStrategy.yielding().idle(0, waiter);
+        }
+
+        assertEquals(0, waits.get());
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.pragmatica.io.async;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+    @Test
+    void valuesAreMappedToBucketsWithBoundedRelativeError() {
+        assertEquals(0, LatencyHistogram.index(0));
+        assertEquals(31, LatencyHistogram.index(31));
+        assertEquals(32, LatencyHistogram.index(32));
+        assertEquals(47, LatencyHistogram.index(63));
+        assertEquals(48, LatencyHistogram.index(64));
+        assertEquals(LatencyHistogram.SIZE - 1, LatencyHistogram.index(Long.MAX_VALUE));
+
+        for (long value = 1; value < LatencyHistogram.MAX_VALUE; value = value * 3 + 1) {
+            var index = LatencyHistogram.index(value);
+
+            assertTrue(LatencyHistogram.lowestValue(index) <= value);
+            assertTrue(LatencyHistogram.highestValue(index) >= value);
+            assertTrue(LatencyHistogram.highestValue(index) - LatencyHistogram.lowestValue(index) <= value / LatencyHistogram.SUB_BUCKETS);
+        }
+    }
+
+    @Test
+    void percentilesAreComputedFromCounters() {
+        var histogram = histogram(100, 1000, 1000, 1000);
+
+        assertEquals(4, histogram.count());
+        assertEquals(LatencyHistogram.highestValue(LatencyHistogram.index(100)), histogram.percentile(25));
+        assertEquals(LatencyHistogram.highestValue(LatencyHistogram.index(1000)), histogram.percentile(99.9));
+        assertEquals(histogram.percentile(100), histogram.max());
+        assertEquals(0, LatencyHistogram.empty().percentile(99));
+    }
+
+    @Test
+    void snapshotsCanBeMergedAndSubtracted() {
+        var first = histogram(10, 20);
+        var second = histogram(10, 20, 30);
+        var merged = LatencyHistogram.merge(List.of(first, second));
+
+        assertEquals(5, merged.count());
+        assertEquals(2, merged.count(LatencyHistogram.index(10)));
+
+        var delta = second.since(first);
+
+        assertEquals(1, delta.count());
+        assertEquals(1, delta.count(LatencyHistogram.index(30)));
+    }
+
+    private static LatencyHistogram histogram(long... values) {
+        var counts = new long[LatencyHistogram.SIZE];
+
+        for (var value : values) {
+            counts[LatencyHistogram.index(value)]++;
+        }
+
+        return LatencyHistogram.latencyHistogram(counts);
+    }
+}
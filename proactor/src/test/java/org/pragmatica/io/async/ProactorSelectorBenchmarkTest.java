@@ -0,0 +1,58 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.pragmatica.io.async;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+
+/**
+ * Compare scalability of {@link ProactorSelector} strategies for increasing number of concurrently selecting threads.
+ */
+@Tag("Benchmark")
+public class ProactorSelectorBenchmarkTest {
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors();
+
+    @State(Scope.Benchmark)
+    public static class Selectors {
+        final ProactorSelector roundRobin = ProactorSelector.roundRobin();
+        final ProactorSelector random = ProactorSelector.random();
+        final ProactorSelector sticky = ProactorSelector.sticky();
+    }
+
+    @Test
+    void runBenchmarks() throws RunnerException {
+        BenchmarkRunner.runScaling(getClass(), POOL_SIZE);
+    }
+
+    @Benchmark
+    public int roundRobin(Selectors selectors) {
+        return selectors.roundRobin.select(POOL_SIZE);
+    }
+
+    @Benchmark
+    public int random(Selectors selectors) {
+        return selectors.random.select(POOL_SIZE);
+    }
+
+    @Benchmark
+    public int sticky(Selectors selectors) {
+        return selectors.sticky.select(POOL_SIZE);
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.pragmatica.io.async;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.pragmatica.io.async.common.SizeT;
+import org.pragmatica.io.async.file.FileDescriptor;
+import org.pragmatica.io.async.net.*;
+import org.pragmatica.io.async.net.InetAddress.Inet4Address;
+import org.pragmatica.io.async.uring.UringSetup;
+import org.pragmatica.io.async.util.DaemonThreadFactory;
+import org.pragmatica.io.async.util.OffHeapSlice;
+import org.pragmatica.io.async.util.Units;
+import org.pragmatica.io.async.util.allocator.ChunkedAllocator;
+import org.pragmatica.lang.Option;
+import org.pragmatica.lang.Result;
+import org.pragmatica.lang.Unit;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+import static org.pragmatica.io.async.uring.UringSetupFlags.*;
+
+/**
+ * Compare NOP and TCP echo throughput of the single proactor for different ring setups, including submission queue polling.
+ */
+@Tag("Benchmark")
+public class SetupFlagsBenchmarkTest {
+    private static final long DURATION_MILLIS = 5_000;
+    private static final int NOP_CHAINS = 1024;
+    private static final int CONNECTIONS = 64;
+    private static final int MESSAGE_SIZE = 64;
+    private static final int BASE_PORT = 27100;
+    private static final Set<MessageFlags> NO_FLAGS = EnumSet.noneOf(MessageFlags.class);
+
+    private static final Timeout SQ_THREAD_IDLE = Timeout.timeout(2).seconds();
+
+    private static final List<UringSetup> SETUPS = List.of(UringSetup.uringSetup(defaultFlags()),
+                                                           UringSetup.uringSetup(EnumSet.of(COOP_TASKRUN, TASKRUN_FLAG)),
+                                                           UringSetup.uringSetup(EnumSet.of(SINGLE_ISSUER, COOP_TASKRUN, TASKRUN_FLAG)),
+                                                           UringSetup.singleThread(),
+                                                           UringSetup.submissionQueuePoll(SQ_THREAD_IDLE),
+                                                           UringSetup.submissionQueuePoll(0, SQ_THREAD_IDLE));
+
+    private final ChunkedAllocator allocator = ChunkedAllocator.allocator(Units._1MiB);
+
+    @Test
+    void nopThroughputAcrossFlagSets() throws InterruptedException {
+        for (var setup : SETUPS) {
+            var proactor = proactor(setup);
+
+            try {
+                report("NOP", setup, runNop(proactor));
+            } finally {
+                proactor.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void echoThroughputAcrossFlagSets() throws InterruptedException {
+        int port = BASE_PORT;
+
+        for (var setup : SETUPS) {
+            var proactor = proactor(setup);
+
+            try {
+                report("Echo", setup, runEcho(proactor, port++));
+            } finally {
+                proactor.shutdown();
+            }
+        }
+    }
+
+    private ProactorImpl proactor(UringSetup setup) {
+        return ProactorImpl.proactor(ProactorConfig.defaultConfig().withUringSetup(setup), allocator,
+                                     DaemonThreadFactory.threadFactory("Benchmark Proactor %d"), 0);
+    }
+
+    private static void report(String name, UringSetup setup, long count) {
+        System.out.printf("%-5s %-50s %10.2fK ops/s\n", name, setup.flags(), count * 1000.0 / DURATION_MILLIS / 1e3);
+    }
+
+    private static long runNop(Proactor proactor) throws InterruptedException {
+        var stop = new AtomicBoolean(false);
+        var latch = new CountDownLatch(NOP_CHAINS);
+        var counts = new long[NOP_CHAINS];
+
+        for (int i = 0; i < NOP_CHAINS; i++) {
+            var ndx = i;
+
+            proactor.nop(new BiConsumer<>() {
+                @Override
+                public void accept(Result<Unit> result, Proactor proactor) {
+                    if (stop.get()) {
+                        latch.countDown();
+                        return;
+                    }
+
+                    counts[ndx]++;
+                    proactor.nop(this);
+                }
+            });
+        }
+
+        Thread.sleep(DURATION_MILLIS);
+        stop.set(true);
+        latch.await(10, TimeUnit.SECONDS);
+
+        long total = 0;
+
+        for (var count : counts) {
+            total += count;
+        }
+
+        return total;
+    }
+
+    private static long runEcho(Proactor proactor, int port) throws InterruptedException {
+        var loopback = InetAddress.inet4Address(new byte[]{127, 0, 0, 1})
+                                  .fold(SetupFlagsBenchmarkTest::fail, address -> address);
+        var address = SocketAddress.socketAddress(InetPort.inetPort(port), loopback);
+        var listenResult = new AtomicReference<Result<ListenContext<Inet4Address>>>();
+
+        proactor.listen(listenResult::set, address, SocketType.STREAM, SocketFlag.closeOnExec(), SizeT.sizeT(CONNECTIONS),
+                        SocketOption.reuseAll());
+
+        var listener = listenResult.get().fold(SetupFlagsBenchmarkTest::fail, ListenContext::socket);
+        var stop = new AtomicBoolean(false);
+        var latch = new CountDownLatch(CONNECTIONS);
+        var clients = new EchoClient[CONNECTIONS];
+
+        acceptNext(proactor, listener, stop);
+
+        for (int i = 0; i < CONNECTIONS; i++) {
+            clients[i] = new EchoClient(stop, latch);
+            clients[i].start(proactor, address);
+        }
+
+        Thread.sleep(DURATION_MILLIS);
+        stop.set(true);
+        latch.await(10, TimeUnit.SECONDS);
+
+        proactor.close(__ -> {}, listener);
+
+        long total = 0;
+
+        for (var client : clients) {
+            total += client.count;
+        }
+
+        return total;
+    }
+
+    private static void acceptNext(Proactor proactor, FileDescriptor listener, AtomicBoolean stop) {
+        proactor.acceptV4((result, p) -> {
+            if (stop.get()) {
+                return;
+            }
+
+            result.onSuccess(connection -> new EchoServer(connection.socket()).start(p));
+            acceptNext(p, listener, stop);
+        }, listener, SocketFlag.closeOnExec());
+    }
+
+    private static <T> T fail(Result.Cause cause) {
+        throw new IllegalStateException(cause.message());
+    }
+
+    private static final class EchoServer {
+        private final FileDescriptor fd;
+        private final OffHeapSlice buffer = OffHeapSlice.fixedSize(MESSAGE_SIZE);
+
+        private EchoServer(FileDescriptor fd) {
+            this.fd = fd;
+        }
+
+        private void start(Proactor proactor) {
+            proactor.recv(this::onRecv, fd, buffer, NO_FLAGS);
+        }
+
+        private void onRecv(Result<SizeT> result, Proactor proactor) {
+            if (result.isFailure() || buffer.used() == 0) {
+                stop(proactor);
+                return;
+            }
+
+            proactor.send(this::onSend, fd, buffer, NO_FLAGS);
+        }
+
+        private void onSend(Result<SizeT> result, Proactor proactor) {
+            if (result.isFailure()) {
+                stop(proactor);
+                return;
+            }
+
+            start(proactor);
+        }
+
+        private void stop(Proactor proactor) {
+            proactor.close(__ -> buffer.close(), fd);
+        }
+    }
+
+    private static final class EchoClient {
+        private final AtomicBoolean stop;
+        private final CountDownLatch latch;
+        private final OffHeapSlice buffer = OffHeapSlice.fixedSize(MESSAGE_SIZE).used(MESSAGE_SIZE);
+        private FileDescriptor fd;
+        private long count;
+
+        private EchoClient(AtomicBoolean stop, CountDownLatch latch) {
+            this.stop = stop;
+            this.latch = latch;
+        }
+
+        private void start(Proactor proactor, SocketAddress<Inet4Address> address) {
+            proactor.socket(result -> result.onFailure(__ -> latch.countDown())
+                                            .onSuccess(socket -> {
+                                                fd = socket;
+                                                proactor.connect(this::onConnect, socket, address, Option.empty());
+                                            }),
+                            AddressFamily.INET, SocketType.STREAM, SocketFlag.closeOnExec(), SocketOption.none());
+        }
+
+        private void onConnect(Result<FileDescriptor> result, Proactor proactor) {
+            result.onFailure(__ -> stop(proactor))
+                  .onSuccessDo(() -> proactor.send(this::onSend, fd, buffer, NO_FLAGS));
+        }
+
+        private void onSend(Result<SizeT> result, Proactor proactor) {
+            result.onFailure(__ -> stop(proactor))
+                  .onSuccessDo(() -> proactor.recv(this::onRecv, fd, buffer, NO_FLAGS));
+        }
+
+        private void onRecv(Result<SizeT> result, Proactor proactor) {
+            if (result.isFailure() || stop.get()) {
+                stop(proactor);
+                return;
+            }
+
+            count++;
+            proactor.send(this::onSend, fd, buffer, NO_FLAGS);
+        }
+
+        private void stop(Proactor proactor) {
+            proactor.close(__ -> {
+                buffer.close();
+                latch.countDown();
+            }, fd);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.pragmatica.io.async.uring;
+
+import org.junit.jupiter.api.Test;
+import org.pragmatica.io.async.uring.exchange.AsyncOperation;
+import org.pragmatica.io.async.uring.exchange.ExchangeEntryPool;
+import org.pragmatica.lang.Functions;
+import org.pragmatica.lang.Result.Cause;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UringApiTest {
+    @Test
+    void completionsAreDeliveredAfterCompletionQueueOverflow() {
+        // Completion queue is twice as large as submission queue, so several submissions without reaping overflow it
+        var count = UringApi.MIN_QUEUE_SIZE * 4;
+        var pool = ExchangeEntryPool.exchangeEntryPool();
+        var api = UringApi.uringApi(UringApi.MIN_QUEUE_SIZE, UringSetup.singleThread(), pool)
+                          .fold(UringApiTest::fail, Functions::id);
+        var delivered = new AtomicInteger();
+
+        try {
+            assertTrue(api.attach().isSuccess());
+
+            for (int i = 0; i < count; i++) {
+                assertTrue(api.submit(pool.acquire(AsyncOperation.NOP)
+                                          .completion((result, __) -> result.onSuccessDo(delivered::incrementAndGet))));
+            }
+
+            for (int i = 0; i < 4; i++) {
+                api.processSubmissions();
+            }
+
+            for (int i = 0; i < 1000 && delivered.get() < count; i++) {
+                api.processSubmissions();
+                api.processCompletions(null);
+            }
+
+            assertEquals(count, delivered.get());
+        } finally {
+            api.detach();
+            api.shutdown();
+        }
+    }
+
+    private static <T> T fail(Cause cause) {
+        throw new IllegalStateException(cause.message());
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.pragmatica.io.async.uring;
+
+import org.junit.jupiter.api.Test;
+import org.pragmatica.io.async.Timeout;
+
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.pragmatica.io.async.uring.UringSetupFlags.*;
+
+class UringSetupTest {
+    @Test
+    void fallbackDropsTaskRunFlagsFromNewestToOldest() {
+        var flags = EnumSet.of(CLAMP, SINGLE_ISSUER, DEFER_TASKRUN, COOP_TASKRUN, TASKRUN_FLAG);
+
+        var first = fallback(flags).or(EnumSet.noneOf(UringSetupFlags.class));
+        assertEquals(EnumSet.of(CLAMP, SINGLE_ISSUER, COOP_TASKRUN, TASKRUN_FLAG), first);
+
+        var second = fallback(first).or(EnumSet.noneOf(UringSetupFlags.class));
+        assertEquals(EnumSet.of(CLAMP, COOP_TASKRUN, TASKRUN_FLAG), second);
+
+        var third = fallback(second).or(EnumSet.noneOf(UringSetupFlags.class));
+        assertEquals(EnumSet.of(CLAMP), third);
+
+        assertTrue(fallback(third).isEmpty());
+    }
+
+    @Test
+    void sharedSetupIsAttachedToRing() {
+        var setup = UringSetup.submissionQueuePoll(1, Timeout.timeout(10).millis())
+                              .shared();
+
+        assertTrue(setup.isShared());
+        assertTrue(setup.isSubmissionQueuePoll());
+        assertEquals(-1, setup.attachFd());
+        assertEquals(EnumSet.of(SQ_POLL, SQ_AFF, ATTACH_WQ), setup.flags());
+
+        var attached = setup.attachTo(42);
+
+        assertEquals(42, attached.attachFd());
+        assertEquals(1, attached.sqThreadCpu());
+        assertEquals(setup.flags(), attached.flags());
+    }
+}
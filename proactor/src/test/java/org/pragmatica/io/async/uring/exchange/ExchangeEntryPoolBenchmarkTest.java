@@ -0,0 +1,97 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.pragmatica.io.async.uring.exchange;
+
+import org.jctools.queues.MpscArrayQueue;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+import org.pragmatica.io.async.BenchmarkRunner;
+import org.pragmatica.io.async.Proactor;
+import org.pragmatica.lang.Result;
+import org.pragmatica.lang.Unit;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Measure contention of the {@link ExchangeEntryPool}: several submitting threads acquire entries and hand them over to the single "ring" thread,
+ * which completes and releases them, just like proactor worker does.
+ */
+@Tag("Benchmark")
+public class ExchangeEntryPoolBenchmarkTest {
+    private static final BiConsumer<Result<Unit>, Proactor> IGNORE = (result, proactor) -> {};
+
+    @State(Scope.Group)
+    public static class Ring {
+        final ExchangeEntryPool pool = ExchangeEntryPool.exchangeEntryPool();
+        final MpscArrayQueue<ExchangeEntry<Unit>> queue = new MpscArrayQueue<>(4096);
+        boolean attached;
+
+        @TearDown
+        public void tearDown() {
+            pool.clear();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Submitter {
+        // Entry which did not fit into the full queue, retried on next invocation
+        ExchangeEntry<Unit> pending;
+    }
+
+    @Test
+    void runBenchmarks() throws RunnerException {
+        BenchmarkRunner.run(getClass());
+    }
+
+    @Benchmark
+    @Group("exchange")
+    @GroupThreads(3)
+    public boolean acquire(Ring ring, Submitter submitter) {
+        var entry = submitter.pending;
+
+        if (entry == null) {
+            entry = ring.pool.acquire(AsyncOperation.NOP).completion(IGNORE);
+        }
+
+        var accepted = ring.queue.offer(entry);
+        submitter.pending = accepted ? null : entry;
+
+        return accepted;
+    }
+
+    @Benchmark
+    @Group("exchange")
+    @GroupThreads(1)
+    public boolean release(Ring ring) {
+        if (!ring.attached) {
+            ring.pool.attach();
+            ring.attached = true;
+        }
+
+        var entry = ring.queue.poll();
+
+        if (entry == null) {
+            ring.pool.flush();
+            return false;
+        }
+
+        ring.pool.completeRequest(entry.userData(), 0, 0, null);
+        return true;
+    }
+}
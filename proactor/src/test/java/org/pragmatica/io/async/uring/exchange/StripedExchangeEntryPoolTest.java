@@ -0,0 +1,203 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.pragmatica.io.async.uring.exchange;
+
+import org.junit.jupiter.api.Test;
+import org.pragmatica.io.async.net.InetAddress.Inet4Address;
+import org.pragmatica.io.async.net.InetPort;
+import org.pragmatica.io.async.net.SocketAddress;
+import org.pragmatica.io.async.util.OffHeapSlice;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.LongPredicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StripedExchangeEntryPoolTest {
+    private static final int INITIAL_SIZE = 2048;
+
+    @Test
+    void entriesAcquiredConcurrentlyAreDistinct() throws InterruptedException {
+        var pool = new StripedExchangeEntryPool(INITIAL_SIZE);
+        var keys = ConcurrentHashMap.<Integer>newKeySet();
+        var threads = 8;
+        var perThread = 1000;
+        var done = new CountDownLatch(threads);
+
+        for (int i = 0; i < threads; i++) {
+            Thread.ofPlatform().start(() -> {
+                for (int j = 0; j < perThread; j++) {
+                    var entry = pool.acquire(AsyncOperation.NOP);
+
+                    assertTrue(keys.add(entry.key()));
+                    assertSame(entry, pool.lookup(entry.key()));
+                }
+                done.countDown();
+            });
+        }
+
+        done.await();
+        assertEquals(threads * perThread, keys.size());
+        pool.clear();
+    }
+
+    @Test
+    void releasedEntriesAreReusedByOwnerThread() {
+        var pool = new StripedExchangeEntryPool(INITIAL_SIZE);
+
+        pool.attach();
+
+        var entry = pool.acquire(AsyncOperation.NOP).completion((result, proactor) -> {});
+
+        pool.completeRequest(entry.userData(), 0, 0, null);
+
+        assertSame(entry, pool.acquire(AsyncOperation.NOP));
+        pool.clear();
+    }
+
+    @Test
+    void entryIsReleasedEvenIfCallbackFails() {
+        var pool = new StripedExchangeEntryPool(INITIAL_SIZE);
+
+        pool.attach();
+
+        var entry = pool.acquire(AsyncOperation.NOP).completion((result, proactor) -> {
+            throw new IllegalStateException("Callback failure");
+        });
+        var userData = entry.userData();
+
+        assertThrows(IllegalStateException.class, () -> pool.completeRequest(userData, 0, 0, null));
+        assertNotEquals(userData, entry.userData());
+        assertSame(entry, pool.acquire(AsyncOperation.NOP));
+        pool.clear();
+    }
+
+    @Test
+    void releasedEntriesBecomeAvailableToOtherThreads() throws InterruptedException {
+        var pool = new StripedExchangeEntryPool(INITIAL_SIZE);
+        var acquired = new ArrayList<ExchangeEntry<?>>();
+
+        pool.attach();
+
+        // Drain initial entries from another thread
+        runInThread(() -> {
+            for (int i = 0; i < INITIAL_SIZE; i++) {
+                acquired.add(pool.acquire(AsyncOperation.NOP).completion((result, proactor) -> {}));
+            }
+        });
+
+        acquired.forEach(entry -> pool.completeRequest(entry.userData(), 0, 0, null));
+        pool.flush();
+
+        var keys = new HashSet<Integer>();
+
+        runInThread(() -> {
+            for (int i = 0; i < INITIAL_SIZE; i++) {
+                keys.add(pool.acquire(AsyncOperation.NOP).key());
+            }
+        });
+
+        // No growth, all entries are reused
+        assertEquals(INITIAL_SIZE, keys.size());
+        assertTrue(keys.stream().allMatch(key -> key < INITIAL_SIZE));
+        pool.clear();
+    }
+
+    @Test
+    void poolGrowsBySegmentsWhenExhausted() {
+        var pool = new StripedExchangeEntryPool(INITIAL_SIZE);
+        var entries = new ArrayList<ExchangeEntry<?>>();
+
+        // Enough to overflow initial segment directory, so it is copied as well
+        var total = StripedExchangeEntryPool.SEGMENT_SIZE * 40;
+
+        for (int i = 0; i < total; i++) {
+            entries.add(pool.acquire(AsyncOperation.NOP));
+        }
+
+        var keys = new HashSet<Integer>();
+
+        entries.forEach(entry -> keys.add(entry.key()));
+        entries.forEach(entry -> assertSame(entry, pool.lookup(entry.key())));
+        assertEquals(total, keys.size());
+        assertTrue(keys.stream().allMatch(key -> key < total));
+        pool.clear();
+    }
+
+    @Test
+    void initialSizeIsRoundedUpToSegment() {
+        var pool = new StripedExchangeEntryPool(StripedExchangeEntryPool.SEGMENT_SIZE + 1);
+        var keys = new HashSet<Integer>();
+
+        for (int i = 0; i < 2 * StripedExchangeEntryPool.SEGMENT_SIZE; i++) {
+            keys.add(pool.acquire(AsyncOperation.NOP).key());
+        }
+
+        assertTrue(keys.stream().allMatch(key -> key < 2 * StripedExchangeEntryPool.SEGMENT_SIZE));
+        pool.clear();
+    }
+
+    @Test
+    void offHeapSlotsOfSegmentAreContiguousAndAligned() {
+        var pool = new StripedExchangeEntryPool(INITIAL_SIZE);
+        var first = pool.lookup(0);
+        var second = pool.lookup(1);
+        var base = first.delayTime().address();
+
+        assertEquals(0, base % ExchangeEntry.CACHE_LINE);
+        assertEquals(base + ExchangeEntry.SLOT_SIZE, second.delayTime().address());
+        assertTrue(first.fileStat().address() + first.fileStat().size() <= second.delayTime().address());
+        assertTrue(first.remoteAddress().address() + first.remoteAddress().size() <= first.fileStat().address());
+        pool.clear();
+    }
+
+    @Test
+    void transientStructuresArePlacedIntoScratchSpaceIfTheyFit() {
+        var pool = new StripedExchangeEntryPool(INITIAL_SIZE);
+        var entry = pool.acquire(AsyncOperation.NOP);
+        var scratch = entry.remoteAddress().address() + entry.remoteAddress().size();
+        var withinSlot = (LongPredicate) address -> address >= scratch && address < entry.fileStat().address();
+
+        assertTrue(withinSlot.test(entry.rawPath("/tmp/some/file").rawPath().address()));
+        var buffer1 = OffHeapSlice.fixedSize(16);
+        var buffer2 = OffHeapSlice.fixedSize(16);
+
+        assertTrue(withinSlot.test(entry.readBuffers(buffer1, buffer2).ioVector().address()));
+        buffer1.close();
+        buffer2.close();
+        assertTrue(withinSlot.test(entry.destinationAddress(SocketAddress.socketAddress(InetPort.inetPort(80), Inet4Address.INADDR_ANY)).destinationAddress().address()));
+
+        var longPath = entry.rawPath("x".repeat(ExchangeEntry.SCRATCH_SIZE)).rawPath();
+
+        assertFalse(withinSlot.test(longPath.address()));
+        longPath.dispose();
+        pool.clear();
+    }
+
+    private static void runInThread(Runnable runnable) throws InterruptedException {
+        var thread = Thread.ofPlatform().start(runnable);
+        thread.join();
+    }
+}
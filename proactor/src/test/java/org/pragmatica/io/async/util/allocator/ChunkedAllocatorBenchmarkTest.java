@@ -0,0 +1,87 @@
+/*
+ *  Copyright (c) 2020-2022 Sergiy Yevtushenko.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.pragmatica.io.async.util.allocator;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+import org.pragmatica.io.async.BenchmarkRunner;
+import org.pragmatica.io.async.util.Units;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Throughput and fragmentation of the {@link ChunkedAllocator} under connection churn: each thread keeps a set of live buffers of random sizes
+ * and replaces random one on each invocation. Allocation map is printed at the end of each run, so fragmentation can be inspected.
+ */
+@Tag("Benchmark")
+public class ChunkedAllocatorBenchmarkTest {
+    private static final int MAX_THREADS = Runtime.getRuntime().availableProcessors();
+    private static final int LIVE_BUFFERS = 64;
+
+    @State(Scope.Benchmark)
+    public static class Allocator {
+        @Param({"1024", "4096", "16384", "65536"})
+        int maxSize;
+
+        ChunkedAllocator allocator;
+
+        @Setup
+        public void setup() {
+            allocator = ChunkedAllocator.allocator(16 * Units._1MiB, 16);
+        }
+
+        @TearDown
+        public void tearDown() {
+            var map = allocator.allocationMap();
+
+            System.err.printf("Regions: %d, chunks used by runs: %d, by size classes: %d, free: %d%n", allocator.regionCount(),
+                              map.chars().filter(c -> c == 'U').count(), map.chars().filter(c -> c == 'S').count(),
+                              map.chars().filter(c -> c == '.').count());
+            allocator.close();
+        }
+    }
+
+    // Live buffers are not disposed at the end of the run, they are released together with allocator memory
+    @State(Scope.Thread)
+    public static class LiveBuffers {
+        final FixedBuffer[] buffers = new FixedBuffer[LIVE_BUFFERS];
+    }
+
+    @Test
+    void runBenchmarks() throws RunnerException {
+        BenchmarkRunner.runScaling(getClass(), MAX_THREADS);
+    }
+
+    @Benchmark
+    public boolean churn(Allocator allocator, LiveBuffers live) {
+        var random = ThreadLocalRandom.current();
+        var index = random.nextInt(LIVE_BUFFERS);
+        var old = live.buffers[index];
+
+        if (old != null) {
+            old.dispose();
+        }
+
+        var result = allocator.allocator.allocate(random.nextInt(1, allocator.maxSize + 1));
+
+        live.buffers[index] = result.fold(__ -> null, buffer -> buffer);
+
+        return result.isSuccess();
+    }
+}
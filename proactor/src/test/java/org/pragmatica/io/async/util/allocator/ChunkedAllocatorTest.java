@@ -19,6 +19,12 @@ package org.pragmatica.io.async.util.allocator;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.pragmatica.io.async.util.Units;
+import org.pragmatica.io.async.util.raw.RawMemory;
+
+import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.pragmatica.io.async.util.Units._1KiB;
@@ -33,28 +39,132 @@ class ChunkedAllocatorTest {
             assertEquals("........", allocator.allocationMap());
 
             var buf1 = allocator.allocate(1);
-            assertEquals("U.......", allocator.allocationMap());
+            assertEquals("S.......", allocator.allocationMap());
 
             buf1.onSuccess(FixedBuffer::dispose);
-            assertEquals("........", allocator.allocationMap());
+            assertEquals("S.......", allocator.allocationMap());
 
             var buf2 = allocator.allocate(1);
-            assertEquals("U.......", allocator.allocationMap());
+            assertEquals("S.......", allocator.allocationMap());
+            assertEquals(buf1.map(FixedBuffer::address), buf2.map(FixedBuffer::address));
 
             var buf3 = allocator.allocate(ChunkedAllocator.CHUNK_SIZE + 1);
-            assertEquals("UUU.....", allocator.allocationMap());
+            assertEquals("SUU.....", allocator.allocationMap());
 
             buf2.onSuccess(FixedBuffer::dispose);
-            assertEquals(".UU.....", allocator.allocationMap());
+            assertEquals("SUU.....", allocator.allocationMap());
 
             var buf4 = allocator.allocate(ChunkedAllocator.CHUNK_SIZE + 1);
-            assertEquals(".UUUU...", allocator.allocationMap());
+            assertEquals("SUUUU...", allocator.allocationMap());
 
             var buf5 = allocator.allocate(1);
-            assertEquals("UUUUU...", allocator.allocationMap());
+            assertEquals("SUUUU...", allocator.allocationMap());
 
             buf3.onSuccess(FixedBuffer::dispose);
-            assertEquals("U..UU...", allocator.allocationMap());
+            assertEquals("S..UU...", allocator.allocationMap());
+
+            var buf6 = allocator.allocate(ChunkedAllocator.CHUNK_SIZE + 1);
+            assertEquals("SUUUU...", allocator.allocationMap());
+        } finally {
+            allocator.close();
+        }
+    }
+
+    @Test
+    void smallBuffersShareChunk() {
+        var allocator = allocator(128 * _1KiB);
+
+        try {
+            var buffers = new ArrayList<FixedBuffer>();
+            var blocks = ChunkedAllocator.CHUNK_SIZE / ChunkedAllocator.MIN_BLOCK_SIZE;
+
+            for (int i = 0; i < blocks; i++) {
+                allocator.allocate(ChunkedAllocator.MIN_BLOCK_SIZE).onSuccess(buffers::add);
+            }
+
+            assertEquals("S.......", allocator.allocationMap());
+            assertEquals(blocks, buffers.stream().map(FixedBuffer::address).distinct().count());
+
+            allocator.allocate(1).onSuccess(buffers::add);
+            assertEquals("SS......", allocator.allocationMap());
+
+            // Each size class uses own chunks
+            allocator.allocate(ChunkedAllocator.CHUNK_SIZE / 2).onSuccess(buffers::add);
+            assertEquals("SSS.....", allocator.allocationMap());
+
+            buffers.forEach(FixedBuffer::dispose);
+
+            for (int i = 0; i < blocks; i++) {
+                allocator.allocate(ChunkedAllocator.MIN_BLOCK_SIZE).onFailureDo(Assertions::fail);
+            }
+
+            assertEquals("SSS.....", allocator.allocationMap());
+        } finally {
+            allocator.close();
+        }
+    }
+
+    @Test
+    void freeWholeChunksAreReclaimedForLargerBuffers() {
+        var allocator = allocator(64 * _1KiB);
+
+        try {
+            var buffers = new ArrayList<FixedBuffer>();
+
+            for (int i = 0; i < 4; i++) {
+                allocator.allocate(ChunkedAllocator.CHUNK_SIZE).onSuccess(buffers::add);
+            }
+
+            assertEquals("SSSS", allocator.allocationMap());
+
+            buffers.forEach(FixedBuffer::dispose);
+
+            allocator.allocate(64 * _1KiB).onFailureDo(Assertions::fail);
+            assertEquals("UUUU", allocator.allocationMap());
+        } finally {
+            allocator.close();
+        }
+    }
+
+    @Test
+    void concurrentAllocationsDoNotOverlap() throws InterruptedException {
+        var allocator = allocator(Units._1MiB, 4);
+        var failures = new AtomicInteger();
+        var threads = new ArrayList<Thread>();
+
+        try {
+            for (int i = 0; i < 8; i++) {
+                var marker = (byte) i;
+
+                threads.add(Thread.ofPlatform().start(() -> {
+                    var random = ThreadLocalRandom.current();
+
+                    for (int j = 0; j < 10_000; j++) {
+                        var size = random.nextInt(1, ChunkedAllocator.CHUNK_SIZE + 1);
+
+                        allocator.allocate(size)
+                                 .onFailure(__ -> failures.incrementAndGet())
+                                 .onSuccess(buffer -> {
+                                     RawMemory.putByte(buffer.address(), marker);
+                                     RawMemory.putByte(buffer.address() + size - 1, marker);
+                                     Thread.yield();
+
+                                     if (RawMemory.getByte(buffer.address()) != marker
+                                         || RawMemory.getByte(buffer.address() + size - 1) != marker) {
+                                         failures.incrementAndGet();
+                                     }
+
+                                     buffer.dispose();
+                                 });
+                    }
+                }));
+            }
+
+            for (var thread : threads) {
+                thread.join();
+            }
+
+            assertEquals(0, failures.get());
         } finally {
             allocator.close();
         }
@@ -78,4 +188,47 @@ class ChunkedAllocatorTest {
             allocator.close();
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void allocatorGrowsByRegions() {
+        var allocator = allocator(32 * _1KiB, 2);
+
+        try {
+            assertEquals("..", allocator.allocationMap());
+
+            var buf1 = allocator.allocate(32 * _1KiB);
+            assertEquals("UU", allocator.allocationMap());
+            buf1.onSuccess(buffer -> assertEquals(0, buffer.bufIndex()));
+
+            var buf2 = allocator.allocate(1);
+            assertEquals("UU\nS.", allocator.allocationMap());
+            assertEquals(2, allocator.regionCount());
+            buf2.onSuccess(buffer -> assertEquals(1, buffer.bufIndex()));
+
+            allocator.allocate(32 * _1KiB)
+                     .onSuccessDo(Assertions::fail);
+
+            buf1.onSuccess(FixedBuffer::dispose);
+            assertEquals("..\nS.", allocator.allocationMap());
+
+            buf2.onSuccess(FixedBuffer::dispose);
+            assertEquals("..\nS.", allocator.allocationMap());
+        } finally {
+            allocator.close();
+        }
+    }
+
+    @Test
+    void allocationFailsIfLargerThanRegion() {
+        var allocator = allocator(32 * _1KiB, 4);
+
+        try {
+            allocator.allocate(32 * _1KiB + 1)
+                     .onSuccessDo(Assertions::fail);
+
+            assertEquals(1, allocator.regionCount());
+        } finally {
+            allocator.close();
+        }
+    }
+}